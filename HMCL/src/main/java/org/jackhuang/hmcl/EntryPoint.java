@@ -19,6 +19,7 @@ package org.jackhuang.hmcl;
 
 import org.jackhuang.hmcl.util.FileSaver;
 import org.jackhuang.hmcl.util.SelfDependencyPatcher;
+import org.jackhuang.hmcl.util.StartupTrace;
 import org.jackhuang.hmcl.util.SwingUtils;
 import org.jackhuang.hmcl.java.JavaRuntime;
 import org.jackhuang.hmcl.util.io.FileUtils;
@@ -30,8 +31,12 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
@@ -47,8 +52,12 @@ public final class EntryPoint {
         System.getProperties().putIfAbsent("javafx.autoproxy.disable", "true");
         System.getProperties().putIfAbsent("http.agent", "HMCL/" + Metadata.VERSION);
 
+        StartupTrace.mark("jvm");
+
         createHMCLDirectories();
+        relaunchWithSharedArchive(args);
         LOG.start(Metadata.HMCL_LOCAL_HOME.resolve("logs"));
+        StartupTrace.mark("logger");
 
         checkWine();
 
@@ -62,6 +71,7 @@ public final class EntryPoint {
         verifyJavaFX();
         addEnableNativeAccess();
         enableUnsafeMemoryAccess();
+        StartupTrace.mark("javafx");
 
         Launcher.main(args);
     }
@@ -100,6 +110,84 @@ public final class EntryPoint {
         }
     }
 
+    /// Restarts the launcher with a dynamic CDS archive of its classes if `hmcl.cds` is enabled.
+    ///
+    /// A JVM can only map an archive given on its command line, so the first process starts a child JVM with
+    /// `-XX:+AutoCreateSharedArchive` and exits. The child dumps the classes it loaded to the archive when
+    /// it exits, and later runs map them instead of loading and verifying them again. The JVM validates the archive
+    /// against the jar and itself, and recreates it after an update. Requires HotSpot 19 or newer.
+    ///
+    /// The first process does not wait for the child, so it neither keeps a second JVM in memory nor holds the jar
+    /// open while the launcher updates itself. The exit code of the child is lost, which does not matter for a GUI.
+    private static void relaunchWithSharedArchive(String[] args) {
+        if (!"true".equals(System.getProperty("hmcl.cds", System.getenv("HMCL_CDS")))
+                || "true".equals(System.getProperty("hmcl.cds.child"))
+                || JavaRuntime.CURRENT_VERSION < 19
+                || !System.getProperty("java.vm.name", "").contains("HotSpot")) {
+            return;
+        }
+
+        Path thisJar = JarUtils.thisJarPath();
+        if (thisJar == null || !Files.isRegularFile(thisJar))
+            return;
+
+        Path archive = Metadata.HMCL_LOCAL_HOME.resolve("cds")
+                .resolve("hmcl-" + System.getProperty("java.vm.version").replaceAll("[^A-Za-z0-9._+-]", "_") + ".jsa");
+
+        List<String> commandline = new ArrayList<>();
+        commandline.add(ProcessHandle.current().info().command()
+                .orElseGet(() -> Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        try {
+            commandline.addAll(getSharedArchiveChildArguments(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        } catch (Throwable ignored) {
+            // Without the original options the child might behave differently, so stay in this process
+            return;
+        }
+        commandline.add("-XX:SharedArchiveFile=" + archive);
+        commandline.add("-XX:+AutoCreateSharedArchive");
+        commandline.add("-Dhmcl.cds.child=true");
+        ProcessHandle.current().info().startInstant().ifPresent(startInstant ->
+                commandline.add("-D" + StartupTrace.START_TIME_PROPERTY + "=" + startInstant.toEpochMilli()));
+        commandline.add("-jar");
+        commandline.add(thisJar.toString());
+        commandline.addAll(Arrays.asList(args));
+
+        try {
+            Files.createDirectories(archive.getParent());
+            new ProcessBuilder(commandline).inheritIO().start();
+        } catch (IOException e) {
+            // Logger has not been started yet, so print directly to System.err
+            System.err.println("Failed to restart with shared archive " + archive);
+            e.printStackTrace(System.err);
+            return;
+        }
+        System.exit(0);
+    }
+
+    /// Returns the JVM options of this process that are passed on to the child started by
+    /// [#relaunchWithSharedArchive(String[])].
+    ///
+    /// All options are kept except those that choose or create a shared archive, and those the child receives
+    /// from the first process anyway.
+    ///
+    /// @param inputArguments the JVM options of this process
+    static List<String> getSharedArchiveChildArguments(List<String> inputArguments) {
+        List<String> result = new ArrayList<>(inputArguments.size());
+        for (String argument : inputArguments) {
+            if (argument.startsWith("-XX:SharedArchiveFile=")
+                    || argument.startsWith("-XX:ArchiveClassesAtExit=")
+                    || argument.startsWith("-XX:SharedClassListFile=")
+                    || argument.equals("-XX:+AutoCreateSharedArchive")
+                    || argument.equals("-XX:-AutoCreateSharedArchive")
+                    || argument.startsWith("-Xshare:")
+                    || argument.startsWith("-Dhmcl.cds.child=")
+                    || argument.startsWith("-D" + StartupTrace.START_TIME_PROPERTY + "="))
+                continue;
+            result.add(argument);
+        }
+        return result;
+    }
+
     private static boolean isInsideMacAppBundle() {
         Path thisJar = JarUtils.thisJarPath();
         if (thisJar == null)
@@ -83,6 +83,7 @@ public final class Launcher extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        StartupTrace.mark("toolkit");
         Thread.currentThread().setUncaughtExceptionHandler(CRASH_REPORTER);
 
         CookieHandler.setDefault(COOKIE_MANAGER);
@@ -136,6 +137,7 @@ public final class Launcher extends Application {
                 // Stage.show() cannot work again because JavaFX Toolkit have already shut down.
                 Platform.setImplicitExit(false);
                 Controllers.initialize(primaryStage);
+                StartupTrace.mark("controllers");
 
                 if (OperatingSystem.CURRENT_OS == OperatingSystem.MACOS)
                     Themes.applyNativeDarkMode(primaryStage);
@@ -143,6 +145,13 @@ public final class Launcher extends Application {
                 UpdateChecker.init();
 
                 WindowsNativeUtils.installWindowsAppUserModelRelaunchProperties(primaryStage);
+                primaryStage.getScene().addPostLayoutPulseListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        primaryStage.getScene().removePostLayoutPulseListener(this);
+                        StartupTrace.finish("first_frame");
+                    }
+                });
                 primaryStage.show();
             });
         } catch (Throwable e) {
@@ -153,10 +162,15 @@ public final class Launcher extends Application {
     /// Initializes modules and runtime services that depend on loaded settings.
     private static void initializeSettingsRuntime() {
         DownloadProviders.init();
+        StartupTrace.mark("download_providers");
         ProxyManager.init();
+        StartupTrace.mark("proxy");
         Accounts.init();
+        StartupTrace.mark("accounts");
         GameDirectoryManager.init();
+        StartupTrace.mark("game_directories");
         AuthlibInjectorServers.init();
+        StartupTrace.mark("authlib_injector_servers");
         AnimationUtils.init();
 
         CacheRepository.setInstance(HMCLCacheRepository.REPOSITORY);
@@ -168,6 +182,7 @@ public final class Launcher extends Application {
                 return LauncherSettings.getDefaultCommonDirectory();
             }
         }, settings().commonDirectoryProperty(), settings().commonDirectoryTypeProperty()));
+        HMCLCacheRepository.REPOSITORY.scheduleEviction();
     }
 
     private static void appendScreen(StringBuilder builder, Screen screen) {
@@ -328,9 +343,13 @@ public final class Launcher extends Application {
             }
 
             LOG.info("Zlib Compatible: " + ZlibUtils.IS_ZLIB_COMPATIBLE);
+            if ("true".equals(System.getProperty("hmcl.cds.child")))
+                LOG.info("Shared Archive: enabled");
 
             Lang.thread(SystemInfo::initialize, "Detection System Information", true);
 
+            StartupTrace.mark("launcher");
+
             try {
                 SettingsManager.init();
             } catch (SambaException e) {
@@ -342,6 +361,8 @@ public final class Launcher extends Application {
                 EntryPoint.exit(1);
             }
 
+            StartupTrace.mark("settings");
+
             setupJavaFXVMOptions();
             setupWindowsAppUserModelID();
 
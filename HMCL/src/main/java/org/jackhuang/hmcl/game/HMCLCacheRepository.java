@@ -20,8 +20,22 @@ package org.jackhuang.hmcl.game;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import org.jackhuang.hmcl.download.DefaultCacheRepository;
+import org.jackhuang.hmcl.setting.GameDirectoryManager;
+import org.jackhuang.hmcl.task.Schedulers;
+import org.jackhuang.hmcl.util.CacheEvictor;
+import org.jackhuang.hmcl.util.DigestUtils;
+import org.jackhuang.hmcl.util.Lang;
+import org.jackhuang.hmcl.util.StringUtils;
 
 import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
 public class HMCLCacheRepository extends DefaultCacheRepository {
 
@@ -43,5 +57,98 @@ public class HMCLCacheRepository extends DefaultCacheRepository {
         this.directory.set(directory);
     }
 
+    private static final long EVICTION_DELAY_SECONDS = 60;
+
+    /// Reads the cache budget from `hmcl.cache.max_size` (MiB) and `hmcl.cache.max_age` (days).
+    ///
+    /// Both are unlimited by default, so nothing is evicted unless one of them is set.
+    /// A value of `0` disables the limit.
+    private static CacheEvictor.Budget readBudget() {
+        long maxSizeMiB = readLong("hmcl.cache.max_size", "HMCL_CACHE_MAX_SIZE", 0L);
+        long maxAgeDays = readLong("hmcl.cache.max_age", "HMCL_CACHE_MAX_AGE", 0L);
+        return new CacheEvictor.Budget(maxSizeMiB * 1024 * 1024, TimeUnit.DAYS.toMillis(maxAgeDays));
+    }
+
+    private static long readLong(String property, String environmentVariable, long defaultValue) {
+        String value = System.getProperty(property, System.getenv(environmentVariable));
+        if (StringUtils.isBlank(value))
+            return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warning("Invalid value of " + property + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /// Evicts unused files from the cache in the background, shortly after startup, if a budget is configured.
+    ///
+    /// Files referenced by the libraries, client jars and assets of the instances of every game directory
+    /// loaded by then are kept. Game directories that are not loaded, and instances of other launchers sharing
+    /// the cache, are not known here, which is why eviction must be turned on explicitly.
+    public void scheduleEviction() {
+        CacheEvictor.Budget budget = readBudget();
+        if (budget.isUnlimited())
+            return;
+
+        CompletableFuture.supplyAsync(() -> GameDirectoryManager.getCreatedRepositories().stream()
+                                .map(HMCLGameRepository::getSnapshot)
+                                .toList(),
+                        CompletableFuture.delayedExecutor(EVICTION_DELAY_SECONDS, TimeUnit.SECONDS, Schedulers.javafx()))
+                .thenAcceptAsync(snapshots -> evict(budget, snapshots),
+                        runnable -> Lang.thread(runnable, "Cache Eviction", true))
+                .exceptionally(e -> {
+                    LOG.warning("Unable to evict cached files", e);
+                    return null;
+                });
+    }
+
+    private void evict(CacheEvictor.Budget budget, List<HMCLGameRepositorySnapshot> snapshots) {
+        Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+
+        Set<String> referenced = new HashSet<>();
+        for (HMCLGameRepositorySnapshot snapshot : snapshots) {
+            for (GameInstance instance : snapshot.getInstances()) {
+                collectReferencedFiles(instance, referenced);
+            }
+        }
+
+        try {
+            CacheEvictor.Result result = new CacheEvictor(this).evict(budget, referenced::contains);
+            LOG.info("Evicted " + result.evictedFiles() + " cached files (" + result.evictedBytes() + " bytes) with " + budget
+                    + ", " + result.remainingBytes() + " bytes left, " + referenced.size() + " files referenced by instances");
+        } catch (InterruptedException e) {
+            LOG.info("Cache eviction interrupted");
+        } catch (Exception e) {
+            LOG.warning("Unable to evict cached files", e);
+        }
+    }
+
+    private static void collectReferencedFiles(GameInstance instance, Set<String> referenced) {
+        try {
+            GameInstanceManifest manifest = instance.getLaunchManifest();
+            for (Library library : manifest.getLibraries()) {
+                addDigest(referenced, library.getDownload().getSha1());
+            }
+            for (DownloadInfo download : manifest.getDownloads().values()) {
+                addDigest(referenced, download.getSha1());
+            }
+
+            AssetIndexInfo assetIndexInfo = manifest.getAssetIndex();
+            addDigest(referenced, assetIndexInfo.getSha1());
+            for (AssetObject object : instance.getAssetIndex(assetIndexInfo.getId()).getObjects().values()) {
+                addDigest(referenced, object.hash());
+            }
+        } catch (Exception e) {
+            // The instance is broken or its asset index is not downloaded yet
+            LOG.debug("Unable to collect the files of instance " + instance.getId() + ": " + e);
+        }
+    }
+
+    private static void addDigest(Set<String> referenced, String hash) {
+        if (DigestUtils.isSha1Digest(hash))
+            referenced.add(hash.toLowerCase(Locale.ROOT));
+    }
+
     public static final HMCLCacheRepository REPOSITORY = new HMCLCacheRepository();
 }
@@ -21,6 +21,7 @@ import org.jackhuang.hmcl.Metadata;
 import org.jackhuang.hmcl.auth.AuthInfo;
 import org.jackhuang.hmcl.launch.DefaultLauncher;
 import org.jackhuang.hmcl.launch.ProcessListener;
+import org.jackhuang.hmcl.util.FileHashIndex;
 import org.jackhuang.hmcl.util.NativePatcher;
 import org.jackhuang.hmcl.util.i18n.LocaleUtils;
 import org.jackhuang.hmcl.util.io.FileUtils;
@@ -65,6 +66,11 @@ public final class HMCLGameLauncher extends DefaultLauncher {
         super(instance, manifest, authInfo, options, listener, daemon);
     }
 
+    @Override
+    protected FileHashIndex getHashIndex() {
+        return HMCLCacheRepository.REPOSITORY.getHashIndex();
+    }
+
     @Override
     protected Map<String, String> getConfigurations() {
         Map<String, String> res = super.getConfigurations();
@@ -55,6 +55,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.lang.ref.WeakReference;
 import java.net.SocketTimeoutException;
 import java.net.URI;
@@ -165,58 +166,76 @@ public final class LauncherHelper {
         List<String> javaArguments = new ArrayList<>(0);
 
         AtomicReference<JavaRuntime> javaVersionRef = new AtomicReference<>();
+        AtomicReference<AuthInfo> authInfoRef = new AtomicReference<>();
+        AtomicReference<AuthenticationException> logInFailureRef = new AtomicReference<>();
+        LaunchTimings timings = new LaunchTimings();
 
-        TaskExecutor executor = checkGameState(gameInstance, setting, launchManifest.get())
+        TaskExecutor executor = timings.time("java", checkGameState(gameInstance, setting, launchManifest.get()))
                 .thenComposeAsync(java -> {
                     javaVersionRef.set(Objects.requireNonNull(java));
                     launchManifest.set(NativePatcher.patchNative(gameInstance, launchManifest.get(), java, setting, javaArguments));
-                    if (setting.getInheritable(GameSettings::notCheckGameProperty))
-                        return null;
-                    return Task.allOf(
-                            dependencyManager.checkGameCompletionAsync(gameInstance, launchManifest.get(), integrityCheck),
-                            Task.composeAsync(() -> {
-                                try {
-                                    @Nullable ModpackConfiguration<?> configuration =
-                                            gameInstance.readModpackConfiguration();
-                                    if (configuration == null) return null;
-                                    @Nullable ModpackProvider provider =
-                                            ModpackHelper.getProviderByType(configuration.getType());
-                                    if (provider == null) return null;
-                                    else return provider.createCompletionTask(
-                                            dependencyManager,
-                                            gameInstance);
-                                } catch (IOException e) {
-                                    return null;
-                                }
-                            }),
-                            Task.composeAsync(() -> {
-                                if (OperatingSystem.CURRENT_OS != OperatingSystem.WINDOWS
-                                        || !(setting.getRenderer(gameInstance.getVersion()) instanceof Renderer.Driver renderer)
-                                        || renderer.mesaDriverName() == null)
-                                    return null;
-
-                                Library lib = NativePatcher.getWindowsMesaLoader(java, renderer, OperatingSystem.SYSTEM_VERSION);
-                                if (lib == null)
-                                    return null;
-                                Path file = gameInstance.getLayout().getLibraryFile(gameInstance.getId(), lib);
-                                if (file.toAbsolutePath().toString().indexOf('=') >= 0) {
-                                    LOG.warning("Invalid character '=' in the libraries directory path, unable to attach software renderer loader");
-                                    return null;
-                                }
 
-                                String agent = FileUtils.getAbsolutePath(file) + "=" + renderer.mesaDriverName();
+                    Task<?> prepareGame = timings.time("dependencies", Task.composeAsync(() -> {
+                        if (setting.getInheritable(GameSettings::notCheckGameProperty))
+                            return null;
+                        return Task.allOf(
+                                dependencyManager.checkGameCompletionAsync(gameInstance, launchManifest.get(), integrityCheck),
+                                Task.composeAsync(() -> {
+                                    try {
+                                        @Nullable ModpackConfiguration<?> configuration =
+                                                gameInstance.readModpackConfiguration();
+                                        if (configuration == null) return null;
+                                        @Nullable ModpackProvider provider =
+                                                ModpackHelper.getProviderByType(configuration.getType());
+                                        if (provider == null) return null;
+                                        else return provider.createCompletionTask(
+                                                dependencyManager,
+                                                gameInstance);
+                                    } catch (IOException e) {
+                                        return null;
+                                    }
+                                }),
+                                Task.composeAsync(() -> {
+                                    if (OperatingSystem.CURRENT_OS != OperatingSystem.WINDOWS
+                                            || !(setting.getRenderer(gameInstance.getVersion()) instanceof Renderer.Driver renderer)
+                                            || renderer.mesaDriverName() == null)
+                                        return null;
+
+                                    Library lib = NativePatcher.getWindowsMesaLoader(java, renderer, OperatingSystem.SYSTEM_VERSION);
+                                    if (lib == null)
+                                        return null;
+                                    Path file = gameInstance.getLayout().getLibraryFile(gameInstance.getId(), lib);
+                                    if (file.toAbsolutePath().toString().indexOf('=') >= 0) {
+                                        LOG.warning("Invalid character '=' in the libraries directory path, unable to attach software renderer loader");
+                                        return null;
+                                    }
 
-                                if (GameLibrariesTask.shouldDownloadLibrary(repository, launchManifest.get(), lib, integrityCheck)) {
-                                    return new LibraryDownloadTask(dependencyManager, file, lib)
-                                            .thenRunAsync(() -> javaAgents.add(agent));
-                                } else {
-                                    javaAgents.add(agent);
-                                    return null;
-                                }
-                            })
-                    );
-                }).withStage("launch.state.dependencies")
-                .thenComposeAsync(() -> new GameVerificationFixTask(gameInstance, gameInstance.getVersion(), launchManifest.get()))
+                                    String agent = FileUtils.getAbsolutePath(file) + "=" + renderer.mesaDriverName();
+
+                                    if (GameLibrariesTask.shouldDownloadLibrary(repository, launchManifest.get(), lib, integrityCheck)) {
+                                        return new LibraryDownloadTask(dependencyManager, file, lib)
+                                                .thenRunAsync(() -> javaAgents.add(agent));
+                                    } else {
+                                        javaAgents.add(agent);
+                                        return null;
+                                    }
+                                })
+                        );
+                    }).withStage("launch.state.dependencies"))
+                            .thenComposeAsync(() -> new GameVerificationFixTask(gameInstance, gameInstance.getVersion(), launchManifest.get()));
+
+                    // Logging in does not depend on the game files, so it runs while they are checked and repaired.
+                    // Only the attempt without user interaction overlaps, dialogs are shown one at a time below.
+                    Task<?> logIn = timings.time("logging_in", Task.runAsync(() -> {
+                        try {
+                            authInfoRef.set(logInSilently(account));
+                        } catch (AuthenticationException e) {
+                            logInFailureRef.set(e);
+                        }
+                    }).withStage("launch.state.logging_in"));
+
+                    return Task.allOf(prepareGame, logIn);
+                })
                 .thenComposeAsync(() -> {
                     if (setting.getInheritable(GameSettings::allowAutoAgentProperty)
                             || setting.getInheritable(GameSettings::noJVMOptionsProperty)
@@ -239,8 +258,14 @@ public final class LauncherHelper {
                         return Task.fromCompletableFuture(future);
                     }
                 })
-                .thenComposeAsync(() -> logIn(account).withStage("launch.state.logging_in"))
-                .thenComposeAsync(authInfo -> Task.supplyAsync(() -> {
+                .thenComposeAsync(() -> {
+                    AuthenticationException failure = logInFailureRef.get();
+                    if (failure == null)
+                        return null;
+                    return handleLogInFailure(account, failure).thenAcceptAsync(authInfoRef::set);
+                })
+                .thenComposeAsync(() -> Task.supplyAsync(() -> {
+                    AuthInfo authInfo = authInfoRef.get();
                     LaunchOptions.Builder launchOptionsBuilder = gameInstance.getLaunchOptions(
                             javaVersionRef.get(), repository.getBaseDirectory(), javaAgents, javaArguments, scriptFile != null);
                     if (disableOfflineSkin) {
@@ -295,7 +320,7 @@ public final class LauncherHelper {
                     );
                 }).thenComposeAsync(launcher -> { // launcher is prev task's result
                     if (scriptFile == null) {
-                        return Task.supplyAsync(launcher::launch);
+                        return timings.time("starting_process", Task.supplyAsync(launcher::launch));
                     } else {
                         return Task.supplyAsync(() -> {
                             launcher.makeLaunchScript(scriptFile);
@@ -333,6 +358,7 @@ public final class LauncherHelper {
 
             @Override
             public void onStop(boolean success, TaskExecutor executor) {
+                timings.log(success);
                 runLater(() -> {
                     // Check if the application has stopped
                     // because onStop will be invoked if tasks fail when the executor service shut down.
@@ -755,19 +781,70 @@ public final class LauncherHelper {
         return future;
     }
 
+    /// Records how long each stage of a launch took, so that slow launches can be diagnosed from the log.
+    ///
+    /// Stages may overlap, for example logging in runs while the game files are checked.
+    private static final class LaunchTimings {
+        private final long start = System.nanoTime();
+        private final Map<String, long[]> stages = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        /// Returns a task which runs `task` and records when it started and finished.
+        <T> Task<T> time(String stage, Task<T> task) {
+            return Task.composeAsync(() -> {
+                stages.put(stage, new long[]{System.nanoTime() - start, -1});
+                return task;
+            }).thenApplyAsync(result -> {
+                long[] times = stages.get(stage);
+                times[1] = System.nanoTime() - start;
+                return result;
+            });
+        }
+
+        void log(boolean success) {
+            StringBuilder builder = new StringBuilder(success ? "Launch stages:" : "Launch stages (failed):");
+            synchronized (stages) {
+                stages.forEach((stage, times) -> {
+                    builder.append("\n  ").append(stage).append(": started at ").append(TimeUnit.NANOSECONDS.toMillis(times[0])).append(" ms, ");
+                    if (times[1] >= 0)
+                        builder.append("took ").append(TimeUnit.NANOSECONDS.toMillis(times[1] - times[0])).append(" ms");
+                    else
+                        builder.append("unfinished");
+                });
+            }
+            builder.append("\n  total: ").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).append(" ms");
+            LOG.info(builder.toString());
+        }
+    }
+
+    /// Logs in without asking the user for anything.
+    ///
+    /// @throws AuthenticationException if the user has to be asked, see [#handleLogInFailure(Account, AuthenticationException)]
+    private AuthInfo logInSilently(Account account) throws AuthenticationException {
+        if (disableOfflineSkin && account instanceof OfflineAccount offlineAccount)
+            return offlineAccount.logInWithoutSkin();
+        else
+            return account.logIn();
+    }
+
     private Task<AuthInfo> logIn(Account account) {
         return Task.composeAsync(() -> {
             try {
-                if (disableOfflineSkin && account instanceof OfflineAccount offlineAccount)
-                    return Task.completed(offlineAccount.logInWithoutSkin());
-                else
-                    return Task.completed(account.logIn());
-            } catch (CredentialExpiredException e) {
-                LOG.info("Credential has expired", e);
+                return Task.completed(logInSilently(account));
+            } catch (AuthenticationException e) {
+                return handleLogInFailure(account, e);
+            }
+        });
+    }
+
+    /// Asks the user to log in again, or to play offline, after logging in without interaction failed.
+    private Task<AuthInfo> handleLogInFailure(Account account, AuthenticationException failure) {
+        return Task.composeAsync(() -> {
+            if (failure instanceof CredentialExpiredException) {
+                LOG.info("Credential has expired", failure);
 
                 return Task.completed(DialogController.logIn(account));
-            } catch (AuthenticationException e) {
-                LOG.warning("Authentication failed, try skipping refresh", e);
+            } else {
+                LOG.warning("Authentication failed, try skipping refresh", failure);
 
                 CompletableFuture<Task<AuthInfo>> future = new CompletableFuture<>();
                 runInFX(() -> {
@@ -846,8 +923,6 @@ public final class LauncherHelper {
         private final CircularArrayList<Log> logs;
         private final CountDownLatch launchingLatch;
         private final String forbiddenAccessToken;
-        private Thread submitLogThread;
-        private LinkedBlockingQueue<Log> logBuffer;
 
         public HMCLProcessListener(AuthInfo authInfo, LaunchOptions launchOptions, CountDownLatch launchingLatch, boolean detectWindow) {
             this.launchOptions = launchOptions;
@@ -878,46 +953,6 @@ public final class LauncherHelper {
                     logWindowLatch.countDown();
                 });
 
-                logBuffer = new LinkedBlockingQueue<>();
-                submitLogThread = Lang.thread(new Runnable() {
-                    private final ArrayList<Log> currentLogs = new ArrayList<>();
-                    private final Semaphore semaphore = new Semaphore(0);
-
-                    private void submitLogs() {
-                        if (currentLogs.size() == 1) {
-                            Log log = currentLogs.get(0);
-                            runLater(() -> logWindow.logLine(log));
-                        } else {
-                            runLater(() -> {
-                                logWindow.logLines(currentLogs);
-                                semaphore.release();
-                            });
-                            semaphore.acquireUninterruptibly();
-                        }
-                        currentLogs.clear();
-                    }
-
-                    @Override
-                    public void run() {
-                        while (true) {
-                            try {
-                                currentLogs.add(logBuffer.take());
-                                //noinspection BusyWait
-                                Thread.sleep(200); // Wait for more logs
-                            } catch (InterruptedException e) {
-                                break;
-                            }
-
-                            logBuffer.drainTo(currentLogs);
-                            submitLogs();
-                        }
-
-                        do {
-                            submitLogs();
-                        } while (logBuffer.drainTo(currentLogs) > 0);
-                    }
-                }, "Game Log Submitter", true);
-
                 try {
                     logWindowLatch.await();
                 } catch (InterruptedException e) {
@@ -964,34 +999,57 @@ public final class LauncherHelper {
 
         @Override
         public void onLog(String log, boolean isErrorStream) {
-            if (isErrorStream)
-                System.err.println(log);
-            else
-                System.out.println(log);
+            onLogs(List.of(log), isErrorStream);
+        }
+
+        @Override
+        public void onLogs(List<String> lines, boolean isErrorStream) {
+            PrintStream out = isErrorStream ? System.err : System.out;
+            if (lines.size() == 1) {
+                out.println(lines.get(0));
+            } else {
+                // Print a burst of output with a single write
+                StringBuilder builder = new StringBuilder();
+                for (String line : lines) {
+                    builder.append(line).append(System.lineSeparator());
+                }
+                out.print(builder);
+            }
 
-            log = StringUtils.parseEscapeSequence(log);
-            if (forbiddenAccessToken != null)
-                log = log.replace(forbiddenAccessToken, "<access token>");
+            ArrayList<Log> newLogs = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                String log = StringUtils.parseEscapeSequence(line);
+                if (forbiddenAccessToken != null)
+                    log = log.replace(forbiddenAccessToken, "<access token>");
 
-            Log4jLevel level = isErrorStream && !log.startsWith("[authlib-injector]") ? Log4jLevel.ERROR : null;
-            if (showLogs) {
-                if (level == null)
+                Log4jLevel level = isErrorStream && !log.startsWith("[authlib-injector]") ? Log4jLevel.ERROR : null;
+                if (showLogs && level == null)
                     level = Lang.requireNonNullElse(Log4jLevel.guessLevel(log), Log4jLevel.INFO);
-                logBuffer.add(new Log(log, level));
+                newLogs.add(new Log(log, level));
+            }
+
+            if (showLogs) {
+                logWindow.postLogs(newLogs);
             } else {
                 lock.lock();
                 try {
-                    logs.addLast(new Log(log, level));
-                    if (logs.size() > Log.getLogLines())
-                        logs.removeFirst();
+                    for (Log log : newLogs) {
+                        logs.addLast(log);
+                        if (logs.size() > Log.getLogLines())
+                            logs.removeFirst();
+                    }
                 } finally {
                     lock.unlock();
                 }
             }
 
             if (!lwjgl) {
-                String lowerCaseLog = log.toLowerCase(Locale.ROOT);
-                if (!detectWindow || lowerCaseLog.contains("lwjgl version") || lowerCaseLog.contains("lwjgl openal")) {
+                boolean found = !detectWindow;
+                for (int i = 0; !found && i < newLogs.size(); i++) {
+                    String lowerCaseLog = newLogs.get(i).getLog().toLowerCase(Locale.ROOT);
+                    found = lowerCaseLog.contains("lwjgl version") || lowerCaseLog.contains("lwjgl openal");
+                }
+                if (found) {
                     lock.lock();
                     try {
                         if (!lwjgl) {
@@ -1008,13 +1066,7 @@ public final class LauncherHelper {
         @Override
         public void onExit(int exitCode, ExitType exitType) {
             if (showLogs) {
-                logBuffer.add(new Log(String.format("[%s] [HMCL ProcessListener] Minecraft exit with code %d(0x%x), type is %s.", TIME_FORMATTER.format(Instant.now()), exitCode, exitCode, exitType), Log4jLevel.INFO));
-                submitLogThread.interrupt();
-                try {
-                    submitLogThread.join();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                logWindow.postLogs(List.of(new Log(String.format("[%s] [HMCL ProcessListener] Minecraft exit with code %d(0x%x), type is %s.", TIME_FORMATTER.format(Instant.now()), exitCode, exitCode, exitType), Log4jLevel.INFO)));
             }
 
             launchingLatch.countDown();
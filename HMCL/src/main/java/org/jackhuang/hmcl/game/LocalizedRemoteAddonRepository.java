@@ -20,10 +20,12 @@ package org.jackhuang.hmcl.game;
 import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jackhuang.hmcl.addon.RemoteAddon;
 import org.jackhuang.hmcl.addon.RemoteAddonRepository;
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
 import org.jackhuang.hmcl.ui.instances.ModTranslations;
 import org.jackhuang.hmcl.util.Pair;
 import org.jackhuang.hmcl.util.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -133,6 +135,31 @@ public abstract class LocalizedRemoteAddonRepository implements RemoteAddonRepos
         return getBackedRemoteModRepository().getRemoteVersionByLocalFile(file);
     }
 
+    @Override
+    public Map<Path, RemoteAddon.Version> getRemoteVersionsByLocalFiles(Collection<Path> files) throws IOException {
+        return getBackedRemoteModRepository().getRemoteVersionsByLocalFiles(files);
+    }
+
+    @Override
+    public @Nullable Map<Path, RemoteAddon.Version> getLatestVersionsByLocalFiles(Collection<Path> files, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        return getBackedRemoteModRepository().getLatestVersionsByLocalFiles(files, gameVersion, loader);
+    }
+
+    @Override
+    public boolean isSha1LookupSupported() {
+        return getBackedRemoteModRepository().isSha1LookupSupported();
+    }
+
+    @Override
+    public Map<String, RemoteAddon.Version> getRemoteVersionsBySha1(Collection<String> hashes) throws IOException {
+        return getBackedRemoteModRepository().getRemoteVersionsBySha1(hashes);
+    }
+
+    @Override
+    public @Nullable Map<String, RemoteAddon.Version> getLatestVersionsBySha1(Collection<String> hashes, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        return getBackedRemoteModRepository().getLatestVersionsBySha1(hashes, gameVersion, loader);
+    }
+
     @Override
     public RemoteAddon getAddonById(DownloadProvider downloadProvider, String id) throws IOException {
         return getBackedRemoteModRepository().getAddonById(downloadProvider, id);
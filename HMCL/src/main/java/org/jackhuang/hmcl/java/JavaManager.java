@@ -31,11 +31,11 @@ import org.jackhuang.hmcl.game.GameJavaVersion;
 import org.jackhuang.hmcl.game.JavaVersionConstraint;
 import org.jackhuang.hmcl.game.GameInstanceManifest;
 import org.jackhuang.hmcl.setting.SettingsManager;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.task.Schedulers;
 import org.jackhuang.hmcl.task.Task;
 import org.jackhuang.hmcl.ui.FXUtils;
 import org.jackhuang.hmcl.util.CacheRepository;
-import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.FXThread;
 import org.jackhuang.hmcl.util.Lang;
 import org.jackhuang.hmcl.util.gson.JsonUtils;
@@ -57,6 +57,7 @@ import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -177,6 +178,22 @@ public final class JavaManager {
         allJavaProperty.set(Arrays.asList(array));
     }
 
+    /// Publishes the Java found so far by a search that is still running.
+    ///
+    /// Before the first search has completed they are all that is known. A later rescan only adds them to the
+    /// complete list, which is replaced once the rescan has finished.
+    @FXThread
+    private static void updatePartialJavaProperty(Map<Path, JavaRuntime> javaRuntimes) {
+        Map<Path, JavaRuntime> current = allJava;
+        if (current == null) {
+            updateAllJavaProperty(javaRuntimes);
+        } else {
+            HashMap<Path, JavaRuntime> merged = new HashMap<>(current);
+            merged.putAll(javaRuntimes);
+            updateAllJavaProperty(merged);
+        }
+    }
+
     public static boolean isInitialized() {
         return allJava != null;
     }
@@ -374,7 +391,9 @@ public final class JavaManager {
     // search java
 
     private static Map<Path, JavaRuntime> searchPotentialJavaExecutables(boolean useCache) {
-        Searcher searcher = new Searcher(Metadata.HMCL_USER_HOME.resolve("javaCache.json"));
+        // Show the Java found so far while the remaining executables are probed
+        Searcher searcher = new Searcher(Metadata.HMCL_USER_HOME.resolve("javaCache.json"),
+                javaRuntimes -> FXUtils.runInFX(() -> updatePartialJavaProperty(javaRuntimes)));
         if (useCache)
             searcher.loadCache();
 
@@ -485,6 +504,8 @@ public final class JavaManager {
             }
         }
 
+        searcher.probePending();
+
         JavaRuntime currentJava = JavaRuntime.CURRENT_JAVA;
         if (currentJava != null
                 && !searcher.javaRuntimes.containsKey(currentJava.getBinary())
@@ -512,14 +533,29 @@ public final class JavaManager {
         private final Set<Path> failed = new HashSet<>();
         private boolean needRefreshCache = false;
 
-        Searcher(Path cacheFile) {
+        /// Executables missing from the cache, probed in parallel by [#probePending()]
+        private final LinkedHashMap<Path, PendingProbe> pending = new LinkedHashMap<>();
+        private final Consumer<Map<Path, JavaRuntime>> onUpdate;
+
+        /// @param onUpdate receives snapshots of the Java found so far while executables are probed
+        Searcher(Path cacheFile, Consumer<Map<Path, JavaRuntime>> onUpdate) {
             this.cacheFile = cacheFile;
+            this.onUpdate = onUpdate;
+        }
+
+        private record PendingProbe(Path executable, @Nullable String cacheKey, boolean isManaged) {
+        }
+
+        private record ProbeResult(JavaInfo info, JavaRuntime runtime) {
         }
 
         private static final Pattern CACHE_VERSION_PATTERN = Pattern.compile("(?<major>\\d+)(?:\\.(?<minor>\\d+))?");
         private static final int CACHE_MAJOR_VERSION = 0;
         private static final int CACHE_MINOR_VERSION = 0;
 
+        /// Each probe starts a JVM, so only a few run at once regardless of the number of processors
+        private static final int MAX_CONCURRENT_PROBES = 4;
+
         private record JavaInfoCache(String key, JavaInfo info) {
         }
 
@@ -633,7 +669,7 @@ public final class JavaManager {
                 return null;
 
             BasicFileAttributes launcherAttributes;
-            String releaseHash = null;
+            BasicFileAttributes releaseAttributes = null;
             BasicFileAttributes coreLibsAttributes = null;
 
             try {
@@ -641,7 +677,8 @@ public final class JavaManager {
 
                 Path releaseFile = javaHome.resolve("release");
                 if (Files.exists(releaseFile)) {
-                    releaseHash = DigestUtils.digestToString("SHA-1", releaseFile);
+                    // The release file changes with every update of the runtime, its attributes are enough to notice
+                    releaseAttributes = Files.readAttributes(releaseFile, BasicFileAttributes.class);
                 } else {
                     Path coreLibsFile = libDir.resolve("rt.jar");
                     if (!Files.isRegularFile(coreLibsFile)) {
@@ -662,8 +699,10 @@ public final class JavaManager {
             joiner.add("sz:" + launcherAttributes.size());
             joiner.add("lm:" + launcherAttributes.lastModifiedTime().toMillis());
 
-            if (releaseHash != null)
-                joiner.add(releaseHash);
+            if (releaseAttributes != null) {
+                joiner.add("relsz:" + releaseAttributes.size());
+                joiner.add("rellm:" + releaseAttributes.lastModifiedTime().toMillis());
+            }
 
             if (coreLibsAttributes != null) {
                 joiner.add("rsz:" + coreLibsAttributes.size());
@@ -693,6 +732,7 @@ public final class JavaManager {
             }
 
             if (javaRuntimes.containsKey(executable)
+                    || pending.containsKey(executable)
                     || failed.contains(executable)
                     || SettingsManager.userSettings().getDisabledJava().contains(executable.toString())) {
                 return;
@@ -714,21 +754,61 @@ public final class JavaManager {
                 needRefreshCache = true;
             }
 
-            JavaInfo info;
+            pending.put(executable, new PendingProbe(executable, cacheKey, isManaged));
+        }
+
+        /// Runs the executables which were not found in the cache to read their properties, a few at a time.
+        void probePending() {
+            if (pending.isEmpty())
+                return;
+
+            List<PendingProbe> probes = List.copyOf(pending.values());
+            pending.clear();
+
+            Map<Path, JavaRuntime> found = new HashMap<>(javaRuntimes);
+            onUpdate.accept(Map.copyOf(found));
+
+            List<ProbeResult> results;
             try {
-                info = JavaInfoUtils.fromExecutable(executable);
-            } catch (IOException e) {
-                LOG.warning("Failed to lookup Java executable at " + executable, e);
-                failed.add(executable);
+                results = ParallelStage.map(probes, MAX_CONCURRENT_PROBES, probe -> {
+                    JavaInfo info;
+                    try {
+                        info = JavaInfoUtils.fromExecutable(probe.executable());
+                    } catch (IOException e) {
+                        LOG.warning("Failed to lookup Java executable at " + probe.executable(), e);
+                        return null;
+                    }
+
+                    JavaRuntime runtime = JavaRuntime.of(probe.executable(), info, probe.isManaged());
+                    synchronized (found) {
+                        found.put(probe.executable(), runtime);
+                        onUpdate.accept(Map.copyOf(found));
+                    }
+                    return new ProbeResult(info, runtime);
+                }, count -> {
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.warning("Failed to lookup Java executables", e);
                 return;
             }
 
-            if (cacheKey != null) {
-                caches.put(executable, new JavaInfoCache(cacheKey, info));
-                needRefreshCache = true;
-            }
+            for (int i = 0; i < probes.size(); i++) {
+                PendingProbe probe = probes.get(i);
+                ProbeResult result = results.get(i);
+                if (result == null) {
+                    failed.add(probe.executable());
+                    continue;
+                }
 
-            javaRuntimes.put(executable, JavaRuntime.of(executable, info, isManaged));
+                if (probe.cacheKey() != null) {
+                    caches.put(probe.executable(), new JavaInfoCache(probe.cacheKey(), result.info()));
+                    needRefreshCache = true;
+                }
+                javaRuntimes.put(probe.executable(), result.runtime());
+            }
         }
 
         void tryAddJavaInComponentDir(String platform, Path component, boolean verify) {
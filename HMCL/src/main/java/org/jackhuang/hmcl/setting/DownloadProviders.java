@@ -37,6 +37,7 @@ import java.util.concurrent.CancellationException;
 import static org.jackhuang.hmcl.setting.SettingsManager.settings;
 import static org.jackhuang.hmcl.task.FetchTask.DEFAULT_CONCURRENCY;
 import static org.jackhuang.hmcl.util.i18n.I18n.i18n;
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
 public final class DownloadProviders {
     private DownloadProviders() {
@@ -62,6 +63,7 @@ public final class DownloadProviders {
             FetchTask.setDownloadExecutorConcurrency(settings().autoDownloadThreadsProperty().get()
                     ? DEFAULT_CONCURRENCY
                     : settings().downloadThreadsProperty().get());
+            updateHostConcurrency();
         };
         settings().autoDownloadThreadsProperty().addListener(onChangeDownloadThreads);
         settings().downloadThreadsProperty().addListener(onChangeDownloadThreads);
@@ -71,10 +73,29 @@ public final class DownloadProviders {
             PROVIDER_WRAPPER.setProvider(createDownloadProvider(
                     settings().versionListSourceProperty().get(),
                     settings().fileDownloadSourceProperty().get()));
+            updateHostConcurrency();
         };
         settings().versionListSourceProperty().addListener(onChangeDownloadSource);
         settings().fileDownloadSourceProperty().addListener(onChangeDownloadSource);
         onChangeDownloadSource.invalidated(null);
+
+        String maxSpeed = System.getProperty("hmcl.download.max_speed", System.getenv("HMCL_DOWNLOAD_MAX_SPEED"));
+        if (StringUtils.isNotBlank(maxSpeed)) {
+            try {
+                long kibibytesPerSecond = Long.parseLong(maxSpeed.trim());
+                FetchTask.setBandwidthLimit(kibibytesPerSecond * 1024);
+                LOG.info("Download speed limit: " + kibibytesPerSecond + " KiB/s");
+            } catch (NumberFormatException e) {
+                LOG.warning("Invalid download speed limit: " + maxSpeed);
+            }
+        }
+    }
+
+    /// Limits each host to the concurrency its provider supports. The limit never drops below half of the global
+    /// concurrency, so a single host still gets enough slots but cannot take all of them.
+    private static void updateHostConcurrency() {
+        FetchTask.setHostConcurrency(Math.max(PROVIDER_WRAPPER.getConcurrency(),
+                FetchTask.getDownloadExecutorConcurrency() / 2));
     }
 
     /// Creates a download provider with independent version-list and file download preferences.
@@ -278,6 +278,17 @@ public final class GameDirectoryManager {
         return repositories.computeIfAbsent(gameDirectory, HMCLGameRepository::new);
     }
 
+    /// Returns the repositories already created for the listed game directories, without creating new ones.
+    public static List<HMCLGameRepository> getCreatedRepositories() {
+        List<HMCLGameRepository> result = new ArrayList<>();
+        for (GameDirectory gameDirectory : mergedGameDirectories) {
+            HMCLGameRepository repository = repositories.get(gameDirectory);
+            if (repository != null)
+                result.add(repository);
+        }
+        return result;
+    }
+
     /// Adds a game directory to the per-workspace store.
     public static void addLocalGameDirectory(GameDirectory gameDirectory) {
         if (SettingsManager.isLocalGameDirectoriesReadOnly()) {
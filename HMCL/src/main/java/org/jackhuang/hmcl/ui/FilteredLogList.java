@@ -0,0 +1,250 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.ui;
+
+import javafx.collections.ObservableListBase;
+import org.jackhuang.hmcl.game.Log;
+import org.jackhuang.hmcl.util.CircularArrayList;
+import org.jackhuang.hmcl.util.Log4jLevel;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/// The logs shown in [LogWindow], a live view of the logs of some levels which contain a search text.
+///
+/// Every log gets a sequence number, and the sequence numbers of the logs of each level are kept in a separate
+/// index. Changing the shown levels merges the indices of these levels, so it costs time proportional to the
+/// number of shown logs instead of all logs. The logs themselves stay in the backing list, this list only
+/// holds their sequence numbers, and the list view only asks for the rows on screen.
+final class FilteredLogList extends ObservableListBase<Log> implements RandomAccess {
+
+    private static final Log4jLevel[] ALL_LEVELS = Log4jLevel.values();
+
+    private final CircularArrayList<Log> logs;
+    /// The sequence number of `logs.get(0)`
+    private long firstSequence;
+
+    private final SequenceList[] levelIndices = new SequenceList[ALL_LEVELS.length];
+    private final boolean[] shownLevels = new boolean[ALL_LEVELS.length];
+    private String searchText = "";
+
+    private SequenceList visible = new SequenceList();
+
+    FilteredLogList(CircularArrayList<Log> logs) {
+        this.logs = logs;
+        for (int i = 0; i < ALL_LEVELS.length; i++) {
+            levelIndices[i] = new SequenceList();
+            shownLevels[i] = true;
+        }
+        for (int i = 0; i < logs.size(); i++) {
+            long sequence = firstSequence + i;
+            levelIndices[logs.get(i).getLevel().ordinal()].add(sequence);
+            visible.add(sequence);
+        }
+    }
+
+    @Override
+    public Log get(int index) {
+        return logs.get((int) (visible.get(index) - firstSequence));
+    }
+
+    @Override
+    public int size() {
+        return visible.size();
+    }
+
+    private boolean isShown(Log log) {
+        return shownLevels[log.getLevel().ordinal()] && containsIgnoreCase(log.getLog(), searchText);
+    }
+
+    private static boolean containsIgnoreCase(String text, String search) {
+        int length = search.length();
+        if (length == 0) return true;
+        for (int i = 0, end = text.length() - length; i <= end; i++) {
+            if (text.regionMatches(true, i, search, 0, length))
+                return true;
+        }
+        return false;
+    }
+
+    /// Appends the logs to the backing list, then drops the oldest logs so that at most `maxSize` are kept.
+    ///
+    /// Listeners receive a single change for the whole batch.
+    void addAll(List<Log> newLogs, int maxSize) {
+        int visibleBefore = visible.size();
+        for (Log log : newLogs) {
+            long sequence = firstSequence + logs.size();
+            logs.addLast(log);
+            levelIndices[log.getLevel().ordinal()].add(sequence);
+            if (isShown(log))
+                visible.add(sequence);
+        }
+
+        List<Log> removed = List.of();
+        int removeCount = logs.size() - maxSize;
+        if (removeCount > 0) {
+            long newFirstSequence = firstSequence + removeCount;
+            int removedVisible = 0;
+            while (removedVisible < visibleBefore && visible.get(removedVisible) < newFirstSequence) {
+                removedVisible++;
+            }
+            removed = new ArrayList<>(removedVisible);
+            for (int i = 0; i < removedVisible; i++) {
+                removed.add(get(i));
+            }
+
+            for (int i = 0; i < removeCount; i++) {
+                logs.removeFirst();
+            }
+            firstSequence = newFirstSequence;
+            for (SequenceList index : levelIndices) {
+                index.removeBefore(firstSequence);
+            }
+            visible.removeBefore(firstSequence);
+        }
+
+        int keptVisible = visibleBefore - removed.size();
+        if (removed.isEmpty() && visible.size() == keptVisible)
+            return;
+        beginChange();
+        if (!removed.isEmpty())
+            nextRemove(0, removed);
+        if (visible.size() > keptVisible)
+            nextAdd(keptVisible, visible.size());
+        endChange();
+    }
+
+    /// Removes all logs, including the ones in the backing list.
+    @Override
+    public void clear() {
+        List<Log> removed = new ArrayList<>(this);
+        firstSequence += logs.size();
+        logs.clear();
+        for (SequenceList index : levelIndices) {
+            index.removeBefore(firstSequence);
+        }
+        visible = new SequenceList();
+        if (!removed.isEmpty()) {
+            beginChange();
+            nextRemove(0, removed);
+            endChange();
+        }
+    }
+
+    /// Shows the logs of the given levels which contain the search text, ignoring case.
+    void setFilter(boolean[] shownLevels, String searchText) {
+        if (Arrays.equals(this.shownLevels, shownLevels) && this.searchText.equals(searchText))
+            return;
+        System.arraycopy(shownLevels, 0, this.shownLevels, 0, this.shownLevels.length);
+        this.searchText = searchText;
+
+        // Merge the indices of the shown levels, taking the smallest sequence number each time
+        SequenceList merged = new SequenceList();
+        int[] positions = new int[levelIndices.length];
+        while (true) {
+            int next = -1;
+            long nextSequence = Long.MAX_VALUE;
+            for (int level = 0; level < levelIndices.length; level++) {
+                if (!shownLevels[level] || positions[level] >= levelIndices[level].size())
+                    continue;
+                long sequence = levelIndices[level].get(positions[level]);
+                if (sequence < nextSequence) {
+                    next = level;
+                    nextSequence = sequence;
+                }
+            }
+            if (next < 0)
+                break;
+            positions[next]++;
+            if (searchText.isEmpty() || containsIgnoreCase(logs.get((int) (nextSequence - firstSequence)).getLog(), searchText))
+                merged.add(nextSequence);
+        }
+
+        List<Log> removed = logsOf(visible.toArray());
+        visible = merged;
+        beginChange();
+        if (!removed.isEmpty())
+            nextRemove(0, removed);
+        if (merged.size() > 0)
+            nextAdd(0, merged.size());
+        endChange();
+    }
+
+    /// A fixed list of the logs with the given sequence numbers, reading the backing list lazily.
+    private List<Log> logsOf(long[] sequences) {
+        long first = firstSequence;
+        return new AbstractList<>() {
+            @Override
+            public Log get(int index) {
+                return logs.get((int) (sequences[index] - first));
+            }
+
+            @Override
+            public int size() {
+                return sequences.length;
+            }
+        };
+    }
+
+    /// A growable ring of increasing sequence numbers which supports removing from the head.
+    private static final class SequenceList {
+        private long[] elements = new long[16];
+        private int head;
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return elements[(head + index) & (elements.length - 1)];
+        }
+
+        void add(long sequence) {
+            if (size == elements.length) {
+                long[] newElements = new long[elements.length * 2];
+                for (int i = 0; i < size; i++) {
+                    newElements[i] = get(i);
+                }
+                elements = newElements;
+                head = 0;
+            }
+            elements[(head + size) & (elements.length - 1)] = sequence;
+            size++;
+        }
+
+        /// Removes the sequence numbers less than `sequence`.
+        void removeBefore(long sequence) {
+            while (size > 0 && elements[head] < sequence) {
+                head = (head + 1) & (elements.length - 1);
+                size--;
+            }
+        }
+
+        long[] toArray() {
+            long[] result = new long[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = get(i);
+            }
+            return result;
+        }
+    }
+}
@@ -22,8 +22,6 @@ import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.*;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.css.PseudoClass;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -52,10 +50,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.EnumMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.jackhuang.hmcl.setting.SettingsManager.settings;
@@ -82,9 +79,13 @@ public final class LogWindow extends Stage {
         }
     }
 
+    private final FilteredLogList filteredLogs;
     private final LogWindowImpl impl;
     private final ManagedProcess gameProcess;
 
+    private final Queue<Log> pendingLogs = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
     public LogWindow(ManagedProcess gameProcess) {
         this(gameProcess, new CircularArrayList<>());
     }
@@ -93,6 +94,7 @@ public final class LogWindow extends Stage {
         Themes.applyNativeDarkMode(this);
 
         this.logs = logs;
+        this.filteredLogs = new FilteredLogList(logs);
         this.impl = new LogWindowImpl();
         setScene(new Scene(impl, 800, 480));
         StyleSheets.init(getScene());
@@ -102,57 +104,61 @@ public final class LogWindow extends Stage {
         for (SimpleBooleanProperty property : levelShownMap.values()) {
             property.addListener(o -> shakeLogs());
         }
+        impl.searchText.addListener(o -> shakeLogs());
 
         this.gameProcess = gameProcess;
     }
 
     public void logLine(Log log) {
-        Log4jLevel level = log.getLevel();
-        logs.add(log);
-        if (levelShownMap.get(level).get())
-            impl.listView.getItems().add(log);
-
-        SimpleIntegerProperty property = levelCountMap.get(log.getLevel());
-        property.set(property.get() + 1);
-        checkLogCount();
-        autoScroll();
+        logLines(List.of(log));
     }
 
     public void logLines(List<Log> logs) {
+        int[] counts = new int[Log4jLevel.values().length];
         for (Log log : logs) {
-            Log4jLevel level = log.getLevel();
-            this.logs.add(log);
-            if (levelShownMap.get(level).get())
-                impl.listView.getItems().add(log);
-
-            SimpleIntegerProperty property = levelCountMap.get(log.getLevel());
-            property.set(property.get() + 1);
+            counts[log.getLevel().ordinal()]++;
+        }
+        for (Log4jLevel level : Log4jLevel.values()) {
+            if (counts[level.ordinal()] > 0) {
+                SimpleIntegerProperty property = levelCountMap.get(level);
+                property.set(property.get() + counts[level.ordinal()]);
+            }
         }
-        checkLogCount();
-        autoScroll();
-    }
 
-    private void shakeLogs() {
-        impl.listView.getItems().setAll(logs.stream().filter(log -> levelShownMap.get(log.getLevel()).get()).collect(Collectors.toList()));
+        filteredLogs.addAll(logs, Log.getLogLines());
         autoScroll();
     }
 
-    private void checkLogCount() {
-        int nRemove = logs.size() - Log.getLogLines();
-        if (nRemove <= 0)
-            return;
-
-        ObservableList<Log> items = impl.listView.getItems();
-        int itemsSize = items.size();
-        int count = 0;
+    /**
+     * Appends logs from any thread.
+     *
+     * Logs posted before the window handles them are added together,
+     * so a burst of output costs a single update of the list view.
+     */
+    public void postLogs(Collection<Log> logs) {
+        pendingLogs.addAll(logs);
+        if (flushScheduled.compareAndSet(false, true))
+            Platform.runLater(this::flushPendingLogs);
+    }
 
-        for (int i = 0; i < nRemove; i++) {
-            Log removedLog = logs.removeFirst();
-            if (itemsSize > count && items.get(count) == removedLog)
-                count++;
+    private void flushPendingLogs() {
+        flushScheduled.set(false);
+        List<Log> logs = new ArrayList<>();
+        Log log;
+        while ((log = pendingLogs.poll()) != null) {
+            logs.add(log);
         }
+        if (!logs.isEmpty())
+            logLines(logs);
+    }
 
-        items.remove(0, count);
+    private void shakeLogs() {
+        boolean[] shownLevels = new boolean[Log4jLevel.values().length];
+        for (Log4jLevel level : Log4jLevel.values()) {
+            shownLevels[level.ordinal()] = levelShownMap.get(level).get();
+        }
+        filteredLogs.setFilter(shownLevels, StringUtils.isBlank(impl.searchText.get()) ? "" : impl.searchText.get());
+        autoScroll();
     }
 
     private void autoScroll() {
@@ -164,6 +170,7 @@ public final class LogWindow extends Stage {
 
         private final ListView<Log> listView = new JFXListView<>();
         private final BooleanProperty autoScroll = new SimpleBooleanProperty();
+        private final StringProperty searchText = new SimpleStringProperty("");
         private final BooleanProperty wrapText = new SimpleBooleanProperty(true);
         private final StringProperty[] buttonText = new StringProperty[LEVELS.length];
         private final BooleanProperty[] showLevel = new BooleanProperty[LEVELS.length];
@@ -176,7 +183,7 @@ public final class LogWindow extends Stage {
             getStyleClass().add("log-window");
 
             listView.getProperties().put("no-smooth-scrolling", true);
-            listView.setItems(FXCollections.observableList(new CircularArrayList<>(logs.size())));
+            listView.setItems(filteredLogs);
 
             for (int i = 0; i < LEVELS.length; i++) {
                 buttonText[i] = new SimpleStringProperty();
@@ -204,8 +211,7 @@ public final class LogWindow extends Stage {
         }
 
         private void onClear() {
-            impl.listView.getItems().clear();
-            logs.clear();
+            filteredLogs.clear();
         }
 
         private void onExportLogs() {
@@ -313,6 +319,14 @@ public final class LogWindow extends Stage {
                     borderPane.setRight(hBox);
                 }
 
+                {
+                    JFXTextField searchField = new JFXTextField();
+                    searchField.setPromptText(i18n("search"));
+                    control.searchText.bind(searchField.textProperty());
+                    BorderPane.setMargin(searchField, new Insets(0, 6, 0, 6));
+                    borderPane.setCenter(searchField);
+                }
+
                 vbox.getChildren().add(borderPane);
             }
 
@@ -93,7 +93,7 @@ public class TaskExecutorDialogPane extends BorderPane {
         });
 
         speedEventHandler = FetchTask.SPEED_EVENT.registerWeak(speedEvent -> {
-            String message = I18n.formatSpeed(speedEvent.getSpeed());
+            String message = I18n.formatSpeed(speedEvent.getForegroundSpeed());
             Platform.runLater(() -> lblProgress.setText(message));
         });
 
@@ -93,6 +93,11 @@ public final class TaskListPane extends StackPane {
     private final ObjectProperty<Insets> progressNodePadding = new SimpleObjectProperty<>(Insets.EMPTY);
     private final DoubleProperty cellWidth = new SimpleDoubleProperty();
 
+    /// Counts of finished tasks not yet shown, keyed by stage. Thousands of small tasks may finish in a second,
+    /// so their counts are applied once per JavaFX pulse instead of one runnable each.
+    private final Map<String, Integer> pendingCounts = new HashMap<>();
+    private boolean pendingCountsScheduled;
+
     public TaskListPane() {
         listView.setPadding(new Insets(12, 0, 0, 0));
         listView.setCellFactory(l -> new Cell());
@@ -105,6 +110,31 @@ public final class TaskListPane extends StackPane {
         getChildren().setAll(listView);
     }
 
+    private void addPendingCount(String stage) {
+        synchronized (pendingCounts) {
+            pendingCounts.merge(stage, 1, Integer::sum);
+            if (pendingCountsScheduled)
+                return;
+            pendingCountsScheduled = true;
+        }
+        Platform.runLater(this::applyPendingCounts);
+    }
+
+    @FXThread
+    private void applyPendingCounts() {
+        Map<String, Integer> counts;
+        synchronized (pendingCounts) {
+            counts = new HashMap<>(pendingCounts);
+            pendingCounts.clear();
+            pendingCountsScheduled = false;
+        }
+        counts.forEach((stage, count) -> {
+            StageNode stageNode = stageNodes.get(stage);
+            if (stageNode != null)
+                stageNode.count(count);
+        });
+    }
+
     @FXThread
     private void addStagesHints(@NotNull Collection<Task.StagesHint> hints) {
         for (Task.StagesHint hint : hints) {
@@ -256,12 +286,7 @@ public final class TaskListPane extends StackPane {
             @Override
             public void onPropertiesUpdate(Task<?> task) {
                 if (task instanceof Task.CountTask) {
-                    runInFX(() -> {
-                        StageNode stageNode = stageNodes.get(((Task<?>.CountTask) task).getCountStage());
-                        if (stageNode != null)
-                            stageNode.count();
-                    });
-
+                    addPendingCount(((Task<?>.CountTask) task).getCountStage());
                     return;
                 }
 
@@ -485,8 +510,9 @@ public final class TaskListPane extends StackPane {
             status.set(Status.FAILED);
         }
 
-        public void count() {
-            updateCounter(++count, total);
+        public void count(int n) {
+            count += n;
+            updateCounter(count, total);
         }
 
         public void addTotal(int n) {
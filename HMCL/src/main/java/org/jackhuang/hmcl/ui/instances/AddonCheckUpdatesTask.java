@@ -20,29 +20,64 @@ package org.jackhuang.hmcl.ui.instances;
 import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jackhuang.hmcl.addon.LocalAddonFile;
 import org.jackhuang.hmcl.addon.RemoteAddon;
+import org.jackhuang.hmcl.addon.RemoteAddonRepository;
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
 import org.jackhuang.hmcl.task.Schedulers;
 import org.jackhuang.hmcl.task.Task;
+import org.jackhuang.hmcl.util.DigestUtils;
+import org.jackhuang.hmcl.util.function.ExceptionalSupplier;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
 public class AddonCheckUpdatesTask<T extends LocalAddonFile> extends Task<List<LocalAddonFile.AddonUpdate>> {
-    private final DownloadProvider downloadProvider;
+    private final Collection<T> addons;
     private final List<Task<LocalAddonFile.AddonUpdate>> dependents;
 
+    /// Current versions of all addons, resolved with one bulk lookup per repository and shared by the per-addon tasks.
+    private final Map<RemoteAddonRepository, CompletableFuture<Map<Path, RemoteAddon.Version>>> currentVersions = new ConcurrentHashMap<>();
+
+    /// SHA-1 hashes of the addons of repositories that identify files by them, computed once for both lookups.
+    private final Map<RemoteAddonRepository, CompletableFuture<Map<Path, String>>> sha1Hashes = new ConcurrentHashMap<>();
+
+    /// Newest versions of all addons, resolved with one bulk lookup per repository and loader when the repository supports it.
+    private final Map<LatestVersionsKey, CompletableFuture<Optional<Map<Path, RemoteAddon.Version>>>> latestVersions = new ConcurrentHashMap<>();
+
     public AddonCheckUpdatesTask(DownloadProvider downloadProvider, String gameVersion, Collection<T> addons) {
-        this.downloadProvider = downloadProvider;
+        this.addons = addons;
         dependents = addons.stream().map(addon ->
                 Task.supplyAsync(Schedulers.io(), () -> {
                     LocalAddonFile.AddonUpdate candidate = null;
                     for (RemoteAddon.Source source : RemoteAddon.Source.values()) {
                         LocalAddonFile.AddonUpdate update = null;
                         try {
-                            update = addon.checkUpdates(downloadProvider, gameVersion, source);
+                            RemoteAddonRepository repository = addon.getRemoteRepository(source);
+                            RemoteAddon.Version currentVersion = repository != null
+                                    ? getCurrentVersions(source, repository).get(addon.getFile())
+                                    : null;
+                            if (currentVersion != null) {
+                                Optional<Map<Path, RemoteAddon.Version>> latest = getLatestVersions(source, repository, gameVersion, addon.getUpdateLoaderType());
+                                if (latest.isPresent()) {
+                                    update = addon.checkUpdates(gameVersion, source, currentVersion, Stream.ofNullable(latest.get().get(addon.getFile())));
+                                } else {
+                                    update = addon.checkUpdates(downloadProvider, gameVersion, source, currentVersion);
+                                }
+                            }
                         } catch (IOException e) {
                             LOG.warning(String.format("Cannot check update for addon %s.", addon.getFileName()), e);
                         }
@@ -63,6 +98,92 @@ public class AddonCheckUpdatesTask<T extends LocalAddonFile> extends Task<List<L
         getProperties().put("total", dependents.size());
     }
 
+    private List<Path> getAddonFiles(RemoteAddon.Source source, RemoteAddonRepository repository, Predicate<T> filter) {
+        return addons.stream()
+                .filter(addon -> addon.getRemoteRepository(source) == repository && filter.test(addon))
+                .map(LocalAddonFile::getFile)
+                .toList();
+    }
+
+    private Map<Path, RemoteAddon.Version> getCurrentVersions(RemoteAddon.Source source, RemoteAddonRepository repository) throws IOException {
+        return lookupOnce(currentVersions, repository, () -> {
+            if (!repository.isSha1LookupSupported())
+                return repository.getRemoteVersionsByLocalFiles(getAddonFiles(source, repository, addon -> true));
+
+            Map<Path, String> hashes = getSha1Hashes(source, repository);
+            return toFileMap(hashes, repository.getRemoteVersionsBySha1(new HashSet<>(hashes.values())));
+        });
+    }
+
+    private Optional<Map<Path, RemoteAddon.Version>> getLatestVersions(RemoteAddon.Source source, RemoteAddonRepository repository,
+                                                                        String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        return lookupOnce(latestVersions, new LatestVersionsKey(repository, loader), () -> {
+            List<Path> files = getAddonFiles(source, repository, addon -> addon.getUpdateLoaderType() == loader);
+            if (!repository.isSha1LookupSupported())
+                return Optional.ofNullable(repository.getLatestVersionsByLocalFiles(files, gameVersion, loader));
+
+            Map<Path, String> allHashes = getSha1Hashes(source, repository);
+            Map<Path, String> hashes = new HashMap<>();
+            for (Path file : files) {
+                String hash = allHashes.get(file);
+                if (hash != null)
+                    hashes.put(file, hash);
+            }
+            Map<String, RemoteAddon.Version> versions = repository.getLatestVersionsBySha1(new HashSet<>(hashes.values()), gameVersion, loader);
+            return versions != null ? Optional.of(toFileMap(hashes, versions)) : Optional.empty();
+        });
+    }
+
+    /// Hashes the addons of the repository in parallel, files that cannot be read are logged and left out.
+    private Map<Path, String> getSha1Hashes(RemoteAddon.Source source, RemoteAddonRepository repository) throws IOException {
+        return lookupOnce(sha1Hashes, repository, () -> {
+            Map<Path, String> hashes = new ConcurrentHashMap<>();
+            getAddonFiles(source, repository, addon -> true).parallelStream().distinct().forEach(file -> {
+                try {
+                    hashes.put(file, DigestUtils.digestToString("SHA-1", file));
+                } catch (IOException e) {
+                    LOG.warning("Failed to calculate SHA-1 of " + file, e);
+                }
+            });
+            return hashes;
+        });
+    }
+
+    private static Map<Path, RemoteAddon.Version> toFileMap(Map<Path, String> hashes, Map<String, RemoteAddon.Version> versions) {
+        Map<Path, RemoteAddon.Version> result = new HashMap<>();
+        hashes.forEach((file, hash) -> {
+            RemoteAddon.Version version = versions.get(hash);
+            if (version != null)
+                result.put(file, version);
+        });
+        return result;
+    }
+
+    /// Runs `lookup` in the first task that asks for `key`, the other tasks wait for and share its result.
+    private static <K, V> V lookupOnce(Map<K, CompletableFuture<V>> cache, K key, ExceptionalSupplier<V, IOException> lookup) throws IOException {
+        CompletableFuture<V> newFuture = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.putIfAbsent(key, newFuture);
+        if (future == null) {
+            future = newFuture;
+            try {
+                newFuture.complete(lookup.get());
+            } catch (IOException | RuntimeException e) {
+                newFuture.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            throw e;
+        }
+    }
+
+    private record LatestVersionsKey(RemoteAddonRepository repository, @Nullable ModLoaderType loader) {
+    }
+
     @Override
     public boolean doPreExecute() {
         return true;
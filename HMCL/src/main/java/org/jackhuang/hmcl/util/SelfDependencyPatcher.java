@@ -45,6 +45,7 @@ import org.jackhuang.hmcl.EntryPoint;
 import org.jackhuang.hmcl.Metadata;
 import org.jackhuang.hmcl.util.gson.JsonUtils;
 import org.jackhuang.hmcl.util.io.ChecksumMismatchException;
+import org.jackhuang.hmcl.util.io.FileStamp;
 import org.jackhuang.hmcl.util.io.IOUtils;
 import org.jackhuang.hmcl.java.JavaRuntime;
 import org.jackhuang.hmcl.util.io.JarUtils;
@@ -57,12 +58,14 @@ import java.awt.event.WindowEvent;
 import java.io.*;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.security.MessageDigest;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.CancellationException;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toSet;
@@ -76,8 +79,8 @@ public final class SelfDependencyPatcher {
     private final List<DependencyDescriptor> dependencies = DependencyDescriptor.readDependencies();
     private final List<Repository> repositories;
     private final Repository defaultRepository;
-    private final byte[] buffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE];
-    private final MessageDigest digest = DigestUtils.getDigest("SHA-1");
+
+    private static final int DOWNLOAD_THREADS = 4;
 
     private SelfDependencyPatcher() throws PatchException {
         // We can only self-patch JavaFX on specific platform.
@@ -103,6 +106,8 @@ public final class SelfDependencyPatcher {
     private static final class DependencyDescriptor {
         private static final String DEPENDENCIES_LIST_FILE = "/assets/openjfx-dependencies.json";
         private static final Path DEPENDENCIES_DIR_PATH = Metadata.DEPENDENCIES_DIRECTORY.resolve(Platform.CURRENT_PLATFORM.toString()).resolve("openjfx");
+        /// Records the dependency files already verified, so that unchanged files are not hashed on every start
+        private static final Path VERIFIED_FILE_PATH = DEPENDENCIES_DIR_PATH.resolve("verified.json");
 
         static List<DependencyDescriptor> readDependencies() {
             //noinspection ConstantConditions
@@ -144,6 +149,17 @@ public final class SelfDependencyPatcher {
         }
     }
 
+    /// The [FileStamp] and SHA-1 of a dependency file at the time it was verified.
+    private record VerifiedStamp(FileStamp stamp, String sha1) {
+        static VerifiedStamp of(BasicFileAttributes attributes, String sha1) {
+            return new VerifiedStamp(FileStamp.of(attributes), sha1);
+        }
+
+        boolean matches(BasicFileAttributes attributes, String expectedSha1) {
+            return stamp.matches(attributes) && expectedSha1.equalsIgnoreCase(sha1);
+        }
+    }
+
     private record Repository(String name, String url) {
         public static final Repository MAVEN_CENTRAL = new Repository(i18n("repositories.maven_central"), "https://repo1.maven.org/maven2");
         public static final Repository TENCENTCLOUD_MIRROR = new Repository(i18n("repositories.tencentcloud_mirror"), "https://mirrors.cloud.tencent.com/nexus/repository/maven-public");
@@ -253,7 +269,7 @@ public final class SelfDependencyPatcher {
     }
 
     /**
-     * Download dependencies.
+     * Download dependencies, a few at a time.
      *
      * @throws IOException When the files cannot be fetched or saved.
      */
@@ -264,7 +280,7 @@ public final class SelfDependencyPatcher {
 
         Repository repository = defaultRepository;
 
-        int count = 0;
+        Set<DependencyDescriptor> downloaded = ConcurrentHashMap.newKeySet();
         while (true) {
             AtomicBoolean isCancelled = new AtomicBoolean();
             AtomicBoolean showDetails = new AtomicBoolean();
@@ -278,13 +294,20 @@ public final class SelfDependencyPatcher {
             }
 
             dialog.setProgressMaximum(dependencies.size() + 1);
-            dialog.setProgress(count);
+            dialog.setProgress(downloaded.size());
             dialog.setOnCancel(() -> isCancelled.set(true));
             dialog.setOnChangeSource(() -> {
                 isCancelled.set(true);
                 showDetails.set(true);
             });
             dialog.setVisible(true);
+
+            ExecutorService executor = Executors.newFixedThreadPool(DOWNLOAD_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "JavaFX Downloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            AtomicBoolean aborted = new AtomicBoolean();
             try {
                 if (isFirstTime) {
                     isFirstTime = false;
@@ -295,42 +318,41 @@ public final class SelfDependencyPatcher {
                     }
                 }
                 Files.createDirectories(DependencyDescriptor.DEPENDENCIES_DIR_PATH);
-                for (int i = count; i < dependencies.size(); i++) {
-                    if (isCancelled.get()) {
-                        throw new CancellationException();
-                    }
 
-                    DependencyDescriptor dependency = dependencies.get(i);
-
-                    final String url = repository.resolveDependencyURL(dependency);
-                    ProgressFrame finalDialog = dialog;
-                    SwingUtilities.invokeLater(() -> {
-                        finalDialog.setCurrent(dependency.module);
-                        finalDialog.incrementProgress();
-                    });
-
-                    LOG.info("Downloading " + url);
-
-                    try (InputStream is = new URL(url).openStream();
-                         OutputStream os = Files.newOutputStream(dependency.localPath())) {
-
-                        int read;
-                        while ((read = is.read(buffer, 0, IOUtils.DEFAULT_BUFFER_SIZE)) >= 0) {
-                            if (isCancelled.get()) {
-                                try {
-                                    os.close();
-                                } finally {
-                                    Files.deleteIfExists(dependency.localPath());
-                                }
-                                throw new CancellationException();
-                            }
-                            os.write(buffer, 0, read);
-                        }
+                Repository currentRepository = repository;
+                ProgressFrame finalDialog = dialog;
+                List<Future<?>> futures = new ArrayList<>();
+                for (DependencyDescriptor dependency : dependencies) {
+                    if (downloaded.contains(dependency))
+                        continue;
+
+                    futures.add(executor.submit(() -> {
+                        SwingUtilities.invokeLater(() -> finalDialog.setCurrent(dependency.module));
+                        download(currentRepository, dependency, () -> isCancelled.get() || aborted.get());
+                        downloaded.add(dependency);
+                        SwingUtilities.invokeLater(finalDialog::incrementProgress);
+                        return null;
+                    }));
+                }
+
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof CancellationException cancellation)
+                            throw cancellation;
+                        else if (cause instanceof IOException ioException)
+                            throw ioException;
+                        else
+                            throw new IOException(cause);
                     }
-                    verifyChecksum(dependency);
-                    count++;
                 }
             } catch (CancellationException e) {
+                awaitDownloads(executor, aborted);
                 dialog.dispose();
                 if (showDetails.get()) {
                     repository = showChooseRepositoryDialog();
@@ -338,44 +360,122 @@ public final class SelfDependencyPatcher {
                 } else {
                     throw e;
                 }
+            } finally {
+                awaitDownloads(executor, aborted);
             }
             dialog.dispose();
             return;
         }
     }
 
+    /// Stops the downloads still running and waits for them to delete their partial files.
+    private static void awaitDownloads(ExecutorService executor, AtomicBoolean aborted) {
+        aborted.set(true);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+                LOG.warning("Timed out waiting for JavaFX downloads to stop");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void download(Repository repository, DependencyDescriptor dependency, BooleanSupplier isCancelled) throws IOException {
+        final String url = repository.resolveDependencyURL(dependency);
+        LOG.info("Downloading " + url);
+
+        byte[] buffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE];
+        try {
+            try (InputStream is = new URL(url).openStream();
+                 OutputStream os = Files.newOutputStream(dependency.localPath())) {
+
+                int read;
+                while ((read = is.read(buffer, 0, IOUtils.DEFAULT_BUFFER_SIZE)) >= 0) {
+                    if (isCancelled.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    os.write(buffer, 0, read);
+                }
+            }
+            verifyChecksum(dependency);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(dependency.localPath());
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    /// Returns the dependencies which are missing or corrupted.
+    ///
+    /// Files recorded in the verified stamp file with the same [FileStamp] are trusted, the others are hashed in parallel.
     private List<DependencyDescriptor> checkMissingDependencies() {
-        List<DependencyDescriptor> missing = new ArrayList<>();
+        Map<String, VerifiedStamp> stamps = loadVerifiedStamps();
+        Map<String, VerifiedStamp> newStamps = new ConcurrentHashMap<>();
 
-        for (DependencyDescriptor dependency : dependencies) {
-            if (!Files.exists(dependency.localPath())) {
-                missing.add(dependency);
-                continue;
+        List<DependencyDescriptor> missing = dependencies.parallelStream().filter(dependency -> {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(dependency.localPath(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            VerifiedStamp stamp = stamps.get(dependency.filename());
+            if (stamp != null && stamp.matches(attributes, dependency.sha1())) {
+                newStamps.put(dependency.filename(), stamp);
+                return false;
             }
 
             try {
                 verifyChecksum(dependency);
             } catch (ChecksumMismatchException e) {
                 LOG.warning("Corrupted dependency " + dependency.filename() + ": " + e.getMessage());
-                missing.add(dependency);
+                return true;
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
-        }
 
+            // A file modified this recently could still be changed without changing its size and timestamp
+            if (FileStamp.isSettled(attributes))
+                newStamps.put(dependency.filename(), VerifiedStamp.of(attributes, dependency.sha1()));
+            return false;
+        }).toList();
+
+        if (!newStamps.equals(stamps))
+            saveVerifiedStamps(newStamps);
         return missing;
     }
 
-    private void verifyChecksum(DependencyDescriptor dependency) throws IOException, ChecksumMismatchException {
-        digest.reset();
-        try (InputStream is = Files.newInputStream(dependency.localPath())) {
-            int read;
-            while ((read = is.read(buffer, 0, IOUtils.DEFAULT_BUFFER_SIZE)) > -1) {
-                digest.update(buffer, 0, read);
+    private static Map<String, VerifiedStamp> loadVerifiedStamps() {
+        try {
+            Map<String, VerifiedStamp> stamps = JsonUtils.fromJsonFile(DependencyDescriptor.VERIFIED_FILE_PATH,
+                    mapTypeOf(String.class, VerifiedStamp.class));
+            if (stamps != null) {
+                stamps.values().removeIf(stamp -> stamp == null || stamp.stamp() == null || stamp.sha1() == null);
+                return stamps;
             }
+        } catch (NoSuchFileException ignored) {
+        } catch (Exception e) {
+            LOG.warning("Failed to read " + DependencyDescriptor.VERIFIED_FILE_PATH, e);
         }
+        return Map.of();
+    }
+
+    private static void saveVerifiedStamps(Map<String, VerifiedStamp> stamps) {
+        try {
+            JsonUtils.writeToJsonFile(DependencyDescriptor.VERIFIED_FILE_PATH, new HashMap<>(stamps));
+        } catch (IOException e) {
+            LOG.warning("Failed to save " + DependencyDescriptor.VERIFIED_FILE_PATH, e);
+        }
+    }
 
-        String sha1 = HexFormat.of().formatHex(digest.digest());
+    private static void verifyChecksum(DependencyDescriptor dependency) throws IOException, ChecksumMismatchException {
+        String sha1 = DigestUtils.digestToString("SHA-1", dependency.localPath());
         if (!dependency.sha1().equalsIgnoreCase(sha1))
             throw new ChecksumMismatchException("SHA-1", dependency.sha1(), sha1);
     }
@@ -0,0 +1,91 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Records when each phase of the launcher startup ends.
+///
+/// Times are measured from the start of the launcher process, so the first phase also covers loading the JVM and
+/// the boot classes. If the launcher restarted itself, for example to use a shared archive, they are measured from
+/// the start of the first process. The trace is written to the log once, when [#finish(String)] is called after the
+/// first frame of the main window.
+public final class StartupTrace {
+    /// The system property holding the start time of the first launcher process, in milliseconds since the epoch.
+    public static final String START_TIME_PROPERTY = "hmcl.startup.time";
+
+    private record Phase(String name, long nanos) {
+    }
+
+    private static final long START_NANOS = System.nanoTime();
+    private static final long ELAPSED_AT_START_NANOS = elapsedSinceProcessStartNanos();
+
+    private static final List<Phase> phases = new ArrayList<>();
+    private static boolean finished;
+
+    /// Uses [ProcessHandle] rather than `ManagementFactory`, which would load `java.management` on every start.
+    private static long elapsedSinceProcessStartNanos() {
+        long startMillis;
+        try {
+            String property = System.getProperty(START_TIME_PROPERTY);
+            if (property != null) {
+                startMillis = Long.parseLong(property);
+            } else {
+                var startInstant = ProcessHandle.current().info().startInstant();
+                if (startInstant.isEmpty())
+                    return 0L;
+                startMillis = startInstant.get().toEpochMilli();
+            }
+        } catch (RuntimeException ignored) {
+            // Start time not available, measure from the first phase instead
+            return 0L;
+        }
+        return Math.max(0L, System.currentTimeMillis() - startMillis) * 1_000_000L;
+    }
+
+    /// Marks the end of a phase.
+    public static synchronized void mark(String phase) {
+        if (!finished)
+            phases.add(new Phase(phase, ELAPSED_AT_START_NANOS + System.nanoTime() - START_NANOS));
+    }
+
+    /// Marks the end of the last phase and writes the trace to the log. Later calls do nothing.
+    public static synchronized void finish(String phase) {
+        if (finished)
+            return;
+        mark(phase);
+        finished = true;
+
+        StringBuilder builder = new StringBuilder("Startup trace (ms since process start):");
+        long previous = 0L;
+        for (Phase p : phases) {
+            builder.append("\n - ").append(p.name()).append(": ")
+                    .append(p.nanos() / 1_000_000L)
+                    .append(" (+").append((p.nanos() - previous) / 1_000_000L).append(')');
+            previous = p.nanos();
+        }
+        LOG.info(builder.toString());
+        phases.clear();
+    }
+
+    private StartupTrace() {
+    }
+}
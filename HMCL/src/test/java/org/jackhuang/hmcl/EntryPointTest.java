@@ -0,0 +1,57 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl;
+
+import org.jackhuang.hmcl.util.StartupTrace;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests for [EntryPoint].
+@NotNullByDefault
+public final class EntryPointTest {
+
+    /// The child started for the shared archive keeps every JVM option except those that select an archive.
+    @Test
+    public void testSharedArchiveChildArguments() {
+        List<String> inputArguments = List.of(
+                "-Xmx1g",
+                "-javaagent:agent.jar",
+                "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-XX:+UseZGC",
+                "-Dhmcl.cds=true",
+                "-XX:SharedArchiveFile=old.jsa",
+                "-XX:ArchiveClassesAtExit=dump.jsa",
+                "-XX:+AutoCreateSharedArchive",
+                "-Xshare:auto",
+                "-Dhmcl.cds.child=true",
+                "-D" + StartupTrace.START_TIME_PROPERTY + "=0"
+        );
+
+        assertEquals(List.of(
+                "-Xmx1g",
+                "-javaagent:agent.jar",
+                "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-XX:+UseZGC",
+                "-Dhmcl.cds=true"
+        ), EntryPoint.getSharedArchiveChildArguments(inputArguments));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.ui;
+
+import org.jackhuang.hmcl.game.Log;
+import org.jackhuang.hmcl.util.CircularArrayList;
+import org.jackhuang.hmcl.util.Log4jLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests filtering the logs shown in the log window.
+public final class FilteredLogListTest {
+
+    private static boolean[] levels(Log4jLevel... shown) {
+        boolean[] result = new boolean[Log4jLevel.values().length];
+        for (Log4jLevel level : shown) {
+            result[level.ordinal()] = true;
+        }
+        return result;
+    }
+
+    /// Verifies that level and search filters keep the original order, and that old logs are dropped from the view.
+    @Test
+    public void filtersAndTrimsLogs() {
+        Log info1 = new Log("Loading world", Log4jLevel.INFO);
+        Log warn = new Log("Missing texture", Log4jLevel.WARN);
+        Log info2 = new Log("Loaded texture atlas", Log4jLevel.INFO);
+        Log error = new Log("Texture crashed", Log4jLevel.ERROR);
+
+        CircularArrayList<Log> logs = new CircularArrayList<>();
+        FilteredLogList list = new FilteredLogList(logs);
+        list.addAll(List.of(info1, warn, info2), 10);
+
+        list.setFilter(levels(Log4jLevel.INFO, Log4jLevel.ERROR), "");
+        assertEquals(List.of(info1, info2), list);
+
+        list.addAll(List.of(error), 10);
+        assertEquals(List.of(info1, info2, error), list);
+
+        list.setFilter(levels(Log4jLevel.INFO, Log4jLevel.WARN, Log4jLevel.ERROR), "TEXTURE");
+        assertEquals(List.of(warn, info2, error), list);
+
+        list.addAll(List.of(new Log("Done", Log4jLevel.INFO)), 3);
+        assertEquals(List.of(info2, error), list);
+        assertEquals(3, logs.size());
+    }
+}
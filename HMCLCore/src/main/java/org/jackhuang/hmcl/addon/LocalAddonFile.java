@@ -17,6 +17,7 @@
  */
 package org.jackhuang.hmcl.addon;
 
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
 import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jackhuang.hmcl.util.StringUtils;
 import org.jackhuang.hmcl.util.io.FileUtils;
@@ -28,7 +29,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /// Sub-classes should implement `Comparable`
 public abstract class LocalAddonFile {
@@ -53,8 +56,42 @@ public abstract class LocalAddonFile {
 
     public abstract void delete() throws IOException;
 
+    /// Returns the repository that can identify this file on the given source, or `null` if updates are not supported.
+    @Nullable
+    public RemoteAddonRepository getRemoteRepository(RemoteAddon.Source source) {
+        return null;
+    }
+
     @Nullable
     public AddonUpdate checkUpdates(DownloadProvider downloadProvider, String gameVersion, RemoteAddon.Source source) throws IOException {
+        RemoteAddonRepository repository = getRemoteRepository(source);
+        if (repository == null) return null;
+        Optional<RemoteAddon.Version> currentVersion = repository.getRemoteVersionByLocalFile(getFile());
+        if (currentVersion.isEmpty()) return null;
+        return checkUpdates(downloadProvider, gameVersion, source, currentVersion.get());
+    }
+
+    /// Looks for a newer remote version when the current version of this file is already known,
+    /// for example from [RemoteAddonRepository#getRemoteVersionsByLocalFiles(java.util.Collection)].
+    @Nullable
+    public AddonUpdate checkUpdates(DownloadProvider downloadProvider, String gameVersion, RemoteAddon.Source source, RemoteAddon.Version currentVersion) throws IOException {
+        RemoteAddonRepository repository = getRemoteRepository(source);
+        if (repository == null) return null;
+        return checkUpdates(gameVersion, source, currentVersion, repository.getRemoteVersionsById(downloadProvider, currentVersion.projectId()));
+    }
+
+    /// Picks the update for this file among the given remote versions of its project.
+    ///
+    /// The candidates may be all versions of the project or only the newest ones reported by
+    /// [RemoteAddonRepository#getLatestVersionsByLocalFiles(java.util.Collection, String, ModLoaderType)].
+    @Nullable
+    public AddonUpdate checkUpdates(String gameVersion, RemoteAddon.Source source, RemoteAddon.Version currentVersion, Stream<RemoteAddon.Version> candidates) {
+        return null;
+    }
+
+    /// The loader used to filter update candidates, or `null` if candidates do not depend on a loader.
+    @Nullable
+    public ModLoaderType getUpdateLoaderType() {
         return null;
     }
 
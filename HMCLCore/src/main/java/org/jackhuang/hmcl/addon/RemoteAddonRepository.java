@@ -17,14 +17,14 @@
  */
 package org.jackhuang.hmcl.addon;
 
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
 import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Stream;
 
 public interface RemoteAddonRepository {
@@ -86,6 +86,52 @@ public interface RemoteAddonRepository {
 
     Optional<RemoteAddon.Version> getRemoteVersionByLocalFile(Path file) throws IOException;
 
+    /// Finds the remote versions matching several local files at once.
+    ///
+    /// Repositories that support bulk lookups should override this to avoid one request per file.
+    ///
+    /// @return the remote version of every recognized file, files without a match are absent from the map
+    default Map<Path, RemoteAddon.Version> getRemoteVersionsByLocalFiles(Collection<Path> files) throws IOException {
+        Map<Path, RemoteAddon.Version> result = new LinkedHashMap<>();
+        for (Path file : files) {
+            getRemoteVersionByLocalFile(file).ifPresent(version -> result.put(file, version));
+        }
+        return result;
+    }
+
+    /// Finds the newest remote versions of several local files that are compatible with the given game version and loader.
+    ///
+    /// @return the newest version of every recognized file, or `null` if this repository cannot answer such a query in bulk
+    @Nullable
+    default Map<Path, RemoteAddon.Version> getLatestVersionsByLocalFiles(Collection<Path> files, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        return null;
+    }
+
+    /// Whether this repository identifies local files by their SHA-1 hash.
+    ///
+    /// Callers doing several bulk lookups of the same files can then hash them once and use
+    /// [#getRemoteVersionsBySha1(Collection)] and [#getLatestVersionsBySha1(Collection, String, ModLoaderType)].
+    default boolean isSha1LookupSupported() {
+        return false;
+    }
+
+    /// Like [#getRemoteVersionsByLocalFiles(Collection)], for files whose SHA-1 hashes are already known.
+    ///
+    /// @return the remote version of every recognized hash
+    /// @throws UnsupportedOperationException if [#isSha1LookupSupported()] returns `false`
+    default Map<String, RemoteAddon.Version> getRemoteVersionsBySha1(Collection<String> hashes) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /// Like [#getLatestVersionsByLocalFiles(Collection, String, ModLoaderType)], for files whose SHA-1 hashes are already known.
+    ///
+    /// @return the newest version of every recognized hash, or `null` if this repository cannot answer such a query in bulk
+    /// @throws UnsupportedOperationException if [#isSha1LookupSupported()] returns `false`
+    @Nullable
+    default Map<String, RemoteAddon.Version> getLatestVersionsBySha1(Collection<String> hashes, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     RemoteAddon getAddonById(DownloadProvider downloadProvider, String id) throws IOException;
 
     default RemoteAddon resolveDependency(DownloadProvider downloadProvider, String id) throws IOException {
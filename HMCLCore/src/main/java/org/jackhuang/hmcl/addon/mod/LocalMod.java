@@ -17,15 +17,17 @@
  */
 package org.jackhuang.hmcl.addon.mod;
 
-import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LocalMod {
 
     private final String id;
     private final ModLoaderType modLoaderType;
-    private final HashSet<LocalModFile> files = new HashSet<>();
-    private final HashSet<LocalModFile> oldFiles = new HashSet<>();
+    // Filled by the mod files of this mod, which are read in parallel
+    private final Set<LocalModFile> files = ConcurrentHashMap.newKeySet();
+    private final Set<LocalModFile> oldFiles = ConcurrentHashMap.newKeySet();
 
     public LocalMod(String id, ModLoaderType modLoaderType) {
         this.id = id;
@@ -40,11 +42,11 @@ public class LocalMod {
         return modLoaderType;
     }
 
-    public HashSet<LocalModFile> getFiles() {
+    public Set<LocalModFile> getFiles() {
         return files;
     }
 
-    public HashSet<LocalModFile> getOldFiles() {
+    public Set<LocalModFile> getOldFiles() {
         return oldFiles;
     }
 
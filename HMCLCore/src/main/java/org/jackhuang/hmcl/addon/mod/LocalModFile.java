@@ -23,13 +23,13 @@ import org.jackhuang.hmcl.addon.LocalAddonFile;
 import org.jackhuang.hmcl.addon.LocalAddonManager;
 import org.jackhuang.hmcl.addon.RemoteAddon;
 import org.jackhuang.hmcl.addon.RemoteAddonRepository;
-import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jackhuang.hmcl.util.io.FileUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
@@ -89,10 +89,13 @@ public final class LocalModFile extends LocalAddonFile implements Comparable<Loc
 
         fileName = FileUtils.getNameWithoutExtension(LocalAddonManager.getLocalAddonName(file));
 
-        if (isOld()) {
-            mod.getOldFiles().add(this);
-        } else {
-            mod.getFiles().add(this);
+        // Mod files of the same mod may be read concurrently by ModManager.refresh()
+        synchronized (mod) {
+            if (isOld()) {
+                mod.getOldFiles().add(this);
+            } else {
+                mod.getFiles().add(this);
+            }
         }
     }
 
@@ -195,19 +198,25 @@ public final class LocalModFile extends LocalAddonFile implements Comparable<Loc
     }
 
     @Override
-    public AddonUpdate checkUpdates(DownloadProvider downloadProvider, String gameVersion, RemoteAddon.Source source) throws IOException {
-        RemoteAddonRepository repository = source.getRepoForType(RemoteAddon.Type.MOD);
-        if (repository == null) return null;
-        Optional<RemoteAddon.Version> currentVersion = repository.getRemoteVersionByLocalFile(file);
-        if (currentVersion.isEmpty()) return null;
-        List<RemoteAddon.Version> remoteVersions = repository.getRemoteVersionsById(downloadProvider, currentVersion.get().projectId())
+    public RemoteAddonRepository getRemoteRepository(RemoteAddon.Source source) {
+        return source.getRepoForType(RemoteAddon.Type.MOD);
+    }
+
+    @Override
+    public ModLoaderType getUpdateLoaderType() {
+        return getModLoaderType();
+    }
+
+    @Override
+    public AddonUpdate checkUpdates(String gameVersion, RemoteAddon.Source source, RemoteAddon.Version currentVersion, Stream<RemoteAddon.Version> candidates) {
+        List<RemoteAddon.Version> remoteVersions = candidates
                 .filter(version -> version.gameVersions().contains(gameVersion))
                 .filter(version -> version.loaders().contains(getModLoaderType()))
-                .filter(version -> version.datePublished().compareTo(currentVersion.get().datePublished()) > 0)
+                .filter(version -> version.datePublished().compareTo(currentVersion.datePublished()) > 0)
                 .sorted(Comparator.comparing(RemoteAddon.Version::datePublished).reversed())
                 .toList();
         if (remoteVersions.isEmpty()) return null;
-        return new AddonUpdate(source, RemoteAddon.Type.MOD, this, currentVersion.get(), remoteVersions.get(0), true);
+        return new AddonUpdate(source, RemoteAddon.Type.MOD, this, currentVersion, remoteVersions.get(0), true);
     }
 
     @Override
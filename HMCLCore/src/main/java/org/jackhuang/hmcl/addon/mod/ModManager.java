@@ -24,16 +24,23 @@ import org.jackhuang.hmcl.addon.meta.*;
 import org.jackhuang.hmcl.game.DefaultGameInstance;
 import org.jackhuang.hmcl.game.GameComponentAnalyzer;
 import org.jackhuang.hmcl.game.GameComponentType;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.util.Pair;
 import org.jackhuang.hmcl.util.StringUtils;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
 import org.jackhuang.hmcl.util.io.CompressingUtils;
+import org.jackhuang.hmcl.util.io.FileStamp;
 import org.jackhuang.hmcl.util.io.FileUtils;
 import org.jackhuang.hmcl.util.tree.ZipFileTree;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.jackhuang.hmcl.util.Pair.pair;
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
@@ -65,9 +72,15 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
         READERS = map;
     }
 
-    private final HashMap<Pair<String, ModLoaderType>, LocalMod> localMods = new HashMap<>();
+    /// Not guarded by [#lock], because mod files are read in parallel during [#refresh()].
+    private final Map<Pair<String, ModLoaderType>, LocalMod> localMods = new ConcurrentHashMap<>();
     private GameComponentAnalyzer analyzer;
 
+    /// Metadata of the mod files seen so far, keyed by [#getCacheKey(Path)].
+    private Map<String, CachedModMetadata> metadataCache;
+    /// The mod loaders [#metadataCache] was read under, since the reader tried first depends on them.
+    private Set<ModLoaderType> metadataCacheModLoaders;
+
     private boolean loaded = false;
 
     /// Creates a mod manager for the given instance.
@@ -87,35 +100,67 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
     }
 
     public LocalMod getLocalMod(String modId, ModLoaderType modLoaderType) {
-        lock.lock();
-        try {
-            return localMods.computeIfAbsent(pair(modId, modLoaderType),
-                    x -> new LocalMod(x.getKey(), x.getValue()));
-        } finally {
-            lock.unlock();
-        }
+        return localMods.computeIfAbsent(pair(modId, modLoaderType),
+                x -> new LocalMod(x.getKey(), x.getValue()));
     }
 
     public boolean hasMod(String modId, ModLoaderType modLoaderType) {
-        lock.lock();
-        try {
-            return localMods.containsKey(pair(modId, modLoaderType));
-        } finally {
-            lock.unlock();
-        }
+        return localMods.containsKey(pair(modId, modLoaderType));
+    }
+
+    private static boolean isModFileName(Path file) {
+        String fileName = getLocalAddonName(file);
+        return READERS.containsKey(fileName.substring(fileName.lastIndexOf(".") + 1));
     }
 
     private void addModInfo(Path file) {
-        String fileName = StringUtils.removeSuffix(FileUtils.getName(file), DISABLED_EXTENSION, OLD_EXTENSION);
+        Set<ModLoaderType> modLoaderTypes = instance.getModLoaders();
+        LocalModFile modInfo = readModInfo(file, modLoaderTypes,
+                metadataCache != null && modLoaderTypes.equals(metadataCacheModLoaders) ? metadataCache : new HashMap<>());
+        if (modInfo != null && !modInfo.isOld()) {
+            localFiles.add(modInfo);
+        }
+    }
+
+    /// The mods directory relative path of the file, without the suffix of disabled mods,
+    /// so that disabling a mod does not invalidate its cache entry.
+    private String getCacheKey(Path file) {
+        Path path = file.resolveSibling(StringUtils.removeSuffix(FileUtils.getName(file), DISABLED_EXTENSION));
+        Path directory = getDirectory();
+        return (path.startsWith(directory) ? directory.relativize(path) : path.toAbsolutePath()).toString().replace('\\', '/');
+    }
+
+    /// Reads the metadata of a mod file, reusing the cached metadata if the file did not change since it was last read.
+    ///
+    /// This method is called from several threads at once during [#refresh()].
+    ///
+    /// @param seen receives the cache entry of the file
+    /// @return the mod file, or `null` if it is not a mod file
+    private @Nullable LocalModFile readModInfo(Path file, Set<ModLoaderType> modLoaderTypes, Map<String, CachedModMetadata> seen) {
+        String fileName = getLocalAddonName(file);
         String extension = fileName.substring(fileName.lastIndexOf(".") + 1);
 
         List<Pair<ModMetadataReader, ModLoaderType>> readersMap = READERS.get(extension);
         if (readersMap == null) {
             // Is not a mod file.
-            return;
+            return null;
         }
 
-        Set<ModLoaderType> modLoaderTypes = instance.getModLoaders();
+        String cacheKey = getCacheKey(file);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            attributes = null;
+        }
+
+        if (attributes != null && metadataCache != null && modLoaderTypes.equals(metadataCacheModLoaders)) {
+            CachedModMetadata cached = metadataCache.get(cacheKey);
+            if (cached != null && cached.matches(attributes)) {
+                seen.put(cacheKey, cached);
+                return cached.toLocalModFile(this, file);
+            }
+        }
 
         var supportedReaders = new ArrayList<ModMetadataReader>();
         var unsupportedReaders = new ArrayList<ModMetadataReader>();
@@ -129,6 +174,7 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
         }
 
         LocalModFile modInfo = null;
+        boolean cacheable = attributes != null && FileStamp.isSettled(attributes);
 
         List<Exception> exceptions = new ArrayList<>();
         try (ZipFileTree tree = CompressingUtils.openZipTree(file)) {
@@ -152,6 +198,8 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
             }
         } catch (Exception e) {
             LOG.warning("Failed to open mod file " + file, e);
+            // Might be a temporary failure, so it is not remembered
+            cacheable = false;
         }
 
         if (modInfo == null) {
@@ -171,9 +219,10 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
             );
         }
 
-        if (!modInfo.isOld()) {
-            localFiles.add(modInfo);
+        if (cacheable) {
+            seen.put(cacheKey, CachedModMetadata.of(attributes, modInfo));
         }
+        return modInfo;
     }
 
     @Override
@@ -190,27 +239,130 @@ public final class ModManager extends LocalAddonManager<LocalModFile> {
                     || analyzer.has(GameComponentType.CLEANROOM)
                     || analyzer.has(GameComponentType.LITELOADER);
 
+            List<Path> files = new ArrayList<>();
             if (Files.isDirectory(getDirectory())) {
                 try (DirectoryStream<Path> modsDirectoryStream = Files.newDirectoryStream(getDirectory())) {
                     for (Path subitem : modsDirectoryStream) {
                         if (supportSubfolders && Files.isDirectory(subitem) && !".connector".equalsIgnoreCase(subitem.getFileName().toString())) {
                             try (DirectoryStream<Path> subitemDirectoryStream = Files.newDirectoryStream(subitem)) {
                                 for (Path subsubitem : subitemDirectoryStream) {
-                                    addModInfo(subsubitem);
+                                    if (isModFileName(subsubitem))
+                                        files.add(subsubitem);
                                 }
                             }
-                        } else {
-                            addModInfo(subitem);
+                        } else if (isModFileName(subitem)) {
+                            files.add(subitem);
                         }
                     }
                 }
             }
+
+            Set<ModLoaderType> modLoaderTypes = instance.getModLoaders();
+            loadMetadataCache(modLoaderTypes);
+
+            // Jars are opened in parallel, the resulting list keeps the directory order
+            Map<String, CachedModMetadata> seen = new ConcurrentHashMap<>();
+            List<LocalModFile> modInfos;
+            try {
+                modInfos = ParallelStage.map(files, file -> readModInfo(file, modLoaderTypes, seen), count -> {
+                });
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading mods");
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+
+            for (LocalModFile modInfo : modInfos) {
+                if (modInfo != null && !modInfo.isOld()) {
+                    localFiles.add(modInfo);
+                }
+            }
+
+            if (!seen.equals(metadataCache)) {
+                metadataCache = seen;
+                saveMetadataCache(modLoaderTypes);
+            }
             loaded = true;
         } finally {
             lock.unlock();
         }
     }
 
+    private Path getMetadataCacheFile() {
+        return instance.getLayout().getInstanceStateDirectory(instance.getId()).resolve("mod-metadata.json");
+    }
+
+    private void loadMetadataCache(Set<ModLoaderType> modLoaderTypes) {
+        if (metadataCache != null) {
+            if (!modLoaderTypes.equals(metadataCacheModLoaders)) {
+                // Mod loaders were installed or removed since the last refresh
+                metadataCache = new HashMap<>();
+                metadataCacheModLoaders = modLoaderTypes;
+            }
+            return;
+        }
+        metadataCache = new HashMap<>();
+        metadataCacheModLoaders = modLoaderTypes;
+
+        // Earlier versions kept the cache in the instance root, next to the game files
+        try {
+            Files.deleteIfExists(instance.getInstanceRoot().resolve(".mod-metadata.json"));
+        } catch (IOException e) {
+            LOG.warning("Unable to delete legacy mod metadata cache", e);
+        }
+
+        Path cacheFile = getMetadataCacheFile();
+        if (!Files.isRegularFile(cacheFile)) return;
+        try {
+            ModMetadataCache cache = JsonUtils.fromJsonFile(cacheFile, ModMetadataCache.class);
+            if (cache != null && cache.files() != null && modLoaderTypes.equals(cache.modLoaders())) {
+                cache.files().forEach((key, value) -> {
+                    if (key != null && value != null && value.stamp() != null && value.id() != null && value.modLoaderType() != null)
+                        metadataCache.put(key, value);
+                });
+            }
+        } catch (Exception e) {
+            LOG.warning("Unable to read mod metadata cache " + cacheFile, e);
+        }
+    }
+
+    private void saveMetadataCache(Set<ModLoaderType> modLoaderTypes) {
+        Path cacheFile = getMetadataCacheFile();
+        try {
+            if (Files.isDirectory(instance.getInstanceRoot())) {
+                Files.createDirectories(cacheFile.getParent());
+                JsonUtils.writeToJsonFile(cacheFile, new ModMetadataCache(modLoaderTypes, metadataCache));
+            }
+        } catch (IOException e) {
+            LOG.warning("Unable to save mod metadata cache " + cacheFile, e);
+        }
+    }
+
+    private record ModMetadataCache(Set<ModLoaderType> modLoaders, Map<String, CachedModMetadata> files) {
+    }
+
+    /// The metadata read from a mod file, trusted while the file keeps its [FileStamp].
+    private record CachedModMetadata(FileStamp stamp, String id, ModLoaderType modLoaderType, String name, String description,
+                                     String authors, String version, String gameVersion, String url, String logoPath) {
+        static CachedModMetadata of(BasicFileAttributes attributes, LocalModFile modInfo) {
+            return new CachedModMetadata(FileStamp.of(attributes),
+                    modInfo.getId(), modInfo.getModLoaderType(), modInfo.getName(), modInfo.getDescription().toString(),
+                    modInfo.getAuthors(), modInfo.getVersion(), modInfo.getGameVersion(), modInfo.getUrl(), modInfo.getLogoPath());
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return stamp.matches(attributes);
+        }
+
+        LocalModFile toLocalModFile(ModManager modManager, Path file) {
+            return new LocalModFile(modManager, modManager.getLocalMod(id, modLoaderType), file, name,
+                    new LocalAddonFile.Description(description), authors, version, gameVersion, url, logoPath);
+        }
+    }
+
     @Override
     public Comparator<LocalModFile> getComparator() {
         return LocalModFile::compareTo;
@@ -0,0 +1,89 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.addon.repository;
+
+import org.jackhuang.hmcl.util.function.ExceptionalFunction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.jackhuang.hmcl.util.Pair.pair;
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Resolves local files in bulk by a key derived from their content, such as a hash or a fingerprint.
+final class BatchedLookup {
+    private BatchedLookup() {
+    }
+
+    /// Computes the key of every file in parallel and groups the files with the same key.
+    ///
+    /// Files whose key cannot be computed are logged and left out.
+    static <K> Map<K, List<Path>> groupByKey(Collection<Path> files, String keyName,
+                                             ExceptionalFunction<Path, K, IOException> keyFunction) {
+        Map<K, List<Path>> filesByKey = new HashMap<>();
+        files.parallelStream()
+                .distinct()
+                .map(file -> {
+                    try {
+                        return pair(file, keyFunction.apply(file));
+                    } catch (IOException e) {
+                        LOG.warning("Failed to calculate " + keyName + " of " + file, e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+                .forEach(entry -> filesByKey.computeIfAbsent(entry.getValue(), key -> new ArrayList<>(1)).add(entry.getKey()));
+        return filesByKey;
+    }
+
+    /// Looks up the distinct keys in batches of at most `batchSize`.
+    ///
+    /// @param batchLookup returns the values of the recognized keys of one batch
+    /// @return the values of all recognized keys, keys without a match are absent
+    static <K, V> Map<K, V> lookup(Collection<K> keys, int batchSize,
+                                   ExceptionalFunction<List<K>, Map<K, V>, IOException> batchLookup) throws IOException {
+        List<K> remaining = List.copyOf(new LinkedHashSet<>(keys));
+        Map<K, V> result = new HashMap<>();
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            Map<K, V> values = batchLookup.apply(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+            if (values != null)
+                values.forEach((key, value) -> {
+                    if (key != null && value != null)
+                        result.putIfAbsent(key, value);
+                });
+        }
+        return result;
+    }
+
+    /// Maps the values of each key back to the files having that key. Files whose key has no value are absent.
+    static <K, V> Map<Path, V> toFileMap(Map<K, List<Path>> filesByKey, Map<K, V> valuesByKey) {
+        Map<Path, V> result = new HashMap<>();
+        valuesByKey.forEach((key, value) -> {
+            List<Path> files = filesByKey.get(key);
+            if (files != null) {
+                for (Path file : files) {
+                    result.put(file, value);
+                }
+            }
+        });
+        return result;
+    }
+}
@@ -22,8 +22,8 @@ import org.jackhuang.hmcl.addon.RemoteAddon;
 import org.jackhuang.hmcl.addon.RemoteAddonRepository;
 import org.jackhuang.hmcl.addon.mod.ModLoaderType;
 import org.jackhuang.hmcl.download.DownloadProvider;
+import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.Immutable;
-import org.jackhuang.hmcl.util.MurmurHash2;
 import org.jackhuang.hmcl.util.Pair;
 import org.jackhuang.hmcl.util.StringUtils;
 import org.jackhuang.hmcl.util.io.HttpRequest;
@@ -35,17 +35,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.Checksum;
 
 import static org.jackhuang.hmcl.util.Lang.mapOf;
 import static org.jackhuang.hmcl.util.Pair.pair;
@@ -63,6 +58,14 @@ public final class CurseForgeRemoteAddonRepository implements RemoteAddonReposit
 
     private static final int WORD_PERFECT_MATCH_WEIGHT = 5;
 
+    /// Maximum number of fingerprints sent in one `/v1/fingerprints` request.
+    private static final int FINGERPRINT_BATCH_SIZE = 500;
+
+    /// Fingerprint of an empty file, which matches arbitrary projects.
+    ///
+    /// @see <a href="https://github.com/HMCL-dev/HMCL/issues/4597">HMCL#4597</a>
+    private static final long EMPTY_FINGERPRINT = 811513880;
+
     private static <R extends HttpRequest> R withApiKey(R request) {
         if (request.getUrl().startsWith(PREFIX) && !API_KEY.isEmpty()) {
             request.header("X-API-KEY", API_KEY);
@@ -209,78 +212,59 @@ public final class CurseForgeRemoteAddonRepository implements RemoteAddonReposit
 
     /// Calculates the CurseForge fingerprint without retaining the filtered file in memory.
     static long calculateFingerprint(Path file) throws IOException {
-        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
-            long startPosition = channel.position();
-
-            byte[] bufferArray = new byte[1024 * 1024];
-            ByteBuffer buffer = ByteBuffer.wrap(bufferArray);
-
-            long filteredLength = 0;
-            while (channel.read(buffer) > 0) {
-                int len = buffer.position();
-                for (int i = 0; i < len; i++) {
-                    byte b = bufferArray[i];
-                    if (b != 0x9 && b != 0xa && b != 0xd && b != 0x20) {
-                        filteredLength++;
-                    }
-                }
-                buffer.clear();
-            }
-
-            channel.position(startPosition);
-
-            Checksum hasher = MurmurHash2.hash32(filteredLength, 1);
-            while (channel.read(buffer) > 0) {
-                int len = buffer.position();
-
-                int pos = 0;
-                while (pos < len) {
-                    byte b = bufferArray[pos];
-                    if (b == 0x9 || b == 0xa || b == 0xd || b == 0x20) {
-                        break;
-                    }
-                    pos++;
-                }
-
-                if (pos < len) {
-                    int pos2 = pos + 1;
-                    while (pos2 < len) {
-                        byte b = bufferArray[pos2];
-                        if (b != 0x9 && b != 0xa && b != 0xd && b != 0x20) {
-                            bufferArray[pos++] = b;
-                        }
-                        pos2++;
-                    }
-                }
-
-                hasher.update(bufferArray, 0, pos);
-                buffer.clear();
-            }
-            return hasher.getValue();
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            throw new IOException(e);
-        }
+        return DigestUtils.digest(file, DigestUtils.CURSEFORGE_FINGERPRINT).getCurseForgeFingerprint();
     }
 
     /// Finds the remote CurseForge version matching a local file.
     @Override
     public Optional<RemoteAddon.Version> getRemoteVersionByLocalFile(Path file) throws IOException {
         long hash = calculateFingerprint(file);
-        if (hash == 811513880) { // Workaround for https://github.com/HMCL-dev/HMCL/issues/4597
+        if (hash == EMPTY_FINGERPRINT) {
+            return Optional.empty();
+        }
+
+        List<FingerprintMatch> matches = getFingerprintMatches(Collections.singletonList(hash));
+        if (matches.isEmpty()) {
             return Optional.empty();
         }
 
+        return Optional.of(matches.get(0).file().toVersion());
+    }
+
+    /// Fingerprints all files in parallel and looks them up in batches of [#FINGERPRINT_BATCH_SIZE].
+    @Override
+    public Map<Path, RemoteAddon.Version> getRemoteVersionsByLocalFiles(Collection<Path> files) throws IOException {
+        Map<Long, List<Path>> filesByFingerprint = BatchedLookup.groupByKey(files, "CurseForge fingerprint",
+                CurseForgeRemoteAddonRepository::calculateFingerprint);
+        return BatchedLookup.toFileMap(filesByFingerprint, getRemoteVersionsByFingerprints(filesByFingerprint.keySet()));
+    }
+
+    /// Looks up files whose fingerprints are already known, for example from [DigestUtils#digest(Path, String...)],
+    /// in batches of [#FINGERPRINT_BATCH_SIZE].
+    ///
+    /// @return the remote version of every recognized fingerprint
+    public Map<Long, RemoteAddon.Version> getRemoteVersionsByFingerprints(Collection<Long> fingerprints) throws IOException {
+        List<Long> remaining = fingerprints.stream()
+                .filter(fingerprint -> fingerprint != EMPTY_FINGERPRINT)
+                .toList();
+        return BatchedLookup.lookup(remaining, FINGERPRINT_BATCH_SIZE, batch -> {
+            Map<Long, RemoteAddon.Version> result = new HashMap<>();
+            for (FingerprintMatch match : getFingerprintMatches(batch)) {
+                result.putIfAbsent(match.file().fileFingerprint(), match.file().toVersion());
+            }
+            return result;
+        });
+    }
+
+    private static List<FingerprintMatch> getFingerprintMatches(List<Long> fingerprints) throws IOException {
         SEMAPHORE.acquireUninterruptibly();
         try {
             Response<FingerprintMatchesResult> response = withApiKey(HttpRequest.POST(PREFIX + "/v1/fingerprints/432"))
-                    .json(mapOf(pair("fingerprints", Collections.singletonList(hash))))
+                    .json(mapOf(pair("fingerprints", fingerprints)))
                     .getJson(Response.typeOf(FingerprintMatchesResult.class));
 
-            if (response.data().exactMatches() == null || response.data().exactMatches().isEmpty()) {
-                return Optional.empty();
-            }
-
-            return Optional.of(response.data().exactMatches().get(0).file().toVersion());
+            List<FingerprintMatch> exactMatches = response.data().exactMatches();
+            return exactMatches != null ? exactMatches : List.of();
         } finally {
             SEMAPHORE.release();
         }
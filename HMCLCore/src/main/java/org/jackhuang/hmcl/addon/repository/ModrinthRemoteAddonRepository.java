@@ -105,6 +105,9 @@ public final class ModrinthRemoteAddonRepository implements RemoteAddonRepositor
 
     private static final Semaphore SEMAPHORE = new Semaphore(16);
 
+    /// Maximum number of hashes sent in one `version_files` request.
+    private static final int HASH_BATCH_SIZE = 500;
+
     private static final String PREFIX = "https://api.modrinth.com";
 
     private static final String BASE = "https://modrinth.com";
@@ -230,6 +233,97 @@ public final class ModrinthRemoteAddonRepository implements RemoteAddonRepositor
         }
     }
 
+    /// Hashes all files in parallel and resolves them with `POST /v2/version_files` in batches of [#HASH_BATCH_SIZE].
+    @Override
+    public Map<Path, RemoteAddon.Version> getRemoteVersionsByLocalFiles(Collection<Path> files) throws IOException {
+        Map<String, List<Path>> filesByHash = hashFiles(files);
+        return BatchedLookup.toFileMap(filesByHash, getRemoteVersionsBySha1(filesByHash.keySet()));
+    }
+
+    @Override
+    public boolean isSha1LookupSupported() {
+        return true;
+    }
+
+    /// Looks up files whose SHA-1 hashes are already known, for example from [DigestUtils#digest(Path, String...)].
+    ///
+    /// @return the remote version of every recognized hash
+    @Override
+    public Map<String, RemoteAddon.Version> getRemoteVersionsBySha1(Collection<String> hashes) throws IOException {
+        return getVersionsByHashes("/v2/version_files", hashes, Map.of());
+    }
+
+    /// Resolves the newest version of every file for the given game version and loader
+    /// with `POST /v2/version_files/update` in batches of [#HASH_BATCH_SIZE].
+    ///
+    /// Returns `null` for loaders Modrinth has no name for, so that the caller checks each file on its own.
+    @Override
+    public @Nullable Map<Path, RemoteAddon.Version> getLatestVersionsByLocalFiles(Collection<Path> files, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        if (loader != null && toLoaderName(loader) == null) return null;
+        Map<String, List<Path>> filesByHash = hashFiles(files);
+        return BatchedLookup.toFileMap(filesByHash, getLatestVersionsBySha1(filesByHash.keySet(), gameVersion, loader));
+    }
+
+    /// Resolves the newest version of files whose SHA-1 hashes are already known
+    /// with `POST /v2/version_files/update` in batches of [#HASH_BATCH_SIZE].
+    ///
+    /// Returns `null` for loaders Modrinth has no name for.
+    @Override
+    public @Nullable Map<String, RemoteAddon.Version> getLatestVersionsBySha1(Collection<String> hashes, String gameVersion, @Nullable ModLoaderType loader) throws IOException {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("game_versions", List.of(gameVersion));
+        if (loader != null) {
+            String loaderName = toLoaderName(loader);
+            if (loaderName == null) return null;
+            filters.put("loaders", List.of(loaderName));
+        }
+        return getVersionsByHashes("/v2/version_files/update", hashes, filters);
+    }
+
+    @Nullable
+    private static String toLoaderName(ModLoaderType loader) {
+        return switch (loader) {
+            case FABRIC -> "fabric";
+            case FORGE -> "forge";
+            case LEGACY_FABRIC -> "legacy-fabric";
+            case NEO_FORGE -> "neoforge";
+            case QUILT -> "quilt";
+            case LITE_LOADER -> "liteloader";
+            default -> null;
+        };
+    }
+
+    private static Map<String, List<Path>> hashFiles(Collection<Path> files) {
+        return BatchedLookup.groupByKey(files, "SHA-1", file -> DigestUtils.digestToString("SHA-1", file));
+    }
+
+    private static Map<String, RemoteAddon.Version> getVersionsByHashes(String endpoint, Collection<String> hashes,
+                                                                        Map<String, Object> filters) throws IOException {
+        return BatchedLookup.lookup(hashes, HASH_BATCH_SIZE, batch -> {
+            Map<String, Object> body = new LinkedHashMap<>(filters);
+            body.put("hashes", batch);
+            body.put("algorithm", "sha1");
+
+            Map<String, ProjectVersion> versions;
+            SEMAPHORE.acquireUninterruptibly();
+            try {
+                versions = HttpRequest.POST(PREFIX + endpoint)
+                        .json(body)
+                        .getJson(JsonUtils.mapTypeOf(String.class, ProjectVersion.class));
+            } finally {
+                SEMAPHORE.release();
+            }
+
+            Map<String, RemoteAddon.Version> result = new HashMap<>();
+            if (versions != null)
+                versions.forEach((hash, projectVersion) -> {
+                    if (projectVersion != null)
+                        projectVersion.toVersion().ifPresent(version -> result.put(hash, version));
+                });
+            return result;
+        });
+    }
+
     @Override
     public RemoteAddon getAddonById(DownloadProvider downloadProvider, String id) throws IOException {
         SEMAPHORE.acquireUninterruptibly();
@@ -18,7 +18,6 @@
 package org.jackhuang.hmcl.addon.resourcepack;
 
 import javafx.scene.image.Image;
-import org.jackhuang.hmcl.download.DownloadProvider;
 import org.jackhuang.hmcl.addon.RemoteAddon;
 import org.jackhuang.hmcl.addon.RemoteAddonRepository;
 import org.jackhuang.hmcl.addon.meta.PackMcMeta;
@@ -31,7 +30,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
@@ -90,18 +89,19 @@ final class ResourcePackZipFile extends ResourcePackFile {
     }
 
     @Override
-    public AddonUpdate checkUpdates(DownloadProvider downloadProvider, String gameVersion, RemoteAddon.Source source) throws IOException {
-        RemoteAddonRepository repository = source.getRepoForType(RemoteAddon.Type.RESOURCE_PACK);
-        if (repository == null) return null;
-        Optional<RemoteAddon.Version> currentVersion = repository.getRemoteVersionByLocalFile(file);
-        if (currentVersion.isEmpty()) return null;
-        List<RemoteAddon.Version> remoteVersions = repository.getRemoteVersionsById(downloadProvider, currentVersion.get().projectId())
+    public RemoteAddonRepository getRemoteRepository(RemoteAddon.Source source) {
+        return source.getRepoForType(RemoteAddon.Type.RESOURCE_PACK);
+    }
+
+    @Override
+    public AddonUpdate checkUpdates(String gameVersion, RemoteAddon.Source source, RemoteAddon.Version currentVersion, Stream<RemoteAddon.Version> candidates) {
+        List<RemoteAddon.Version> remoteVersions = candidates
                 .filter(version -> version.gameVersions().contains(gameVersion))
-                .filter(version -> version.datePublished().compareTo(currentVersion.get().datePublished()) > 0)
+                .filter(version -> version.datePublished().compareTo(currentVersion.datePublished()) > 0)
                 .sorted(Comparator.comparing(RemoteAddon.Version::datePublished).reversed())
                 .toList();
         if (remoteVersions.isEmpty()) return null;
-        return new AddonUpdate(source, RemoteAddon.Type.RESOURCE_PACK, this, currentVersion.get(), remoteVersions.get(0), false);
+        return new AddonUpdate(source, RemoteAddon.Type.RESOURCE_PACK, this, currentVersion, remoteVersions.get(0), false);
     }
 }
 
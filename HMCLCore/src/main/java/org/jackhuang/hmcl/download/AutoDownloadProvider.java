@@ -18,6 +18,7 @@
 package org.jackhuang.hmcl.download;
 
 import org.jackhuang.hmcl.game.GameComponentType;
+import org.jackhuang.hmcl.util.io.MirrorHealth;
 
 import java.net.URI;
 import java.util.LinkedHashSet;
@@ -60,6 +61,8 @@ public final class AutoDownloadProvider implements DownloadProvider {
         return fileProviders.get(0);
     }
 
+    /// Collects the candidates of all providers in provider order, then ranks them by the observed health of
+    /// their hosts, see [MirrorHealth#rank(List)].
     private static List<URI> getAll(
             List<DownloadProvider> providers,
             Function<DownloadProvider, List<URI>> function) {
@@ -67,7 +70,7 @@ public final class AutoDownloadProvider implements DownloadProvider {
         for (DownloadProvider provider : providers) {
             result.addAll(function.apply(provider));
         }
-        return List.copyOf(result);
+        return MirrorHealth.rank(List.copyOf(result));
     }
 
     @Override
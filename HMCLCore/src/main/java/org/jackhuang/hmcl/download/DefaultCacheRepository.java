@@ -100,7 +100,7 @@ public class DefaultCacheRepository extends CacheRepository {
             LibraryDownloadInfo info = library.getDownload();
             String hash = info.getSha1();
             if (hash != null) {
-                String checksum = DigestUtils.digestToString("SHA-1", jar);
+                String checksum = getHashIndex().digestToString("SHA-1", jar);
                 if (hash.equalsIgnoreCase(checksum))
                     cacheLibrary(library, jar, false);
             } else {
@@ -157,7 +157,7 @@ public class DefaultCacheRepository extends CacheRepository {
         if (Files.exists(jar)) {
             try {
                 if (hash != null) {
-                    String checksum = DigestUtils.digestToString("SHA-1", jar);
+                    String checksum = getHashIndex().digestToString("SHA-1", jar);
                     if (hash.equalsIgnoreCase(checksum))
                         return Optional.of(restore(jar, () -> cacheLibrary(library, jar, false)));
                 } else {
@@ -206,6 +206,20 @@ public class DefaultCacheRepository extends CacheRepository {
         return cache;
     }
 
+    @Override
+    protected void onEvicted(Set<String> hashes) {
+        super.onEvicted(hashes);
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (index.libraries().removeIf(it -> hashes.contains(it.hash().toLowerCase(Locale.ROOT))))
+                saveIndex();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     private void saveIndex() {
         if (indexFile == null || index == null) return;
         try {
@@ -21,9 +21,9 @@ import com.google.gson.JsonParseException;
 import org.jackhuang.hmcl.download.AbstractDependencyManager;
 import org.jackhuang.hmcl.game.*;
 import org.jackhuang.hmcl.task.FileDownloadTask;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.task.Task;
 import org.jackhuang.hmcl.util.CacheRepository;
-import org.jackhuang.hmcl.util.gson.JsonUtils;
 
 import java.io.IOException;
 import java.net.URI;
@@ -80,17 +80,17 @@ public final class GameAssetDownloadTask extends Task<Void> {
     public void execute() throws Exception {
         AssetIndex index;
         try {
-            index = JsonUtils.fromNonNullJson(Files.readString(assetIndexFile), AssetIndex.class);
+            index = AssetIndexCache.read(assetIndexFile);
         } catch (IOException | JsonParseException e) {
             throw new GameAssetIndexDownloadTask.GameAssetIndexMalformedException();
         }
 
-        int progress = 0;
-        for (AssetObject assetObject : index.getObjects().values()) {
+        GameRepository gameRepository = dependencyManager.getGameRepository();
+        List<AssetObject> objects = List.copyOf(index.getObjects().values());
+        List<Boolean> shouldDownload = ParallelStage.map(objects, assetObject -> {
             if (isCancelled())
                 throw new InterruptedException();
 
-            GameRepository gameRepository = dependencyManager.getGameRepository();
             Path file = gameRepository.getLayout().getAssetObject(assetObject);
             boolean download = !Files.isRegularFile(file);
             try {
@@ -99,7 +99,13 @@ public final class GameAssetDownloadTask extends Task<Void> {
             } catch (IOException e) {
                 LOG.warning("Unable to calc hash value of file " + file, e);
             }
-            if (download) {
+            return download;
+        }, count -> updateProgress(count, objects.size()));
+
+        for (int i = 0; i < objects.size(); i++) {
+            AssetObject assetObject = objects.get(i);
+            Path file = gameRepository.getLayout().getAssetObject(assetObject);
+            if (shouldDownload.get(i)) {
                 List<URI> uris = dependencyManager.getDownloadProvider().getAssetObjectCandidates(assetObject.getLocation());
 
                 var task = new FileDownloadTask(uris, file, new FileDownloadTask.IntegrityCheck("SHA-1", assetObject.hash()));
@@ -112,8 +118,6 @@ public final class GameAssetDownloadTask extends Task<Void> {
             } else {
                 dependencyManager.getCacheRepository().tryCacheFile(file, CacheRepository.SHA1, assetObject.hash());
             }
-
-            updateProgress(++progress, index.getObjects().size());
         }
 
         if (!dependencies.isEmpty()) {
@@ -22,9 +22,7 @@ import org.jackhuang.hmcl.download.AbstractDependencyManager;
 import org.jackhuang.hmcl.game.*;
 import org.jackhuang.hmcl.task.FileDownloadTask;
 import org.jackhuang.hmcl.task.Task;
-import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.StringUtils;
-import org.jackhuang.hmcl.util.gson.JsonUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -76,7 +74,7 @@ public final class GameAssetIndexDownloadTask extends Task<Void> {
             // verify correctness of file content
             if (verifyHashCode) {
                 try {
-                    String actualSum = DigestUtils.digestToString("SHA-1", assetIndexFile);
+                    String actualSum = dependencyManager.getCacheRepository().getHashIndex().digestToString("SHA-1", assetIndexFile);
                     if (actualSum.equalsIgnoreCase(assetIndexInfo.getSha1()))
                         return;
                 } catch (IOException e) {
@@ -85,7 +83,7 @@ public final class GameAssetIndexDownloadTask extends Task<Void> {
                 }
             } else {
                 try {
-                    JsonUtils.fromNonNullJson(Files.readString(assetIndexFile), AssetIndex.class);
+                    AssetIndexCache.read(assetIndexFile);
                     return;
                 } catch (IOException | JsonParseException ignore) {
                 }
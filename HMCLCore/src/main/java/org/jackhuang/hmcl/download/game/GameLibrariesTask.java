@@ -20,8 +20,8 @@ package org.jackhuang.hmcl.download.game;
 import org.jackhuang.hmcl.download.AbstractDependencyManager;
 import org.jackhuang.hmcl.game.*;
 import org.jackhuang.hmcl.task.FileDownloadTask;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.task.Task;
-import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.io.CompressingUtils;
 import org.jackhuang.hmcl.util.io.FileUtils;
 import org.jackhuang.hmcl.util.versioning.GameVersionNumber;
@@ -119,12 +119,12 @@ public final class GameLibrariesTask extends Task<Void> {
         return false;
     }
 
-    private static boolean shouldDownloadFMLLib(FMLLib fmlLib, Path file) {
+    private boolean shouldDownloadFMLLib(FMLLib fmlLib, Path file) {
         if (!Files.isRegularFile(file))
             return true;
 
         try {
-            return !DigestUtils.digestToString("SHA-1", file).equalsIgnoreCase(fmlLib.sha1);
+            return !dependencyManager.getCacheRepository().getHashIndex().digestToString("SHA-1", file).equalsIgnoreCase(fmlLib.sha1);
         } catch (IOException e) {
             LOG.warning("Unable to calc hash value of file " + file, e);
             return true;
@@ -133,9 +133,9 @@ public final class GameLibrariesTask extends Task<Void> {
 
     /// {@inheritDoc}
     @Override
-    public void execute() throws IOException {
-        int progress = 0;
+    public void execute() throws Exception {
         GameRepository gameRepository = dependencyManager.getGameRepository();
+        List<Library> pending = new ArrayList<>(libraries.size());
         for (Library library : libraries) {
             if (!library.appliesToCurrentEnvironment()) {
                 continue;
@@ -195,13 +195,21 @@ public final class GameLibrariesTask extends Task<Void> {
                 }
             }
 
-            if (shouldDownloadLibrary(gameRepository, manifest, library, integrityCheck) && (library.hasDownloadURL() || !"optifine".equals(library.groupId()))) {
+            pending.add(library);
+        }
+
+        List<Boolean> shouldDownload = ParallelStage.map(pending,
+                library -> shouldDownloadLibrary(gameRepository, manifest, library, integrityCheck),
+                count -> updateProgress(count, pending.size()));
+
+        for (int i = 0; i < pending.size(); i++) {
+            Library library = pending.get(i);
+            Path file = gameRepository.getLayout().getLibraryFile(manifest.id(), library);
+            if (shouldDownload.get(i) && (library.hasDownloadURL() || !"optifine".equals(library.groupId()))) {
                 dependencies.add(new LibraryDownloadTask(dependencyManager, file, library).withCounter("hmcl.install.libraries"));
             } else {
                 dependencyManager.getCacheRepository().tryCacheLibrary(library, file);
             }
-
-            updateProgress(++progress, libraries.size());
         }
 
         if (!dependencies.isEmpty()) {
@@ -24,6 +24,7 @@ import org.jackhuang.hmcl.task.DownloadException;
 import org.jackhuang.hmcl.task.FileDownloadTask;
 import org.jackhuang.hmcl.task.FileDownloadTask.IntegrityCheck;
 import org.jackhuang.hmcl.task.Task;
+import org.jackhuang.hmcl.util.CacheRepository;
 import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.io.FileUtils;
 
@@ -144,10 +145,9 @@ public class LibraryDownloadTask extends Task<Void> {
             if (checksums == null || checksums.isEmpty()) {
                 return true;
             }
-            byte[] fileData = Files.readAllBytes(libPath);
-            boolean valid = checksums.contains(DigestUtils.digestToString("SHA-1", fileData));
+            boolean valid = checksums.contains(CacheRepository.getInstance().getHashIndex().digestToString("SHA-1", libPath));
             if (!valid && FileUtils.getName(libPath).endsWith(".jar")) {
-                valid = validateJar(fileData, checksums);
+                valid = validateJar(Files.readAllBytes(libPath), checksums);
             }
             return valid;
         } catch (IOException e) {
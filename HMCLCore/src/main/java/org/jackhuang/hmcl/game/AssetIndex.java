@@ -17,6 +17,7 @@
  */
 package org.jackhuang.hmcl.game;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
 import org.jackhuang.hmcl.util.ToStringBuilder;
 
@@ -48,6 +49,26 @@ public final class AssetIndex {
         this.objects = new HashMap<>(objects);
     }
 
+    private AssetIndex(boolean virtual, boolean mapToResources, Map<String, AssetObject> objects) {
+        this.virtual = virtual;
+        this.mapToResources = mapToResources;
+        this.objects = objects;
+    }
+
+    /// Returns an equivalent index holding its objects in an immutable map, which takes less memory and is faster to
+    /// look up than the tree map built by Gson.
+    ///
+    /// @throws JsonParseException if an object is `null`
+    AssetIndex compact() throws JsonParseException {
+        if (objects == null)
+            return new AssetIndex(virtual, mapToResources, Map.of());
+        try {
+            return new AssetIndex(virtual, mapToResources, Map.copyOf(objects));
+        } catch (NullPointerException e) {
+            throw new JsonParseException("Asset index contains null objects", e);
+        }
+    }
+
     public boolean isVirtual() {
         return virtual || mapToResources;
     }
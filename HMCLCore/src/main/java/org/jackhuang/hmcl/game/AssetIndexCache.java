@@ -0,0 +1,91 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.game;
+
+import com.google.gson.JsonParseException;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.util.io.FileStamp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/// Keeps the most recently used asset indexes parsed, so that an index is parsed once per session instead of on
+/// every asset lookup, launch and integrity check.
+///
+/// Entries are keyed by the absolute path of the index file, which contains the asset id, and are only trusted
+/// while the size, last modified time and file key of the file still match. At most [#MAX_ENTRIES] indexes are kept.
+public final class AssetIndexCache {
+    private static final int MAX_ENTRIES = 4;
+
+    private static final Map<String, Entry> entries = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private AssetIndexCache() {
+    }
+
+    /// Returns the parsed asset index in the file, parsing it only if it changed since it was last read.
+    ///
+    /// @throws IOException        if the file cannot be read
+    /// @throws JsonParseException if the file is malformed
+    public static AssetIndex read(Path indexFile) throws IOException, JsonParseException {
+        String key = indexFile.toAbsolutePath().normalize().toString();
+        BasicFileAttributes before = Files.readAttributes(indexFile, BasicFileAttributes.class);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.matches(before))
+                return entry.index();
+        }
+
+        AssetIndex index = JsonUtils.fromJsonFile(indexFile, AssetIndex.class);
+        if (index == null)
+            throw new JsonParseException("Asset index file " + indexFile + " is empty");
+        index = index.compact();
+
+        // Only remember the index if the file did not change while it was being read, and was not modified so recently
+        // that a later write could keep the same size and timestamp
+        BasicFileAttributes after = Files.readAttributes(indexFile, BasicFileAttributes.class);
+        FileStamp stamp = FileStamp.of(after);
+        if (stamp.matches(before) && FileStamp.isSettled(after)) {
+            synchronized (entries) {
+                entries.put(key, new Entry(stamp, index));
+            }
+        }
+        return index;
+    }
+
+    /// Forgets all parsed indexes.
+    public static void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private record Entry(FileStamp stamp, AssetIndex index) {
+        boolean matches(BasicFileAttributes attributes) {
+            return stamp.matches(attributes);
+        }
+    }
+}
@@ -17,7 +17,7 @@
  */
 package org.jackhuang.hmcl.game;
 
-import org.jackhuang.hmcl.util.DigestUtils;
+import org.jackhuang.hmcl.util.CacheRepository;
 import org.jackhuang.hmcl.util.StringUtils;
 import org.jackhuang.hmcl.util.gson.JsonSerializable;
 
@@ -39,6 +39,6 @@ public record AssetObject(String hash, long size) {
 
     public boolean validateChecksum(Path file, boolean defaultValue) throws IOException {
         if (hash == null) return defaultValue;
-        return DigestUtils.digestToString("SHA-1", file).equalsIgnoreCase(hash);
+        return CacheRepository.getInstance().getHashIndex().verify("SHA-1", file, hash);
     }
 }
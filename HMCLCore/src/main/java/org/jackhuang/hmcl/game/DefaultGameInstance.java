@@ -20,18 +20,24 @@ package org.jackhuang.hmcl.game;
 import com.google.gson.JsonParseException;
 import org.jackhuang.hmcl.addon.mod.ModManager;
 import org.jackhuang.hmcl.addon.resourcepack.ResourcePackManager;
-import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.util.io.FileUtils;
 import org.jackhuang.hmcl.util.versioning.GameVersionNumber;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
@@ -296,9 +302,8 @@ public abstract class DefaultGameInstance implements GameInstance {
     @Override
     public AssetIndex getAssetIndex(String assetId) throws IOException {
         try {
-            return Objects.requireNonNull(
-                    JsonUtils.fromJsonFile(getLayout().getAssetIndexFile(assetId), AssetIndex.class));
-        } catch (JsonParseException | NullPointerException e) {
+            return AssetIndexCache.read(getLayout().getAssetIndexFile(assetId));
+        } catch (JsonParseException e) {
             throw new IOException("Asset index file malformed", e);
         }
     }
@@ -333,6 +338,12 @@ public abstract class DefaultGameInstance implements GameInstance {
 
     /// Reconstructs virtual and legacy resource layouts for an asset index when required.
     ///
+    /// Objects are hard linked into the virtual directory, falling back to copying where the file system does not
+    /// support links. Indexes mapped to resources are always copied into `resources`, as that directory lives in the
+    /// game directory where mods and users may rewrite files, which must not reach the shared object store.
+    /// Once every object is in place a marker recording the index file is written, so later launches with the same
+    /// index only check that the reconstructed files still exist instead of linking them again.
+    ///
     /// @param assetId the asset index ID
     /// @return the directory to supply at launch time
     /// @throws IOException        if an asset cannot be copied
@@ -346,32 +357,101 @@ public abstract class DefaultGameInstance implements GameInstance {
             return assetsDir;
         }
 
-        @Nullable AssetIndex index = JsonUtils.fromJsonFile(indexFile, AssetIndex.class);
-        if (index == null || !index.isVirtual()) {
+        Path resourcesDir = getRunDirectory().resolve("resources");
+        Path marker = virtualRoot.resolve(RECONSTRUCTED_MARKER);
+        BasicFileAttributes indexAttributes = Files.readAttributes(indexFile, BasicFileAttributes.class);
+        AssetIndex index = AssetIndexCache.read(indexFile);
+        if (!index.isVirtual()) {
             return assetsDir;
         }
 
-        Path resourcesDir = getRunDirectory().resolve("resources");
-        int existingObjects = 0;
-        int totalObjects = index.getObjects().size();
-        for (Map.Entry<String, AssetObject> entry : index.getObjects().entrySet()) {
-            Path target = virtualRoot.resolve(entry.getKey());
-            Path original = getLayout().getAssetObject(entry.getValue());
-            if (Files.exists(original)) {
-                existingObjects++;
-                if (!Files.isRegularFile(target)) {
-                    FileUtils.copyFile(original, target);
-                }
+        try {
+            String recorded = Files.readString(marker);
+            if (recorded.equals(reconstructionStamp(indexAttributes, resourcesDir, index.needMapToResources()))
+                    && isReconstructed(index, virtualRoot, resourcesDir)) {
+                return virtualRoot;
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException e) {
+            LOG.warning("Unable to read " + marker, e);
+        }
+
+        AtomicBoolean linkUnsupported = new AtomicBoolean();
+        List<Map.Entry<String, AssetObject>> objects = List.copyOf(index.getObjects().entrySet());
+        List<Boolean> existing;
+        try {
+            existing = ParallelStage.map(objects, entry -> {
+                Path original = getLayout().getAssetObject(entry.getValue());
+                if (!Files.isRegularFile(original))
+                    return false;
 
+                linkOrCopy(original, virtualRoot.resolve(entry.getKey()), linkUnsupported);
                 if (index.needMapToResources()) {
-                    target = resourcesDir.resolve(entry.getKey());
-                    if (!Files.isRegularFile(target)) {
+                    Path target = resourcesDir.resolve(entry.getKey());
+                    if (!Files.isRegularFile(target))
                         FileUtils.copyFile(original, target);
-                    }
                 }
+                return true;
+            }, count -> {
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reconstructing assets " + assetId);
+        } catch (Exception e) {
+            throw new IOException("Unable to reconstruct assets " + assetId, e);
+        }
+
+        int existingObjects = (int) existing.stream().filter(Boolean::booleanValue).count();
+        int totalObjects = objects.size();
+        if (existingObjects == totalObjects) {
+            try {
+                Files.createDirectories(virtualRoot);
+                Files.writeString(marker, reconstructionStamp(indexAttributes, resourcesDir, index.needMapToResources()));
+            } catch (IOException e) {
+                LOG.warning("Unable to write " + marker, e);
             }
         }
 
         return existingObjects * 10 < totalObjects ? assetsDir : virtualRoot;
     }
+
+    private static final String RECONSTRUCTED_MARKER = ".hmcl-reconstructed";
+
+    /// Identifies the index file, and the resources directory it was mapped to, in the marker of a reconstruction.
+    private static String reconstructionStamp(BasicFileAttributes indexAttributes, Path resourcesDir, boolean mapToResources) {
+        String stamp = indexAttributes.size() + " " + indexAttributes.lastModifiedTime().toMillis();
+        return mapToResources ? stamp + " " + resourcesDir.toAbsolutePath().normalize() : stamp;
+    }
+
+    /// Checks that every object of the index is still present where the last reconstruction put it.
+    private static boolean isReconstructed(AssetIndex index, Path virtualRoot, Path resourcesDir) {
+        for (String name : index.getObjects().keySet()) {
+            if (!Files.isRegularFile(virtualRoot.resolve(name))
+                    || index.needMapToResources() && !Files.isRegularFile(resourcesDir.resolve(name)))
+                return false;
+        }
+        return true;
+    }
+
+    private static void linkOrCopy(Path original, Path target, AtomicBoolean linkUnsupported) throws IOException {
+        if (Files.isRegularFile(target))
+            return;
+
+        if (!linkUnsupported.get()) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.createLink(target, original);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                // For example the objects are on another drive, stop trying for this reconstruction
+                if (!linkUnsupported.getAndSet(true))
+                    LOG.info("Unable to hard link assets, copying them instead: " + e);
+            }
+        }
+        FileUtils.copyFile(original, target);
+    }
 }
@@ -74,6 +74,14 @@ public class DefaultGameRepositoryLayout implements GameRepositoryLayout {
         return getInstanceRoot(instanceId).resolve("modpack.cfg");
     }
 
+    /// Returns the directory for state the launcher keeps about an instance, such as caches, apart from the game files.
+    ///
+    /// @param instanceId the instance ID
+    /// @return the path `versions/<id>/.hmcl/state` below the base directory
+    public Path getInstanceStateDirectory(GameInstanceID instanceId) {
+        return getInstanceRoot(instanceId).resolve(".hmcl").resolve("state");
+    }
+
     /// {@inheritDoc}
     ///
     /// Official layout path: `libraries/` below the base directory.
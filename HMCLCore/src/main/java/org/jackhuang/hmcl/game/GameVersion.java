@@ -18,7 +18,7 @@
 package org.jackhuang.hmcl.game;
 
 import com.google.gson.JsonParseException;
-import org.jackhuang.hmcl.util.DigestUtils;
+import org.jackhuang.hmcl.util.CacheRepository;
 import org.jackhuang.hmcl.util.gson.JsonUtils;
 import org.jenkinsci.constant_pool_scanner.ConstantPool;
 import org.jenkinsci.constant_pool_scanner.ConstantPoolScanner;
@@ -226,7 +226,7 @@ final class GameVersion {
         }
 
         try {
-            String digest = DigestUtils.digestToString("SHA-1", file);
+            String digest = CacheRepository.getInstance().getHashIndex().digestToString("SHA-1", file);
             return Optional.ofNullable(KNOWN_VERSIONS.get(digest));
         } catch (IOException e) {
             return Optional.empty();
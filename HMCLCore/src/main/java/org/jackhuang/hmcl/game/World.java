@@ -20,6 +20,7 @@ package org.jackhuang.hmcl.game;
 import javafx.scene.image.Image;
 import org.glavo.nbt.io.NBTCodec;
 import org.glavo.nbt.tag.*;
+import org.jackhuang.hmcl.task.ParallelStage;
 import org.jackhuang.hmcl.util.io.*;
 import org.jackhuang.hmcl.util.versioning.GameVersionNumber;
 import org.jetbrains.annotations.Nullable;
@@ -27,14 +28,18 @@ import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
@@ -45,10 +50,14 @@ public final class World {
     private String fileName;
     private Image icon;
 
-    private CompoundTag levelData;
-    private CompoundTag dataTag;
+    // Read without holding the lock while a summary stands in for them, so only published once validated
+    private volatile CompoundTag levelData;
+    private volatile CompoundTag dataTag;
     private Path levelDataPath;
 
+    // Describes the world until level.dat is read, see WorldSummaryCache
+    private @Nullable Summary summary;
+
     private CompoundTag worldGenSettingsDataBackingTag; // Use for writing back to the file
     private CompoundTag normalizedWorldGenSettingsData; // Use for reading/modification
     private Path worldGenSettingsDataPath;
@@ -56,6 +65,9 @@ public final class World {
     private CompoundTag playerData; // Use for both reading/modification and writing back to the file
     private Path playerDataPath;
 
+    // World generation settings and player data are only read when needed, listing worlds does not use them
+    private boolean otherDataLoaded;
+
     public World(Path file) throws IOException {
         this.file = file;
 
@@ -71,16 +83,7 @@ public final class World {
             this.levelDataPath = levelDatPath;
             loadAndCheckWorldData();
 
-            Path iconFile = this.file.resolve("icon.png");
-            if (Files.isRegularFile(iconFile)) {
-                try (InputStream inputStream = Files.newInputStream(iconFile)) {
-                    icon = new Image(inputStream, 64, 64, true, false);
-                    if (icon.isError())
-                        throw icon.getException();
-                } catch (Exception e) {
-                    LOG.warning("Failed to load world icon", e);
-                }
-            }
+            loadIcon(this.file.resolve("icon.png"));
         } else if (Files.isRegularFile(file))
             try (FileSystem fs = CompressingUtils.readonly(this.file).setAutoDetectEncoding(true).build()) {
                 Path root;
@@ -108,21 +111,67 @@ public final class World {
                 }
                 loadAndCheckLevelData(levelDat);
 
-                Path iconFile = root.resolve("icon.png");
-                if (Files.isRegularFile(iconFile)) {
-                    try (InputStream inputStream = Files.newInputStream(iconFile)) {
-                        icon = new Image(inputStream, 64, 64, true, false);
-                        if (icon.isError())
-                            throw icon.getException();
-                    } catch (Exception e) {
-                        LOG.warning("Failed to load world icon", e);
-                    }
-                }
+                loadIcon(root.resolve("icon.png"));
             }
         else
             throw new IOException("Path " + file + " cannot be recognized as a Minecraft world");
     }
 
+    /// Creates a world in a directory from its summary. `level.dat` is only read when data not in the summary is needed.
+    World(Path file, Path levelDataPath, Summary summary) {
+        this.file = file;
+        this.fileName = FileUtils.getName(file);
+        this.levelDataPath = levelDataPath;
+        this.summary = summary;
+        loadIcon(file.resolve("icon.png"));
+    }
+
+    private void loadIcon(Path iconFile) {
+        if (Files.isRegularFile(iconFile)) {
+            try (InputStream inputStream = Files.newInputStream(iconFile)) {
+                icon = new Image(inputStream, 64, 64, true, false);
+                if (icon.isError())
+                    throw icon.getException();
+            } catch (Exception e) {
+                LOG.warning("Failed to load world icon", e);
+            }
+        }
+    }
+
+    /// What the world list shows about a world, remembered while `level.dat` keeps its [FileStamp].
+    record Summary(FileStamp levelData, String worldName, long lastPlayed, @Nullable String gameVersion, @Nullable Long seed) {
+        boolean matches(BasicFileAttributes attributes) {
+            return levelData.matches(attributes);
+        }
+    }
+
+    Summary toSummary(BasicFileAttributes levelDataAttributes) {
+        String gameVersion = null;
+        if (getLevelData().get("Data") instanceof CompoundTag data &&
+                data.get("Version") instanceof CompoundTag versionTag &&
+                versionTag.get("Name") instanceof StringTag nameTag) {
+            gameVersion = nameTag.getValue();
+        }
+        return new Summary(FileStamp.of(levelDataAttributes), getWorldName(), getLastPlayed(), gameVersion, getSeed());
+    }
+
+    Path getLevelDataPath() {
+        return levelDataPath;
+    }
+
+    private synchronized void loadLevelData() throws IOException {
+        if (levelData == null)
+            loadAndCheckWorldData();
+    }
+
+    private void requireLevelData() {
+        try {
+            loadLevelData();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public Path getFile() {
         return file;
     }
@@ -132,6 +181,8 @@ public final class World {
     }
 
     public String getWorldName() {
+        if (levelData == null && summary != null)
+            return summary.worldName();
         if (levelData.get("Data") instanceof CompoundTag data
                 && data.get("LevelName") instanceof StringTag levelNameTag)
             return levelNameTag.get();
@@ -140,6 +191,7 @@ public final class World {
     }
 
     public void setWorldName(String worldName) throws IOException {
+        loadLevelData();
         if (levelData.get("Data") instanceof CompoundTag data && data.get("LevelName") instanceof StringTag levelNameTag) {
             levelNameTag.setValue(worldName);
             writeLevelData();
@@ -151,18 +203,23 @@ public final class World {
     }
 
     public CompoundTag getLevelData() {
+        requireLevelData();
         return levelData;
     }
 
     public @Nullable CompoundTag getNormalizedWorldGenSettingsData() {
+        ensureOtherDataLoaded();
         return normalizedWorldGenSettingsData;
     }
 
     public @Nullable CompoundTag getPlayerData() {
+        ensureOtherDataLoaded();
         return playerData;
     }
 
     public long getLastPlayed() {
+        if (levelData == null && summary != null)
+            return summary.lastPlayed();
         if (dataTag.get("LastPlayed") instanceof LongTag lastPlayedTag) {
             return lastPlayedTag.get();
         } else {
@@ -171,6 +228,8 @@ public final class World {
     }
 
     public @Nullable GameVersionNumber getGameVersion() {
+        if (levelData == null && summary != null)
+            return summary.gameVersion() != null ? GameVersionNumber.asGameVersion(summary.gameVersion()) : null;
         if (levelData.get("Data") instanceof CompoundTag data &&
                 data.get("Version") instanceof CompoundTag versionTag &&
                 versionTag.get("Name") instanceof StringTag nameTag) {
@@ -180,6 +239,9 @@ public final class World {
     }
 
     public @Nullable Long getSeed() {
+        if (levelData == null && summary != null)
+            return summary.seed();
+        ensureOtherDataLoaded();
         // Valid after 1.16(20w20a)
         if (normalizedWorldGenSettingsData != null
                 && normalizedWorldGenSettingsData.get("seed") instanceof LongTag seedTag) {
@@ -193,12 +255,27 @@ public final class World {
     }
 
     public boolean isLargeBiomes() {
+        requireLevelData();
         // Valid before 1.16(20w20a)
         if (dataTag.get("generatorName") instanceof StringTag generatorNameTag) {
             return "largeBiomes".equals(generatorNameTag.getValue());
         }
+
+        synchronized (this) {
+            if (otherDataLoaded)
+                return isLargeBiomes(normalizedWorldGenSettingsData);
+            if (dataTag.get("WorldGenSettings") instanceof CompoundTag worldGenSettingsTag)
+                return isLargeBiomes(worldGenSettingsTag);
+            // Only worlds in a directory have their other data read
+            if (levelDataPath == null)
+                return false;
+        }
+        return scanLargeBiomes(file.resolve("data/minecraft/world_gen_settings.dat"));
+    }
+
+    private static boolean isLargeBiomes(@Nullable CompoundTag normalizedWorldGenSettingsData) {
         // Unified handling of logic after version 1.16
-        else if (normalizedWorldGenSettingsData != null
+        if (normalizedWorldGenSettingsData != null
                 && normalizedWorldGenSettingsData.get("dimensions") instanceof CompoundTag dimensionsTag) {
             if (dimensionsTag.get("minecraft:overworld") instanceof CompoundTag overworldTag
                     && overworldTag.get("generator") instanceof CompoundTag generatorTag) {
@@ -216,6 +293,53 @@ public final class World {
         return false;
     }
 
+    /// Same as [#isLargeBiomes(CompoundTag)], but reads only the overworld generator from `world_gen_settings.dat`
+    /// and stops as soon as it has been read.
+    private boolean scanLargeBiomes(Path worldGenSettingsDatPath) {
+        if (!Files.isRegularFile(worldGenSettingsDatPath))
+            return false;
+
+        String generator = "data/dimensions/minecraft:overworld/generator";
+        var largeBiomes = new Object[2]; // biome_source/large_biomes, settings
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(worldGenSettingsDatPath))) {
+            NBTScanner.scan(in, new NBTScanner.Visitor() {
+                private boolean done;
+
+                @Override
+                public NBTScanner.Action visitTag(String path, byte type) {
+                    if (done)
+                        return NBTScanner.Action.STOP;
+                    if (generator.startsWith(path + "/") || path.equals(generator) || path.equals(generator + "/biome_source"))
+                        return NBTScanner.Action.ENTER;
+                    if (path.equals(generator + "/biome_source/large_biomes") || path.equals(generator + "/settings"))
+                        return NBTScanner.Action.READ;
+                    return NBTScanner.Action.SKIP;
+                }
+
+                @Override
+                public void visitValue(String path, Object value) {
+                    largeBiomes[path.endsWith("/large_biomes") ? 0 : 1] = value;
+                }
+
+                @Override
+                public void visitEnd(String path) {
+                    // Everything after the generator, or after the compounds that should have held it, is irrelevant
+                    if (!path.startsWith(generator + "/"))
+                        done = true;
+                }
+            });
+        } catch (IOException e) {
+            LOG.warning("Failed to read world generation settings of " + file, e);
+            return false;
+        }
+
+        // Valid between 1.16(20w20a) and 1.18(21w37a)
+        if (largeBiomes[0] instanceof Byte largeBiomesValue)
+            return largeBiomesValue == (byte) 1;
+        // Valid after 1.18(21w37a)
+        return "minecraft:large_biomes".equals(largeBiomes[1]);
+    }
+
     public Image getIcon() {
         return icon;
     }
@@ -238,11 +362,31 @@ public final class World {
 
     private void loadAndCheckWorldData() throws IOException {
         loadAndCheckLevelData(levelDataPath);
-        loadOtherData();
+        synchronized (this) {
+            otherDataLoaded = false;
+            setWorldGenSettingsData(null, null, null);
+            setPlayerData(null, null);
+        }
+    }
+
+    private synchronized void ensureOtherDataLoaded() {
+        if (otherDataLoaded) return;
+        otherDataLoaded = true;
+
+        // Only worlds in a directory have their other data read
+        if (levelDataPath == null) return;
+        try {
+            loadLevelData();
+            loadOtherData();
+        } catch (IOException e) {
+            LOG.warning("Failed to load world data of " + file, e);
+            setWorldGenSettingsData(null, null, null);
+            setPlayerData(null, null);
+        }
     }
 
     private void loadAndCheckLevelData(Path levelDat) throws IOException {
-        this.levelData = NBTCodec.of().readTag(levelDat, TagType.COMPOUND);
+        CompoundTag levelData = NBTCodec.of().readTag(levelDat, TagType.COMPOUND);
         if (!(levelData.get("Data") instanceof CompoundTag data))
             throw new IOException("level.dat missing Data");
 
@@ -251,7 +395,10 @@ public final class World {
 
         if (!(data.get("LastPlayed") instanceof LongTag))
             throw new IOException("level.dat missing LastPlayed");
+
+        // levelData is written last, so whoever sees it also sees its dataTag
         this.dataTag = data;
+        this.levelData = levelData;
     }
 
     private void loadOtherData() throws IOException {
@@ -308,6 +455,7 @@ public final class World {
             throw new IOException("Not a valid world directory");
 
         // Change the name recorded in level.dat
+        loadLevelData();
         dataTag.setString("LevelName", newName);
         writeLevelData();
 
@@ -410,6 +558,11 @@ public final class World {
 
         writeLevelData();
 
+        // Nothing could have been modified if the other data was never read
+        synchronized (this) {
+            if (!otherDataLoaded) return;
+        }
+
         if (worldGenSettingsDataPath != null && worldGenSettingsDataBackingTag != null) {
             writeTag(worldGenSettingsDataBackingTag, worldGenSettingsDataPath);
         }
@@ -420,6 +573,8 @@ public final class World {
     }
 
     public void writeLevelData() throws IOException {
+        // Nothing could have been modified if level.dat was never read
+        if (levelData == null) return;
         writeTag(levelData, levelDataPath);
     }
 
@@ -447,20 +602,35 @@ public final class World {
 
     public static List<World> getWorlds(Path savesDir) {
         if (Files.exists(savesDir)) {
+            List<Path> worldDirs;
             try (Stream<Path> stream = Files.list(savesDir)) {
-                return stream
+                worldDirs = stream
                         .filter(Files::isDirectory)
-                        .flatMap(world -> {
-                            try {
-                                return Stream.of(new World(world.toAbsolutePath().normalize()));
-                            } catch (IOException e) {
-                                LOG.warning("Failed to read world " + world, e);
-                                return Stream.empty();
-                            }
-                        })
+                        .map(world -> world.toAbsolutePath().normalize())
                         .toList();
             } catch (IOException e) {
                 LOG.warning("Failed to read saves", e);
+                return List.of();
+            }
+
+            WorldSummaryCache cache = WorldSummaryCache.getInstance();
+            try {
+                List<World> worlds = ParallelStage.map(worldDirs, world -> {
+                    try {
+                        return cache.load(world);
+                    } catch (IOException e) {
+                        LOG.warning("Failed to read world " + world, e);
+                        return null;
+                    }
+                }, count -> {
+                });
+                return worlds.stream().filter(Objects::nonNull).toList();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOG.warning("Failed to read saves", e);
+            } finally {
+                cache.save();
             }
         }
         return List.of();
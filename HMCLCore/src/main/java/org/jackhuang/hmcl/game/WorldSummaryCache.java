@@ -0,0 +1,137 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.game;
+
+import org.jackhuang.hmcl.util.CacheRepository;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.util.io.FileStamp;
+import org.jackhuang.hmcl.util.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Remembers what the world list shows about each world, so that listing saves does not decode every `level.dat`.
+///
+/// Entries are keyed by the absolute path of the world directory and are only trusted while the [FileStamp] of its
+/// `level.dat` still matches. Worlds in zip files are always read.
+final class WorldSummaryCache {
+    private static volatile WorldSummaryCache instance;
+
+    /// Returns the cache stored in the current cache directory of [CacheRepository].
+    static WorldSummaryCache getInstance() {
+        Path cacheDirectory = CacheRepository.getInstance().getCacheDirectory();
+        Path cacheFile = cacheDirectory != null ? cacheDirectory.resolve("world-summaries.json") : null;
+
+        WorldSummaryCache cache = instance;
+        if (cache == null || !Objects.equals(cache.cacheFile, cacheFile)) {
+            synchronized (WorldSummaryCache.class) {
+                cache = instance;
+                if (cache == null || !Objects.equals(cache.cacheFile, cacheFile)) {
+                    instance = cache = new WorldSummaryCache(cacheFile);
+                }
+            }
+        }
+        return cache;
+    }
+
+    private final @Nullable Path cacheFile;
+    private final Map<String, World.Summary> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    WorldSummaryCache(@Nullable Path cacheFile) {
+        this.cacheFile = cacheFile;
+        if (cacheFile != null && Files.isRegularFile(cacheFile)) {
+            try {
+                Map<String, World.Summary> saved = JsonUtils.fromJsonFile(cacheFile, JsonUtils.mapTypeOf(String.class, World.Summary.class));
+                if (saved != null) {
+                    saved.forEach((path, summary) -> {
+                        if (path != null && summary != null && summary.levelData() != null && summary.worldName() != null) {
+                            entries.put(path, summary);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                LOG.warning("Unable to read world summaries " + cacheFile, e);
+            }
+        }
+    }
+
+    /// Returns the world in the directory, reading its `level.dat` only if it changed since the world was last listed.
+    World load(Path worldDir) throws IOException {
+        Path levelDat = worldDir.resolve("level.dat");
+        if (!Files.exists(levelDat)) { // version 20w14infinite
+            levelDat = worldDir.resolve("special_level.dat");
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(levelDat, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Let the constructor report the invalid world
+            return new World(worldDir);
+        }
+
+        String key = worldDir.toString();
+        World.Summary summary = entries.get(key);
+        if (summary != null && summary.matches(attributes)) {
+            return new World(worldDir, levelDat, summary);
+        }
+
+        World world = new World(worldDir);
+        // Skip files modified so recently that a later write could keep the same size and timestamp
+        if (FileStamp.isSettled(attributes) && world.getLevelDataPath().equals(levelDat)) {
+            entries.put(key, world.toSummary(attributes));
+            dirty = true;
+        }
+        return world;
+    }
+
+    /// Writes pending changes to the cache file, forgetting worlds that no longer exist.
+    synchronized void save() {
+        if (cacheFile == null || !dirty) return;
+        dirty = false;
+
+        entries.keySet().removeIf(path -> !Files.isDirectory(Path.of(path)));
+        try {
+            Map<String, World.Summary> snapshot = new HashMap<>(entries);
+            FileUtils.saveSafely(cacheFile, outputStream -> {
+                try (var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                    JsonUtils.UGLY_GSON.toJson(snapshot, JsonUtils.mapTypeOf(String.class, World.Summary.class).getType(), writer);
+                }
+            });
+        } catch (NoSuchFileException ignored) {
+            // The cache directory was removed
+        } catch (IOException e) {
+            dirty = true;
+            LOG.warning("Unable to save world summaries " + cacheFile, e);
+        }
+    }
+}
@@ -20,11 +20,12 @@ package org.jackhuang.hmcl.launch;
 import org.glavo.uuid.UUIDs;
 import org.jackhuang.hmcl.auth.AuthInfo;
 import org.jackhuang.hmcl.game.*;
+import org.jackhuang.hmcl.util.CacheRepository;
+import org.jackhuang.hmcl.util.FileHashIndex;
 import org.jackhuang.hmcl.util.Lang;
 import org.jackhuang.hmcl.util.ServerAddress;
 import org.jackhuang.hmcl.util.StringUtils;
 import org.jackhuang.hmcl.util.io.FileUtils;
-import org.jackhuang.hmcl.util.io.Unzipper;
 import org.jackhuang.hmcl.util.platform.*;
 import org.jackhuang.hmcl.util.platform.hardware.GraphicsCard;
 import org.jackhuang.hmcl.util.platform.hardware.HardwareVendor;
@@ -449,34 +450,35 @@ public class DefaultLauncher extends Launcher {
     protected void appendJvmArgs(CommandBuilder result) {
     }
 
+    /// Returns the index native jars are hashed through, the one of the shared cache by default.
+    protected FileHashIndex getHashIndex() {
+        return CacheRepository.getInstance().getHashIndex();
+    }
+
     public void decompressNatives(Path destination) throws NotDecompressingNativesException {
         LOG.info("Decompress native libraries to " + destination);
 
+        List<NativesExtractor.Source> sources = new ArrayList<>();
+        for (Library library : manifest.getLibraries())
+            if (library.isNative())
+                sources.add(new NativesExtractor.Source(instance.getLayout().getLibraryFile(instance.getId(), library), (relativePath, destFile) -> {
+                    String ext = FileUtils.getExtension(destFile);
+                    if (ext.equals("sha1") || ext.equals("git"))
+                        return false;
+
+                    if (options.isUseNativeGLFW() && FileUtils.getName(destFile).toLowerCase(Locale.ROOT).contains("glfw")) {
+                        return false;
+                    }
+                    if (options.isUseNativeOpenAL() && FileUtils.getName(destFile).toLowerCase(Locale.ROOT).contains("openal")) {
+                        return false;
+                    }
+
+                    return library.getExtract().shouldExtract(relativePath);
+                }));
+
+        String extractOptions = "glfw=" + options.isUseNativeGLFW() + ";openal=" + options.isUseNativeOpenAL();
         try {
-            FileUtils.cleanDirectoryQuietly(destination);
-            for (Library library : manifest.getLibraries())
-                if (library.isNative())
-                    new Unzipper(instance.getLayout().getLibraryFile(instance.getId(), library), destination)
-                            .setFilter((zipEntry, destFile, relativePath) -> {
-                                if (!zipEntry.isDirectory() && !zipEntry.isUnixSymlink()
-                                        && Files.isRegularFile(destFile)
-                                        && zipEntry.getSize() == Files.size(destFile)) {
-                                    return false;
-                                }
-                                String ext = FileUtils.getExtension(destFile);
-                                if (ext.equals("sha1") || ext.equals("git"))
-                                    return false;
-
-                                if (options.isUseNativeGLFW() && FileUtils.getName(destFile).toLowerCase(Locale.ROOT).contains("glfw")) {
-                                    return false;
-                                }
-                                if (options.isUseNativeOpenAL() && FileUtils.getName(destFile).toLowerCase(Locale.ROOT).contains("openal")) {
-                                    return false;
-                                }
-
-                                return library.getExtract().shouldExtract(relativePath);
-                            })
-                            .setReplaceExistentFile(false).unzip();
+            new NativesExtractor(destination, extractOptions, sources, getHashIndex()).extract();
         } catch (IOException e) {
             throw new NotDecompressingNativesException(e);
         }
@@ -1026,14 +1028,14 @@ public class DefaultLauncher extends Launcher {
 
     private void startMonitors(ManagedProcess managedProcess, Path nativeFolder, ProcessListener processListener, Charset encoding, boolean isDaemon) {
         processListener.setProcess(managedProcess);
-        Thread stdout = Lang.thread(new StreamPump(managedProcess.getProcess().getInputStream(), it -> {
-            processListener.onLog(it, false);
-            managedProcess.addLine(it);
+        Thread stdout = Lang.thread(StreamPump.ofBatches(managedProcess.getProcess().getInputStream(), lines -> {
+            processListener.onLogs(lines, false);
+            lines.forEach(managedProcess::addLine);
         }, encoding), "stdout-pump", isDaemon);
         managedProcess.addRelatedThread(stdout);
-        Thread stderr = Lang.thread(new StreamPump(managedProcess.getProcess().getErrorStream(), it -> {
-            processListener.onLog(it, true);
-            managedProcess.addLine(it);
+        Thread stderr = Lang.thread(StreamPump.ofBatches(managedProcess.getProcess().getErrorStream(), lines -> {
+            processListener.onLogs(lines, true);
+            lines.forEach(managedProcess::addLine);
         }, encoding), "stderr-pump", isDaemon);
         managedProcess.addRelatedThread(stderr);
         managedProcess.addRelatedThread(Lang.thread(new ExitWaiter(managedProcess, Arrays.asList(stdout, stderr), (exitCode, exitType) -> {
@@ -27,8 +27,9 @@ import org.jackhuang.hmcl.util.platform.ManagedProcess;
 import org.jackhuang.hmcl.util.platform.OperatingSystem;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.Iterator;
 import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * @author huangyuhui
@@ -59,19 +60,14 @@ final class ExitWaiter implements Runnable {
             for (Thread thread : joins)
                 thread.join();
 
-            List<String> errorLines = process.getLines(Log4jLevel::guessLogLineError);
+            ErrorLines errorLines = process.withLines(ErrorLines::scan);
             ProcessListener.ExitType exitType;
 
             // LaunchWrapper will catch the exception logged and will exit normally.
-            if (exitCode != 0 && StringUtils.containsOne(errorLines,
-                    "Could not create the Java Virtual Machine.",
-                    "Error occurred during initialization of VM",
-                    "A fatal exception has occurred. Program will exit.")) {
+            if (exitCode != 0 && errorLines.jvmError()) {
                 EventBus.EVENT_BUS.fireEvent(new JVMLaunchFailedEvent(this, process));
                 exitType = ProcessListener.ExitType.JVM_ERROR;
-            } else if (exitCode != 0 || StringUtils.containsOne(errorLines,
-                    "Crash report saved to", "Could not save crash report to", "This crash report has been saved to:",
-                    "Unable to launch", "An exception was thrown, the game will display an error screen and halt.")) {
+            } else if (exitCode != 0 || errorLines.gameError()) {
                 EventBus.EVENT_BUS.fireEvent(new ProcessExitedAbnormallyEvent(this, process));
 
                 if (exitCode == 137 && OperatingSystem.CURRENT_OS.isLinuxOrBSD()) {
@@ -88,6 +84,27 @@ final class ExitWaiter implements Runnable {
             watcher.accept(exitCode, exitType);
         } catch (InterruptedException e) {
             watcher.accept(1, ProcessListener.ExitType.INTERRUPTED);
+        } finally {
+            process.closeLines();
+        }
+    }
+
+    /// What the error lines of the output tell about the exit, found in one pass over the retained output.
+    private record ErrorLines(boolean jvmError, boolean gameError) {
+        static ErrorLines scan(Stream<String> lines) {
+            boolean jvmError = false;
+            boolean gameError = false;
+            for (Iterator<String> iterator = lines.filter(Log4jLevel::guessLogLineError).iterator(); iterator.hasNext(); ) {
+                String line = iterator.next();
+                jvmError |= StringUtils.containsOne(line,
+                        "Could not create the Java Virtual Machine.",
+                        "Error occurred during initialization of VM",
+                        "A fatal exception has occurred. Program will exit.");
+                gameError |= StringUtils.containsOne(line,
+                        "Crash report saved to", "Could not save crash report to", "This crash report has been saved to:",
+                        "Unable to launch", "An exception was thrown, the game will display an error screen and halt.");
+            }
+            return new ErrorLines(jvmError, gameError);
         }
     }
 
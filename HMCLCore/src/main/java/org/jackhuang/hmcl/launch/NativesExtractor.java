@@ -0,0 +1,257 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.launch;
+
+import kala.compress.archivers.zip.ZipArchiveEntry;
+import kala.compress.archivers.zip.ZipArchiveReader;
+import org.jackhuang.hmcl.task.ParallelStage;
+import org.jackhuang.hmcl.util.FileHashIndex;
+import org.jackhuang.hmcl.util.function.ExceptionalFunction;
+import org.jackhuang.hmcl.util.gson.JsonSerializable;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.util.io.CompressingUtils;
+import org.jackhuang.hmcl.util.io.FileUtils;
+import org.jackhuang.hmcl.util.io.Unzipper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Extracts native libraries into a natives directory, only writing what changed since the last extraction.
+///
+/// A manifest in the directory records the SHA-1 of each native jar and the size and CRC of every file extracted
+/// from it. When the jars, the extraction options and the extracted files still match the manifest, no jar is opened.
+/// Otherwise the central directories of the jars are read in parallel, files whose size and CRC did not change are
+/// kept, changed files are extracted in parallel and files no longer provided by any jar are deleted.
+final class NativesExtractor {
+    static final String MANIFEST_FILE_NAME = ".hmcl-natives.json";
+
+    @FunctionalInterface
+    interface EntryFilter {
+        boolean accept(String relativePath, Path destFile);
+    }
+
+    /// A native jar and the entries to extract from it. When several jars contain the same file, the first one wins.
+    record Source(Path jar, EntryFilter filter) {
+    }
+
+    @JsonSerializable
+    private record Manifest(String options, List<ManifestSource> sources) {
+    }
+
+    @JsonSerializable
+    private record ManifestSource(String sha1, List<ManifestEntry> entries) {
+    }
+
+    /// @param size the size of the file, or `-1` for symbolic links
+    @JsonSerializable
+    private record ManifestEntry(String path, long size, long crc) {
+    }
+
+    private final Path destination;
+    private final Path manifestFile;
+    private final String options;
+    private final List<Source> sources;
+    private final FileHashIndex hashIndex;
+
+    /// @param options   describes the options affecting which entries are extracted, a change forces a new scan
+    /// @param hashIndex the index the native jars are hashed through
+    NativesExtractor(Path destination, String options, List<Source> sources, FileHashIndex hashIndex) {
+        this.destination = destination.toAbsolutePath().normalize();
+        this.manifestFile = this.destination.resolve(MANIFEST_FILE_NAME);
+        this.options = options;
+        this.sources = sources;
+        this.hashIndex = hashIndex;
+    }
+
+    void extract() throws IOException {
+        List<String> hashes = parallel(sources, source -> hashIndex.digestToString("SHA-1", source.jar()));
+
+        @Nullable Manifest previous = readManifest();
+        if (previous != null && isUpToDate(previous, hashes)) {
+            LOG.info("Native libraries in " + destination + " are up to date");
+            return;
+        }
+
+        Map<String, ManifestEntry> previousEntries = new HashMap<>();
+        if (previous != null) {
+            for (ManifestSource source : previous.sources())
+                for (ManifestEntry entry : source.entries())
+                    previousEntries.put(entry.path(), entry);
+        } else {
+            // Files of unknown origin may be left from older launchers
+            FileUtils.cleanDirectoryQuietly(destination);
+        }
+        Files.createDirectories(destination);
+        // The manifest only describes a finished extraction
+        Files.deleteIfExists(manifestFile);
+
+        List<List<ManifestEntry>> listed = parallel(sources, this::listEntries);
+
+        // Give each file to the first jar providing it, as extracting the jars in order without replacing files did
+        Set<String> claimed = new HashSet<>();
+        List<List<ManifestEntry>> owned = new ArrayList<>(sources.size());
+        for (List<ManifestEntry> entries : listed) {
+            List<ManifestEntry> ownedEntries = new ArrayList<>();
+            for (ManifestEntry entry : entries) {
+                if (claimed.add(entry.path()))
+                    ownedEntries.add(entry);
+            }
+            owned.add(ownedEntries);
+        }
+
+        List<Integer> indices = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++)
+            indices.add(i);
+        List<Integer> extracted = parallel(indices, i -> {
+            Set<String> changed = new HashSet<>();
+            for (ManifestEntry entry : owned.get(i)) {
+                if (!isUnchanged(entry, previousEntries.get(entry.path())))
+                    changed.add(entry.path());
+            }
+            if (!changed.isEmpty()) {
+                new Unzipper(sources.get(i).jar(), destination)
+                        .setFilter((zipEntry, destFile, relativePath) -> !zipEntry.isDirectory() && changed.contains(relativePath))
+                        .setReplaceExistentFile(true)
+                        .unzip();
+            }
+            return changed.size();
+        });
+
+        for (String path : previousEntries.keySet()) {
+            if (!claimed.contains(path)) {
+                Path file = resolve(path);
+                if (file != null)
+                    Files.deleteIfExists(file);
+            }
+        }
+
+        List<ManifestSource> manifestSources = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++)
+            manifestSources.add(new ManifestSource(hashes.get(i), owned.get(i)));
+        try {
+            JsonUtils.writeToJsonFile(manifestFile, new Manifest(options, manifestSources));
+        } catch (IOException e) {
+            LOG.warning("Unable to save native libraries manifest " + manifestFile, e);
+        }
+
+        LOG.info("Extracted " + extracted.stream().mapToInt(Integer::intValue).sum() + " of " + claimed.size()
+                + " native library files to " + destination);
+    }
+
+    private @Nullable Manifest readManifest() {
+        try {
+            Manifest manifest = JsonUtils.fromJsonFile(manifestFile, Manifest.class);
+            if (manifest != null && manifest.options() != null && manifest.sources() != null
+                    && manifest.sources().stream().allMatch(source -> source != null && source.sha1() != null && source.entries() != null
+                    && source.entries().stream().allMatch(entry -> entry != null && entry.path() != null && resolve(entry.path()) != null)))
+                return manifest;
+        } catch (NoSuchFileException ignored) {
+        } catch (Exception e) {
+            LOG.warning("Unable to read native libraries manifest " + manifestFile, e);
+        }
+        return null;
+    }
+
+    private boolean isUpToDate(Manifest manifest, List<String> hashes) {
+        if (!options.equals(manifest.options()) || manifest.sources().size() != hashes.size())
+            return false;
+        for (int i = 0; i < hashes.size(); i++) {
+            ManifestSource source = manifest.sources().get(i);
+            if (!hashes.get(i).equalsIgnoreCase(source.sha1()))
+                return false;
+            for (ManifestEntry entry : source.entries()) {
+                if (!isPresent(entry))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /// Resolves a path of the manifest, or returns `null` if it points outside the destination.
+    private @Nullable Path resolve(String path) {
+        try {
+            Path file = destination.resolve(path).toAbsolutePath().normalize();
+            return file.startsWith(destination) && !file.equals(destination) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private boolean isPresent(ManifestEntry entry) {
+        Path file = resolve(entry.path());
+        if (file == null)
+            return false;
+        if (entry.size() < 0)
+            return Files.isSymbolicLink(file);
+        try {
+            return Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) && Files.size(file) == entry.size();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean isUnchanged(ManifestEntry entry, @Nullable ManifestEntry previous) {
+        return previous != null && entry.size() >= 0 && entry.crc() >= 0
+                && previous.size() == entry.size() && previous.crc() == entry.crc()
+                && isPresent(entry);
+    }
+
+    /// Lists the files the source provides, reading only the central directory of the jar.
+    private List<ManifestEntry> listEntries(Source source) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (ZipArchiveReader reader = CompressingUtils.openZipFileWithPossibleEncoding(source.jar(), StandardCharsets.UTF_8)) {
+            for (ZipArchiveEntry entry : reader.getEntries()) {
+                if (entry.isDirectory())
+                    continue;
+                String relativePath = FileUtils.normalizePath(entry.getName()).substring(1);
+                Path destFile = destination.resolve(relativePath).toAbsolutePath().normalize();
+                if (!destFile.startsWith(destination))
+                    throw new IOException("Zip entry is trying to write outside of the destination directory: " + entry.getName());
+                if (relativePath.equals(MANIFEST_FILE_NAME) || !source.filter().accept(relativePath, destFile))
+                    continue;
+
+                entries.add(new ManifestEntry(relativePath, entry.isUnixSymlink() ? -1 : entry.getSize(), entry.getCrc()));
+            }
+        }
+        return entries;
+    }
+
+    private static <T, R> List<R> parallel(List<T> items, ExceptionalFunction<T, R, ?> action) throws IOException {
+        try {
+            return ParallelStage.map(items, action, count -> {
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting native libraries");
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
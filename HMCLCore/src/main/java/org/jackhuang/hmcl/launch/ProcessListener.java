@@ -19,6 +19,8 @@ package org.jackhuang.hmcl.launch;
 
 import org.jackhuang.hmcl.util.platform.ManagedProcess;
 
+import java.util.List;
+
 /**
  *
  * @author huangyuhui
@@ -41,6 +43,19 @@ public interface ProcessListener {
      */
     void onLog(String log, boolean isErrorStream);
 
+    /**
+     * Called when receiving a batch of logs from stdout/stderr, in the order they were written.
+     *
+     * Override this method to handle a burst of output at once, for example to take a lock only once.
+     *
+     * @param logs the logs, never empty
+     */
+    default void onLogs(List<String> logs, boolean isErrorStream) {
+        for (String log : logs) {
+            onLog(log, isErrorStream);
+        }
+    }
+
     /**
      * Called when the game process stops.
      *
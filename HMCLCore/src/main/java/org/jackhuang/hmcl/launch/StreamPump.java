@@ -23,6 +23,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
@@ -30,12 +33,17 @@ import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 /**
  * Pump the given input stream.
  *
+ * Lines are split on the raw bytes and handed over in batches: every line completed by one read
+ * of the stream is delivered together, so a burst of output costs one callback instead of one per line.
+ *
  * @author huangyuhui
  */
 public final class StreamPump implements Runnable {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final InputStream inputStream;
-    private final Consumer<String> callback;
+    private final Consumer<List<String>> callback;
     private final Charset charset;
 
     public StreamPump(InputStream inputStream) {
@@ -43,19 +51,133 @@ public final class StreamPump implements Runnable {
     }
 
     public StreamPump(InputStream inputStream, Consumer<String> callback) {
-        this.inputStream = inputStream;
-        this.callback = callback;
-        this.charset = StandardCharsets.UTF_8;
+        this(inputStream, callback, StandardCharsets.UTF_8);
     }
 
     public StreamPump(InputStream inputStream, Consumer<String> callback, Charset charset) {
+        this(charset, inputStream, lines -> {
+            for (String line : lines) {
+                callback.accept(line);
+            }
+        });
+    }
+
+    private StreamPump(Charset charset, InputStream inputStream, Consumer<List<String>> callback) {
         this.inputStream = inputStream;
         this.callback = callback;
         this.charset = charset;
     }
 
+    /**
+     * Creates a pump handing over lines in batches.
+     *
+     * @param callback receives the lines completed by each read, never an empty list
+     */
+    public static StreamPump ofBatches(InputStream inputStream, Consumer<List<String>> callback, Charset charset) {
+        return new StreamPump(charset, inputStream, callback);
+    }
+
+    /**
+     * Whether line breaks of the charset are the single bytes {@code '\r'} and {@code '\n'},
+     * and these bytes never occur inside another character.
+     * This holds for UTF-8, the ISO-8859 family and the common East Asian multibyte charsets.
+     */
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (!charset.canEncode()) return false;
+        return Arrays.equals("\r\n".getBytes(charset), new byte[]{'\r', '\n'});
+    }
+
     @Override
     public void run() {
+        try {
+            if (isAsciiCompatible(charset)) {
+                pumpBytes();
+            } else {
+                pumpChars();
+            }
+        } catch (IOException e) {
+            LOG.error("An error occurred when reading stream", e);
+        }
+    }
+
+    private void pumpBytes() throws IOException {
+        try (InputStream input = inputStream) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            // Bytes of the line not yet terminated, carried over to the next read
+            byte[] pending = new byte[256];
+            int pendingLength = 0;
+            boolean skipLF = false;
+
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                List<String> lines = null;
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b != '\n' && b != '\r') {
+                        skipLF = false;
+                        continue;
+                    }
+
+                    if (b == '\n' && skipLF) {
+                        // Second half of a "\r\n" split by the previous read
+                        skipLF = false;
+                        start = i + 1;
+                        continue;
+                    }
+                    skipLF = false;
+
+                    String line;
+                    if (pendingLength == 0) {
+                        line = new String(buffer, start, i - start, charset);
+                    } else {
+                        pending = append(pending, pendingLength, buffer, start, i - start);
+                        line = new String(pending, 0, pendingLength + i - start, charset);
+                        pendingLength = 0;
+                    }
+                    if (lines == null) lines = new ArrayList<>();
+                    lines.add(line);
+
+                    if (b == '\r') {
+                        if (i + 1 < read) {
+                            if (buffer[i + 1] == '\n') i++;
+                        } else {
+                            skipLF = true;
+                        }
+                    }
+                    start = i + 1;
+                }
+
+                if (start < read) {
+                    pending = append(pending, pendingLength, buffer, start, read - start);
+                    pendingLength += read - start;
+                }
+
+                if (lines != null) {
+                    callback.accept(lines);
+                }
+            }
+
+            if (pendingLength > 0) {
+                callback.accept(List.of(new String(pending, 0, pendingLength, charset)));
+            }
+        }
+    }
+
+    private static byte[] append(byte[] target, int targetLength, byte[] source, int offset, int length) {
+        if (targetLength + length > target.length) {
+            target = Arrays.copyOf(target, Math.max(target.length * 2, targetLength + length));
+        }
+        System.arraycopy(source, offset, target, targetLength, length);
+        return target;
+    }
+
+    private void pumpChars() throws IOException {
         try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, charset))) {
             String line;
             while ((line = bufferedReader.readLine()) != null) {
@@ -64,10 +186,8 @@ public final class StreamPump implements Runnable {
                     break;
                 }
 
-                callback.accept(line);
+                callback.accept(List.of(line));
             }
-        } catch (IOException e) {
-            LOG.error("An error occurred when reading stream", e);
         }
     }
 
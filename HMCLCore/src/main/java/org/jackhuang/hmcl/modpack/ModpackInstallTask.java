@@ -18,7 +18,7 @@
 package org.jackhuang.hmcl.modpack;
 
 import org.jackhuang.hmcl.task.Task;
-import org.jackhuang.hmcl.util.DigestUtils;
+import org.jackhuang.hmcl.util.CacheRepository;
 import org.jackhuang.hmcl.util.io.Unzipper;
 
 import java.nio.charset.Charset;
@@ -87,7 +87,7 @@ public class ModpackInstallTask<T> extends Task<Void> {
                         } else {
                             // If both old and new modpacks have this entry, and user has modified this file,
                             // we will not replace it since this modified file is what user expects.
-                            String fileHash = DigestUtils.digestToString("SHA-1", destFile);
+                            String fileHash = CacheRepository.getInstance().getHashIndex().digestToString("SHA-1", destFile);
                             String oldHash = files.get(relativePath).getHash();
                             return Objects.equals(oldHash, fileHash);
                         }
@@ -23,6 +23,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jackhuang.hmcl.addon.mod.ModManager;
 import org.jackhuang.hmcl.addon.repository.ModrinthRemoteAddonRepository;
@@ -59,6 +60,15 @@ public class ModrinthModpackExportTask extends Task<Void> {
     /// The archive written by this task.
     private final Path modpackFile;
 
+    /// Remote Modrinth versions of the exported files, resolved in bulk before the files are processed.
+    private Map<Path, RemoteAddon.Version> modrinthVersions = Map.of();
+
+    /// Remote CurseForge versions of the exported files, resolved in bulk before the files are processed.
+    private Map<Path, RemoteAddon.Version> curseForgeVersions = Map.of();
+
+    /// Digests of the exported files, each file is read once for all of them.
+    private Map<Path, DigestUtils.MultiDigest> digests = Map.of();
+
     /// Creates a Modrinth modpack export task.
     ///
     /// @param instance    the registered instance snapshot to export
@@ -96,30 +106,21 @@ public class ModrinthModpackExportTask extends Task<Void> {
             relativePath = modManager.enableMod(Paths.get(relativePath)).toString();
         }
 
-        Optional<RemoteAddon.Version> modrinthVersion = Optional.empty();
-        Optional<RemoteAddon.Version> curseForgeVersion = Optional.empty();
-
-        try {
-            modrinthVersion = ModrinthRemoteAddonRepository.MODS.getRemoteVersionByLocalFile(file);
-        } catch (IOException e) {
-            LOG.warning("Failed to get remote file from Modrinth for: " + file, e);
-        }
-
-        if (!info.isSkipCurseForgeRemoteFiles() && CurseForgeRemoteAddonRepository.isAvailable()) {
-            try {
-                curseForgeVersion = CurseForgeRemoteAddonRepository.MODS.getRemoteVersionByLocalFile(file);
-            } catch (IOException e) {
-                LOG.warning("Failed to get remote file from CurseForge for: " + file, e);
-            }
-        }
+        Optional<RemoteAddon.Version> modrinthVersion = Optional.ofNullable(modrinthVersions.get(file));
+        Optional<RemoteAddon.Version> curseForgeVersion = Optional.ofNullable(curseForgeVersions.get(file));
 
         if (modrinthVersion.isEmpty() && curseForgeVersion.isEmpty()) {
             return null;
         }
 
+        DigestUtils.MultiDigest digest = digests.get(file);
+        if (digest == null) {
+            digest = DigestUtils.digest(file, "SHA-1", "SHA-512");
+        }
+
         Map<String, String> hashes = new HashMap<>();
-        hashes.put("sha1", DigestUtils.digestToString("SHA-1", file));
-        hashes.put("sha512", DigestUtils.digestToString("SHA-512", file));
+        hashes.put("sha1", digest.getString("SHA-1"));
+        hashes.put("sha512", digest.getString("SHA-512"));
 
         @Nullable Map<String, String> env = null;
         if (isDisabled) {
@@ -146,6 +147,58 @@ public class ModrinthModpackExportTask extends Task<Void> {
         );
     }
 
+    /// Hashes all candidate files in parallel, then looks them up on Modrinth and CurseForge with one bulk request per repository.
+    ///
+    /// @param files the whitelisted files that may be exported as remote files
+    private void resolveRemoteVersions(List<Path> files) {
+        if (info.isNoCreateRemoteFiles() || files.isEmpty()) {
+            return;
+        }
+
+        boolean useCurseForge = !info.isSkipCurseForgeRemoteFiles() && CurseForgeRemoteAddonRepository.isAvailable();
+        String[] algorithms = useCurseForge
+                ? new String[]{"SHA-1", "SHA-512", DigestUtils.CURSEFORGE_FINGERPRINT}
+                : new String[]{"SHA-1", "SHA-512"};
+
+        Map<Path, DigestUtils.MultiDigest> digests = new ConcurrentHashMap<>();
+        files.parallelStream().forEach(file -> {
+            try {
+                digests.put(file, DigestUtils.digest(file, algorithms));
+            } catch (IOException e) {
+                LOG.warning("Failed to calculate digests of " + file, e);
+            }
+        });
+        this.digests = digests;
+
+        try {
+            Map<String, RemoteAddon.Version> versions = ModrinthRemoteAddonRepository.MODS.getRemoteVersionsBySha1(
+                    digests.values().stream().map(digest -> digest.getString("SHA-1")).toList());
+            Map<Path, RemoteAddon.Version> result = new HashMap<>();
+            digests.forEach((file, digest) -> {
+                RemoteAddon.Version version = versions.get(digest.getString("SHA-1"));
+                if (version != null) result.put(file, version);
+            });
+            modrinthVersions = result;
+        } catch (IOException e) {
+            LOG.warning("Failed to get remote files from Modrinth", e);
+        }
+
+        if (useCurseForge) {
+            try {
+                Map<Long, RemoteAddon.Version> versions = CurseForgeRemoteAddonRepository.MODS.getRemoteVersionsByFingerprints(
+                        digests.values().stream().map(DigestUtils.MultiDigest::getCurseForgeFingerprint).toList());
+                Map<Path, RemoteAddon.Version> result = new HashMap<>();
+                digests.forEach((file, digest) -> {
+                    RemoteAddon.Version version = versions.get(digest.getCurseForgeFingerprint());
+                    if (version != null) result.put(file, version);
+                });
+                curseForgeVersions = result;
+            } catch (IOException e) {
+                LOG.warning("Failed to get remote files from CurseForge", e);
+            }
+        }
+    }
+
     /// {@inheritDoc}
     @Override
     public void execute() throws Exception {
@@ -159,32 +212,36 @@ public class ModrinthModpackExportTask extends Task<Void> {
             List<ModrinthManifest.File> files = new ArrayList<>();
             Set<String> filesInManifest = new HashSet<>();
 
+            Map<Path, String> candidates = new LinkedHashMap<>();
             String[] resourceDirs = {"resourcepacks", "shaderpacks", "mods"};
             for (String dir : resourceDirs) {
                 Path dirPath = runDirectory.resolve(dir);
                 if (Files.exists(dirPath)) {
-                    Files.walk(dirPath)
-                            .filter(Files::isRegularFile)
-                            .forEach(file -> {
-                                try {
-                                    String relativePath = runDirectory.relativize(file).normalize().toString().replace(File.separatorChar, '/');
-
-                                    if (!info.getWhitelist().contains(relativePath)) {
-                                        return;
-                                    }
-
-                                    ModrinthManifest.File fileEntry = tryGetRemoteFile(file, relativePath);
-                                    if (fileEntry != null) {
-                                        files.add(fileEntry);
-                                        filesInManifest.add(relativePath);
-                                    }
-                                } catch (IOException e) {
-                                    LOG.warning("Failed to process file: " + file, e);
-                                }
-                            });
+                    try (var stream = Files.walk(dirPath)) {
+                        stream.filter(Files::isRegularFile).forEach(file -> {
+                            String relativePath = runDirectory.relativize(file).normalize().toString().replace(File.separatorChar, '/');
+                            if (info.getWhitelist().contains(relativePath)) {
+                                candidates.put(file, relativePath);
+                            }
+                        });
+                    }
                 }
             }
 
+            resolveRemoteVersions(new ArrayList<>(candidates.keySet()));
+
+            candidates.forEach((file, relativePath) -> {
+                try {
+                    ModrinthManifest.File fileEntry = tryGetRemoteFile(file, relativePath);
+                    if (fileEntry != null) {
+                        files.add(fileEntry);
+                        filesInManifest.add(relativePath);
+                    }
+                } catch (IOException e) {
+                    LOG.warning("Failed to process file: " + file, e);
+                }
+            });
+
             zip.putDirectory(runDirectory, "client-overrides", path -> {
                 String relativePath = path.replace(File.separatorChar, '/');
                 if (filesInManifest.contains(relativePath)) {
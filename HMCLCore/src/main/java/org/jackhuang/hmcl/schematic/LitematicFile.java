@@ -18,8 +18,7 @@
 package org.jackhuang.hmcl.schematic;
 
 import javafx.geometry.Point3D;
-import org.glavo.nbt.io.NBTCodec;
-import org.glavo.nbt.tag.*;
+import org.jackhuang.hmcl.util.io.NBTScanner;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -28,44 +27,80 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
 /// @author Glavo
 /// @see <a href="https://litemapy.readthedocs.io/en/v0.9.0b0/litematics.html">The Litematic file format</a>
 public final class LitematicFile {
 
-    private static @Nullable String tryGetString(Tag tag) {
-        return tag instanceof StringTag stringTag ? stringTag.get() : null;
+    private static @Nullable String tryGetString(Object value) {
+        return value instanceof String string ? string : null;
     }
 
-    public static LitematicFile load(Path file) throws IOException {
+    private static int getIntOrZero(Map<String, Object> compound, String key) {
+        return compound.get(key) instanceof Integer value ? value : 0;
+    }
 
-        CompoundTag root;
+    public static LitematicFile load(Path file) throws IOException {
+        // Only the header is needed, the block data of the regions is skipped without decoding
+        var root = new HashMap<String, Object>();
+        var regions = new int[1];
         try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
-            root = NBTCodec.of().readTag(in, TagType.COMPOUND);
+            NBTScanner.scan(in, new NBTScanner.Visitor() {
+                // Region names may contain '/', so the children of Regions are told apart by position, not by path
+                private boolean inRegions;
+
+                @Override
+                public NBTScanner.Action visitTag(String path, byte type) {
+                    if (inRegions) {
+                        regions[0]++;
+                        return NBTScanner.Action.SKIP;
+                    }
+                    return switch (path) {
+                        case "Version", "SubVersion", "MinecraftDataVersion", "Metadata" -> NBTScanner.Action.READ;
+                        case "Regions" -> {
+                            if (type != NBTScanner.TAG_COMPOUND)
+                                yield NBTScanner.Action.SKIP;
+                            inRegions = true;
+                            yield NBTScanner.Action.ENTER;
+                        }
+                        default -> NBTScanner.Action.SKIP;
+                    };
+                }
+
+                @Override
+                public void visitValue(String path, Object value) {
+                    root.put(path, value);
+                }
+
+                @Override
+                public void visitEnd(String path) {
+                    inRegions = false;
+                }
+            });
         }
 
-        Tag versionTag = root.get("Version");
+        Object versionTag = root.get("Version");
         if (versionTag == null)
             throw new IOException("Version tag not found");
-        else if (!(versionTag instanceof IntTag))
+        else if (!(versionTag instanceof Integer))
             throw new IOException("Version tag is not an integer");
 
-        Tag metadataTag = root.get("Metadata");
+        Object metadataTag = root.get("Metadata");
         if (metadataTag == null)
             throw new IOException("Metadata tag not found");
-        else if (!(metadataTag instanceof CompoundTag))
+        else if (!(metadataTag instanceof Map))
             throw new IOException("Metadata tag is not a compound tag");
 
-        int regions = 0;
-        if (root.get("Regions") instanceof CompoundTag regionsTag)
-            regions = regionsTag.size();
-
-        return new LitematicFile(file, (CompoundTag) metadataTag,
-                ((IntTag) versionTag).getValue(),
-                root.getIntOrZero("SubVersion"),
-                root.getIntOrZero("MinecraftDataVersion"),
-                regions
+        @SuppressWarnings("unchecked")
+        Map<String, Object> metadata = (Map<String, Object>) metadataTag;
+        return new LitematicFile(file, metadata,
+                (Integer) versionTag,
+                getIntOrZero(root, "SubVersion"),
+                getIntOrZero(root, "MinecraftDataVersion"),
+                regions[0]
         );
     }
 
@@ -85,7 +120,7 @@ public final class LitematicFile {
     private final int totalVolume;
     private final Point3D enclosingSize;
 
-    private LitematicFile(@NotNull Path file, @NotNull CompoundTag metadata,
+    private LitematicFile(@NotNull Path file, @NotNull Map<String, Object> metadata,
                           int version, int subVersion, int minecraftDataVersion, int regionCount) {
         this.file = file;
         this.version = version;
@@ -93,24 +128,25 @@ public final class LitematicFile {
         this.minecraftDataVersion = minecraftDataVersion;
         this.regionCount = regionCount;
 
-        Tag previewImageData = metadata.get("PreviewImageData");
-        this.previewImageData = previewImageData instanceof IntArrayTag intArrayTag
-                ? intArrayTag.getArray()
+        this.previewImageData = metadata.get("PreviewImageData") instanceof int[] previewImageData
+                ? previewImageData
                 : null;
 
         this.name = tryGetString(metadata.get("Name"));
         this.author = tryGetString(metadata.get("Author"));
         this.description = tryGetString(metadata.get("Description"));
-        this.timeCreated = metadata.get("TimeCreated") instanceof LongTag time ? Instant.ofEpochMilli(time.getValue()) : null;
-        this.timeModified = metadata.get("TimeModified") instanceof LongTag time ? Instant.ofEpochMilli(time.getValue()) : null;
-        this.totalBlocks = metadata.getIntOrZero("TotalBlocks");
-        this.totalVolume = metadata.getIntOrZero("TotalVolume");
+        this.timeCreated = metadata.get("TimeCreated") instanceof Long time ? Instant.ofEpochMilli(time) : null;
+        this.timeModified = metadata.get("TimeModified") instanceof Long time ? Instant.ofEpochMilli(time) : null;
+        this.totalBlocks = getIntOrZero(metadata, "TotalBlocks");
+        this.totalVolume = getIntOrZero(metadata, "TotalVolume");
 
         Point3D enclosingSize = null;
-        if (metadata.get("EnclosingSize") instanceof CompoundTag list) {
-            int x = list.getIntOrZero("x");
-            int y = list.getIntOrZero("y");
-            int z = list.getIntOrZero("z");
+        if (metadata.get("EnclosingSize") instanceof Map<?, ?> list) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> size = (Map<String, Object>) list;
+            int x = getIntOrZero(size, "x");
+            int y = getIntOrZero(size, "y");
+            int z = getIntOrZero(size, "z");
 
             if (x >= 0 && y >= 0 && z >= 0)
                 enclosingSize = new Point3D(x, y, z);
@@ -18,6 +18,7 @@
 package org.jackhuang.hmcl.task;
 
 import com.google.gson.JsonParseException;
+import javafx.application.Platform;
 import org.jackhuang.hmcl.util.Lang;
 
 import java.util.Collection;
@@ -28,21 +29,63 @@ import static org.jackhuang.hmcl.util.Lang.*;
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
 /**
+ * Runs a task graph on {@link CompletableFuture}s.
+ * <p>
+ * The bookkeeping stages between the work of the tasks, such as updating states and firing listeners, are cheap
+ * and synchronous. By default they run on the thread that completed the previous stage instead of hopping to the
+ * common pool, which saves a thread handoff for each of them. They still hop when that thread is the JavaFX
+ * application thread, when it belongs to a fixed-size pool such as the download pool before Java 21, whose threads
+ * are reserved for the work of its tasks, or when too many stages are already nested on the stack. The work of the tasks
+ * ({@link Task#preExecute()}, {@link Task#execute()} and {@link Task#postExecute()}) always runs on
+ * {@link Task#getExecutor()}.
  *
  * @author huangyuhui
  */
 public final class AsyncTaskExecutor extends TaskExecutor {
+    /// Whether bookkeeping stages may run inline, can be turned off with `-Dhmcl.task.hop_elision=false`
+    private static final boolean HOP_ELISION = !"false".equalsIgnoreCase(System.getProperty("hmcl.task.hop_elision"));
+    private static final int MAX_INLINE_DEPTH = 32;
+    private static final ThreadLocal<int[]> INLINE_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+    /// The executor of `CompletableFuture.*Async` methods without an explicit one: the common pool, or a new
+    /// thread per stage when the common pool has no parallelism
+    private static final Executor ASYNC_EXECUTOR = new CompletableFuture<Void>().defaultExecutor();
+
+    /// Runs a bookkeeping stage on the current thread if it is suitable, otherwise on [#ASYNC_EXECUTOR].
+    private static final Executor INLINE_EXECUTOR = runnable -> {
+        int[] depth = INLINE_DEPTH.get();
+        if (depth[0] >= MAX_INLINE_DEPTH || Platform.isFxApplicationThread()
+                || Lang.isBoundedPoolThread(Thread.currentThread())) {
+            ASYNC_EXECUTOR.execute(runnable);
+            return;
+        }
+
+        depth[0]++;
+        try {
+            runnable.run();
+        } finally {
+            depth[0]--;
+        }
+    };
 
+    private final Executor stageExecutor;
     private CompletableFuture<Boolean> future;
 
     public AsyncTaskExecutor(Task<?> task) {
+        this(task, HOP_ELISION);
+    }
+
+    /// @param hopElision whether bookkeeping stages may run inline, otherwise each of them hops to [#ASYNC_EXECUTOR]
+    AsyncTaskExecutor(Task<?> task, boolean hopElision) {
         super(task);
+        this.stageExecutor = hopElision ? INLINE_EXECUTOR : ASYNC_EXECUTOR;
     }
 
     @Override
     public TaskExecutor start() {
         taskListeners.forEach(TaskListener::onStart);
-        future = executeTasks(null, Collections.singleton(firstTask))
+        // The caller of start() must not run the task graph, hop once
+        future = CompletableFuture.completedFuture(null)
+                .thenComposeAsync(unused -> executeTasks(null, Collections.singleton(firstTask)))
                 .thenApplyAsync(exception -> {
                     boolean success = exception == null;
 
@@ -63,7 +106,7 @@ public final class AsyncTaskExecutor extends TaskExecutor {
 
                     taskListeners.forEach(it -> it.onStop(success, this));
                     return success;
-                })
+                }, stageExecutor)
                 .exceptionally(e -> {
                     Throwable resolved = resolveException(e);
                     if (resolved instanceof OutOfMemoryError)
@@ -106,19 +149,22 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                 .thenComposeAsync(unused -> {
                     if (isCancelled()) {
                         for (Task<?> task : tasks) task.setException(new CancellationException());
-                        return CompletableFuture.runAsync(this::checkCancellation);
+                        return CompletableFuture.runAsync(this::checkCancellation, stageExecutor);
                     }
 
-                    return CompletableFuture.allOf(tasks.stream()
-                            .map(task -> CompletableFuture.completedFuture(null)
-                                    .thenComposeAsync(unused2 -> executeTask(parentTask, task))
-                            ).toArray(CompletableFuture<?>[]::new));
-                });
+                    // Each task starts with its own stage, no need to wrap it in another one
+                    CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+                    int i = 0;
+                    for (Task<?> task : tasks) {
+                        futures[i++] = executeTask(parentTask, task);
+                    }
+                    return CompletableFuture.allOf(futures);
+                }, stageExecutor);
     }
 
     private CompletableFuture<Exception> executeTasks(Task<?> parentTask, Collection<? extends Task<?>> tasks) {
         return executeTasksExceptionally(parentTask, tasks)
-                .thenApplyAsync(unused -> (Exception) null)
+                .thenApply(unused -> (Exception) null)
                 .exceptionally(throwable -> {
                     Throwable resolved = resolveException(throwable);
                     if (resolved instanceof Exception) {
@@ -156,7 +202,7 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                             return executeTasksExceptionally(task, tasks);
                         }
                     });
-                })
+                }, stageExecutor)
                 .thenApplyAsync(result -> {
                     checkCancellation();
 
@@ -171,7 +217,7 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                     task.setState(Task.TaskState.SUCCEEDED);
 
                     return result;
-                })
+                }, stageExecutor)
                 .exceptionally(throwable -> {
                     Throwable resolved = resolveException(throwable);
                     if (resolved instanceof Exception e) {
@@ -225,8 +271,8 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                     } else {
                         return CompletableFuture.completedFuture(null);
                     }
-                })
-                .thenComposeAsync(unused -> executeTasks(task, task.getDependents()))
+                }, stageExecutor)
+                .thenComposeAsync(unused -> executeTasks(task, task.getDependents()), stageExecutor)
                 .thenComposeAsync(dependentsException -> {
                     boolean isDependentsSucceeded = dependentsException == null;
 
@@ -248,8 +294,8 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                         task.setState(Task.TaskState.EXECUTED);
                         rethrow(throwable);
                     });
-                })
-                .thenComposeAsync(unused -> executeTasks(task, task.getDependencies()))
+                }, stageExecutor)
+                .thenComposeAsync(unused -> executeTasks(task, task.getDependencies()), stageExecutor)
                 .thenComposeAsync(dependenciesException -> {
                     boolean isDependenciesSucceeded = dependenciesException == null;
 
@@ -262,7 +308,7 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                     } else {
                         return CompletableFuture.completedFuture(dependenciesException);
                     }
-                })
+                }, stageExecutor)
                 .thenApplyAsync(dependenciesException -> {
                     boolean isDependenciesSucceeded = dependenciesException == null;
 
@@ -286,7 +332,7 @@ public final class AsyncTaskExecutor extends TaskExecutor {
                     task.setState(Task.TaskState.SUCCEEDED);
 
                     return task.getResult();
-                })
+                }, stageExecutor)
                 .exceptionally(throwable -> {
                     Throwable resolved = resolveException(throwable);
                     if (resolved instanceof Exception) {
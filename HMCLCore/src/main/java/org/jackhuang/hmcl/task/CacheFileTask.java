@@ -162,6 +162,19 @@ public final class CacheFileTask extends FetchTask<Path> {
                 }
             }
 
+            @Override
+            public boolean isRandomAccessSupported() {
+                return true;
+            }
+
+            @Override
+            public void write(long position, byte[] buffer, int offset, int len) throws IOException {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, len);
+                while (byteBuffer.hasRemaining()) {
+                    position += fileOutput.write(byteBuffer, position);
+                }
+            }
+
             @Override
             public void close() throws IOException {
                 try {
@@ -0,0 +1,28 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.task;
+
+/// How a [FetchTask] competes with other downloads for connections.
+public enum DownloadPriority {
+    /// Downloads someone is waiting for, such as game files, libraries and modpacks.
+    NORMAL,
+    /// Downloads only used for display, such as icons and thumbnails.
+    ///
+    /// They run in a separate, smaller pool, so they never hold a slot that a normal download is waiting for.
+    BACKGROUND
+}
@@ -25,17 +25,23 @@ import org.jackhuang.hmcl.util.io.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import javax.net.ssl.SSLSession;
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URLConnection;
+import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,10 +51,18 @@ import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 public abstract class FetchTask<T> extends Task<T> {
 
     protected static final int DEFAULT_RETRY = 5;
+    protected static final int DEFAULT_SEGMENTS = 4;
+
+    /// Responses smaller than this are always downloaded through a single connection.
+    private static final long SEGMENTED_DOWNLOAD_THRESHOLD = 16L * 1024 * 1024;
+    private static final long MIN_SEGMENT_SIZE = 4L * 1024 * 1024;
 
     protected final List<URI> uris;
     protected int retry = DEFAULT_RETRY;
+    protected int segments = DEFAULT_SEGMENTS;
+    private boolean segmentedDownloadFailed = false;
     protected CacheRepository repository = CacheRepository.getInstance();
+    private DownloadPriority priority = DownloadPriority.NORMAL;
 
     public FetchTask(@NotNull List<@NotNull URI> uris) {
         Objects.requireNonNull(uris);
@@ -58,7 +72,18 @@ public abstract class FetchTask<T> extends Task<T> {
         if (this.uris.isEmpty())
             throw new IllegalArgumentException("At least one URL is required");
 
-        setExecutor(DOWNLOAD_EXECUTOR);
+        setExecutor(NORMAL_LANE.executor);
+    }
+
+    public DownloadPriority getPriority() {
+        return priority;
+    }
+
+    /// Sets how this task competes with other downloads. Must be called before the task is started.
+    public FetchTask<T> setPriority(DownloadPriority priority) {
+        this.priority = Objects.requireNonNull(priority);
+        setExecutor(lane(priority).executor);
+        return this;
     }
 
     public void setRetry(int retry) {
@@ -68,6 +93,17 @@ public abstract class FetchTask<T> extends Task<T> {
         this.retry = retry;
     }
 
+    /// Sets the maximum number of byte ranges a large file may be downloaded in parallel.
+    ///
+    /// Segmented download is only used when the server supports range requests
+    /// and the download context supports random access. A value of 1 disables it.
+    public void setSegments(int segments) {
+        if (segments <= 0)
+            throw new IllegalArgumentException("Segment count must be greater than 0");
+
+        this.segments = segments;
+    }
+
     public void setCacheRepository(CacheRepository repository) {
         this.repository = repository;
     }
@@ -98,27 +134,40 @@ public abstract class FetchTask<T> extends Task<T> {
 
         ArrayList<DownloadException> exceptions = null;
 
-        if (SEMAPHORE != null)
-            SEMAPHORE.acquire();
+        DownloadLane lane = lane(priority);
         try {
-            for (URI uri : uris) {
+            // Ranked when the task runs rather than when it is created, so tasks queued behind a large
+            // install still see mirrors that degraded in the meantime
+            List<URI> candidates = MirrorHealth.rank(uris);
+            for (int i = 0; i < candidates.size(); i++) {
+                URI uri = candidates.get(i);
+                URI alternative = i + 1 < candidates.size() ? candidates.get(i + 1) : null;
+                // The host permit is taken first, so a task waiting for a busy host does not hold
+                // a lane slot that downloads from other hosts could use
+                String host = HOST_LIMITER.acquire(uri);
                 try {
-                    if (NetworkUtils.isHttpUri(uri))
-                        downloadHttp(uri, checkETag);
-                    else
-                        downloadNotHttp(uri);
-                    return;
-                } catch (DownloadException e) {
-                    if (exceptions == null)
-                        exceptions = new ArrayList<>();
-                    exceptions.add(e);
+                    if (lane.semaphore != null)
+                        lane.semaphore.acquire();
+                    try {
+                        if (NetworkUtils.isHttpUri(uri))
+                            downloadHttp(uri, alternative != null && NetworkUtils.isHttpUri(alternative) ? alternative : null, checkETag);
+                        else
+                            downloadNotHttp(uri);
+                        return;
+                    } catch (DownloadException e) {
+                        if (exceptions == null)
+                            exceptions = new ArrayList<>();
+                        exceptions.add(e);
+                    } finally {
+                        if (lane.semaphore != null)
+                            lane.semaphore.release();
+                    }
+                } finally {
+                    HOST_LIMITER.release(host);
                 }
             }
         } catch (InterruptedException ignored) {
             // Cancelled
-        } finally {
-            if (SEMAPHORE != null)
-                SEMAPHORE.release();
         }
 
         if (exceptions != null) {
@@ -181,6 +230,11 @@ public abstract class FetchTask<T> extends Task<T> {
         }
 
         boolean canResume(int statusCode, UrlResponseInfo response) throws IOException {
+            return canAcceptRange(statusCode, response, countUncompressed, contentLength - 1);
+        }
+
+        /// Checks whether a partial response carries exactly the bytes `[start, end]` of the original entity.
+        boolean canAcceptRange(int statusCode, UrlResponseInfo response, long start, long end) throws IOException {
             if (statusCode != HttpURLConnection.HTTP_PARTIAL)
                 return false;
 
@@ -189,7 +243,7 @@ public abstract class FetchTask<T> extends Task<T> {
                 return false;
 
             long contentLength = response.headers().firstValueAsLong("content-length").orElse(-1L);
-            if (this.contentLength != contentLength + this.countUncompressed)
+            if (end - start + 1 != contentLength)
                 return false;
 
             if (strongETag != null) {
@@ -211,14 +265,9 @@ public abstract class FetchTask<T> extends Task<T> {
                 return false;
 
             try {
-                long start = Long.parseLong(matcher.group(1));
-                long end = Long.parseLong(matcher.group(2));
-                long total = Long.parseLong(matcher.group(3));
-
-                if (start != countUncompressed || end < start || total != this.contentLength)
-                    return false;
-
-                return end - start + 1 == contentLength;
+                return Long.parseLong(matcher.group(1)) == start
+                        && Long.parseLong(matcher.group(2)) == end
+                        && Long.parseLong(matcher.group(3)) == this.contentLength;
             } catch (NumberFormatException e) {
                 return false;
             }
@@ -229,11 +278,13 @@ public abstract class FetchTask<T> extends Task<T> {
         }
     }
 
-    private void download(Context context,
+    /// @return the number of bytes read from the input
+    private long download(Context context,
                           @Nullable FetchTask.HttpResumeContext resume, InputStream inputStream,
                           long contentLength,
                           ContentEncoding contentEncoding) throws IOException, InterruptedException {
         boolean success = false;
+        long downloaded;
         try (var counter = new CounterInputStream(inputStream);
              var input = contentEncoding.wrap(counter)) {
             long lastDownloaded = 0L;
@@ -248,6 +299,7 @@ public abstract class FetchTask<T> extends Task<T> {
                     context.write(buffer, 0, len);
                 } catch (Throwable e) {
                     context.broken = true;
+                    context.failedLocally = true;
                     throw e;
                 }
 
@@ -260,6 +312,7 @@ public abstract class FetchTask<T> extends Task<T> {
                 }
 
                 updateDownloadSpeed(counter.downloaded - lastDownloaded);
+                BANDWIDTH_LIMITER.acquire(counter.downloaded - lastDownloaded);
                 lastDownloaded = counter.downloaded;
             }
 
@@ -272,14 +325,20 @@ public abstract class FetchTask<T> extends Task<T> {
                 throw new IOException("Unexpected file size: " + counter.downloaded + ", expected: " + contentLength);
 
             success = true;
+            downloaded = counter.downloaded;
         }
 
         if (success) {
             context.withResult(true);
         }
+        return downloaded;
     }
 
-    private void downloadHttp(URI uri, boolean checkETag) throws DownloadException, InterruptedException {
+    /// Downloads from `uri`, retrying it until it succeeds, the retries run out, or its host is degraded.
+    ///
+    /// @param alternative the next candidate, which also receives the first request if `uri` is slow to respond,
+    ///                    or `null` if there is no other HTTP candidate
+    private void downloadHttp(URI uri, @Nullable URI alternative, boolean checkETag) throws DownloadException, InterruptedException {
         if (checkETag) {
             // Handle cache
             try {
@@ -305,11 +364,16 @@ public abstract class FetchTask<T> extends Task<T> {
                 }
 
                 List<URI> redirects = null;
+                // The candidate whose host answered, which is `alternative` if the hedged request won
+                URI servingURI = uri;
+                boolean holdsAlternativePermit = false;
+                // Failures of the local file say nothing about the health of the mirror
+                boolean localFailure = false;
                 try {
                     beforeDownload(uri);
                     updateProgress(0);
 
-                    HttpURLConnection connection = null;
+                    HttpResponse<InputStream> response = null;
                     UrlResponseInfo responseInfo;
                     String bmclapiHash;
                     int responseCode;
@@ -327,13 +391,27 @@ public abstract class FetchTask<T> extends Task<T> {
                         headers.put("if-range", resumeContext.ifRange());
                     }
 
+                    // Conditional and range requests are tied to the state of this URI, so only plain requests are hedged
+                    boolean hedge = alternative != null && headers.size() == 1;
+                    long requestStart = System.nanoTime();
                     do {
-                        connection = NetworkUtils.createHttpConnection(currentURI);
-                        boolean keepConnection = false;
+                        if (hedge && redirects == null) {
+                            response = sendHedged(uri, alternative, headers);
+                            if (!response.request().uri().equals(uri)) {
+                                holdsAlternativePermit = true;
+                                MirrorHealth.recordLatency(uri, System.nanoTime() - requestStart);
+                                servingURI = alternative;
+                                currentURI = alternative;
+                            }
+                        } else {
+                            HttpRequest.Builder request = NetworkUtils.createHttpRequest(currentURI);
+                            headers.forEach(request::header);
+                            response = send(request.build());
+                        }
+                        boolean keepResponse = false;
                         try {
-                            headers.forEach(connection::setRequestProperty);
-                            responseCode = connection.getResponseCode();
-                            responseInfo = UrlResponseInfo.of(connection);
+                            responseCode = response.statusCode();
+                            responseInfo = UrlResponseInfo.of(response);
 
                             bmclapiHash = responseInfo.headers().firstValue("x-bmclapi-hash").orElse(null);
                             if (DigestUtils.isSha1Digest(bmclapiHash)) {
@@ -352,7 +430,7 @@ public abstract class FetchTask<T> extends Task<T> {
                                     throw new IOException("Too much redirects");
                                 }
 
-                                String location = connection.getHeaderField("Location");
+                                String location = response.headers().firstValue("location").orElse(null);
                                 if (StringUtils.isBlank(location))
                                     throw new IOException("Redirected to an empty location");
 
@@ -364,17 +442,18 @@ public abstract class FetchTask<T> extends Task<T> {
 
                                 currentURI = target;
                             } else {
-                                keepConnection = true;
+                                keepResponse = true;
                                 break;
                             }
                         } finally {
-                            if (!keepConnection && connection != null) {
-                                closeHttpConnection(connection);
-                                connection = null;
+                            if (!keepResponse) {
+                                IOUtils.closeQuietly(response.body());
+                                response = null;
                             }
                         }
                     } while (true);
 
+                    long ttfb = System.nanoTime() - requestStart;
                     InputStream inputStream = null;
                     boolean responseBodyConsumed = false;
                     try {
@@ -392,6 +471,7 @@ public abstract class FetchTask<T> extends Task<T> {
                                 Path cache = repository.getCachedRemoteFile(responseInfo.uri(), false);
                                 useCachedResult(cache);
                                 LOG.info("Using cached file for " + NetworkUtils.dropQuery(uri));
+                                MirrorHealth.recordSuccess(servingURI, ttfb, 0L, 0L);
                                 return;
                             } catch (CacheRepository.CacheExpiredException e) {
                                 LOG.info("Cache expired for " + NetworkUtils.dropQuery(uri));
@@ -413,10 +493,7 @@ public abstract class FetchTask<T> extends Task<T> {
                         long contentLength = responseInfo.headers().firstValueAsLong("content-length").orElse(-1L);
                         var contentEncoding = ContentEncoding.fromHeaders(responseInfo.headers());
 
-                        if (context == null) {
-                            context = getContext(responseInfo, checkETag, bmclapiHash);
-                            resumeContext = HttpResumeContext.of(responseInfo);
-                        } else if (resumeRequested) {
+                        if (context != null && resumeRequested) {
                             if (resumeContext.canResume(responseCode, responseInfo)) {
                                 // Resume download
                                 LOG.info("Resuming " + resumeContext.uri + " from " + resumeContext.countUncompressed);
@@ -430,19 +507,48 @@ public abstract class FetchTask<T> extends Task<T> {
                             }
                         } else {
                             discardContext(context);
-                            context = getContext(responseInfo, checkETag, bmclapiHash);
+                            context = null;
+                            try {
+                                context = getContext(responseInfo, checkETag, bmclapiHash);
+                            } catch (IOException | RuntimeException e) {
+                                localFailure = true;
+                                throw e;
+                            }
                             resumeContext = HttpResumeContext.of(responseInfo);
                         }
 
+                        int segmentCount = resumeRequested || segmentedDownloadFailed
+                                ? 1
+                                : getSegmentCount(context, resumeContext, contentLength);
+
+                        long transferStart = System.nanoTime();
+                        long transferred;
                         try {
-                            inputStream = connection.getInputStream();
-                            download(context,
-                                    resumeContext, inputStream,
-                                    contentLength,
-                                    contentEncoding);
-                            inputStream = null;
-                            responseBodyConsumed = true;
+                            inputStream = new ReadTimeoutInputStream(response.body());
+                            if (segmentCount > 1) {
+                                try {
+                                    downloadSegmented(context, resumeContext, inputStream, segmentCount);
+                                    transferred = resumeContext.contentLength;
+                                } catch (IOException e) {
+                                    // Fall back to a single resumable connection on the next attempt
+                                    segmentedDownloadFailed = true;
+                                    context.broken = true;
+                                    throw e;
+                                }
+                                // The first response was only read up to the end of the first segment,
+                                // so its stream is cancelled instead of being drained.
+                                inputStream = null;
+                            } else {
+                                transferred = download(context,
+                                        resumeContext, inputStream,
+                                        contentLength,
+                                        contentEncoding);
+                                inputStream = null;
+                                responseBodyConsumed = true;
+                            }
                         } catch (IOException | InterruptedException | RuntimeException | Error e) {
+                            if (context.failedLocally)
+                                localFailure = true;
                             if (context.broken) {
                                 IOUtils.closeQuietly(context, e);
                                 context = null;
@@ -453,6 +559,8 @@ public abstract class FetchTask<T> extends Task<T> {
                         try {
                             context.close();
                         } catch (IOException | RuntimeException | Error e) {
+                            // Verifying or moving the downloaded file failed
+                            localFailure = true;
                             context.withResult(false);
                             IOUtils.closeQuietly(context, e);
                             context = null;
@@ -460,11 +568,12 @@ public abstract class FetchTask<T> extends Task<T> {
                             throw e;
                         }
                         context = null;
+                        MirrorHealth.recordSuccess(servingURI, ttfb, transferred, System.nanoTime() - transferStart);
                         return;
                     } finally {
                         IOUtils.closeQuietly(inputStream);
-                        if (connection != null && !responseBodyConsumed)
-                            closeHttpConnection(connection);
+                        if (!responseBodyConsumed)
+                            IOUtils.closeQuietly(response.body());
                     }
                 } catch (InterruptedException e) {
                     throw e;
@@ -479,10 +588,20 @@ public abstract class FetchTask<T> extends Task<T> {
 
                     LOG.warning("Failed to download " + uri + ", repeat times: " + retryTime + (redirects == null ? "" : ", redirects: " + redirects), ex);
 
+                    if (!localFailure)
+                        MirrorHealth.recordFailure(servingURI);
+                    if (alternative != null && MirrorHealth.isDegraded(uri)) {
+                        LOG.info("Skipping remaining retries of degraded host " + uri.getHost());
+                        break;
+                    }
+
                     if (retryTime < retryLimit - 1) {
                         // Wait for a while before retrying
                         Thread.sleep(200);
                     }
+                } finally {
+                    if (holdsAlternativePermit)
+                        HOST_LIMITER.release(alternative);
                 }
             }
         } finally {
@@ -498,10 +617,160 @@ public abstract class FetchTask<T> extends Task<T> {
         throw toDownloadException(uri, null, exceptions);
     }
 
-    /// Disconnects an HTTP URL connection whose response body will not be consumed.
-    private static void closeHttpConnection(HttpURLConnection connection) {
-        IOUtils.closeQuietly(connection.getErrorStream());
-        connection.disconnect();
+    /// Returns how many byte ranges the response body should be split into, or 1 for a single stream.
+    private int getSegmentCount(Context context, @Nullable HttpResumeContext resumeContext, long contentLength) {
+        if (segments <= 1 || resumeContext == null || !context.isRandomAccessSupported()
+                || contentLength < SEGMENTED_DOWNLOAD_THRESHOLD)
+            return 1;
+
+        return (int) Math.min(segments, contentLength / MIN_SEGMENT_SIZE);
+    }
+
+    /// Downloads the response body as `segmentCount` byte ranges in parallel.
+    ///
+    /// The first range is read from the response that is already open,
+    /// the remaining ranges are requested with `Range` and `If-Range` headers on separate connections.
+    /// Every range is written to the context at its own offset, so the context must support random access.
+    /// All ranges are copied on I/O threads while the calling thread reports progress and speed.
+    ///
+    /// Each extra connection needs a permit of the [HostLimiter]. Fewer ranges are used if the host has fewer
+    /// permits left, down to reading the whole body from the open response.
+    private void downloadSegmented(Context context, HttpResumeContext resume, InputStream firstResponse,
+                                   int segmentCount) throws IOException, InterruptedException {
+        // Set once a range has started or was abandoned, whichever comes first, so that its permit is released once
+        List<AtomicBoolean> permits = new ArrayList<>(segmentCount - 1);
+        while (permits.size() < segmentCount - 1 && HOST_LIMITER.tryAcquire(resume.uri)) {
+            permits.add(new AtomicBoolean());
+        }
+        segmentCount = permits.size() + 1;
+
+        long contentLength = resume.contentLength;
+        long segmentSize = contentLength / segmentCount;
+        AtomicLong downloaded = new AtomicLong();
+
+        if (segmentCount > 1)
+            LOG.info("Downloading " + NetworkUtils.dropQuery(resume.uri) + " in " + segmentCount + " segments");
+
+        List<Future<?>> futures = new ArrayList<>(segmentCount);
+        boolean success = false;
+        try {
+            long firstSegmentSize = segmentSize;
+            futures.add(Schedulers.io().submit(() -> {
+                try (InputStream input = firstResponse) {
+                    copyRange(context, input, 0, firstSegmentSize, downloaded);
+                }
+                return null;
+            }));
+
+            for (int i = 1; i < segmentCount; i++) {
+                long start = i * segmentSize;
+                long end = i == segmentCount - 1 ? contentLength - 1 : start + segmentSize - 1;
+                AtomicBoolean permit = permits.get(i - 1);
+                futures.add(Schedulers.io().submit(() -> {
+                    if (!permit.compareAndSet(false, true))
+                        return null;
+                    try {
+                        downloadRange(context, resume, start, end, downloaded);
+                    } finally {
+                        HOST_LIMITER.release(resume.uri);
+                    }
+                    return null;
+                }));
+            }
+
+            long lastDownloaded = 0;
+            for (Future<?> future : futures) {
+                while (true) {
+                    if (isCancelled())
+                        throw new InterruptedException();
+
+                    try {
+                        future.get(200, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException ignored) {
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof IOException ioException)
+                            throw ioException;
+                        if (cause instanceof InterruptedException interruptedException)
+                            throw interruptedException;
+                        throw new IOException("Failed to download segment", cause);
+                    }
+
+                    long current = downloaded.get();
+                    updateProgress(current, contentLength);
+                    updateDownloadSpeed(current - lastDownloaded);
+                    lastDownloaded = current;
+                }
+            }
+            updateProgress(downloaded.get(), contentLength);
+            updateDownloadSpeed(downloaded.get() - lastDownloaded);
+
+            if (downloaded.get() != contentLength)
+                throw new IOException("Unexpected file size: " + downloaded.get() + ", expected: " + contentLength);
+
+            success = true;
+        } finally {
+            if (!success) {
+                for (AtomicBoolean permit : permits) {
+                    if (permit.compareAndSet(false, true))
+                        HOST_LIMITER.release(resume.uri);
+                }
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        context.withResult(true);
+    }
+
+    /// Requests the bytes `[start, end]` of the resumable entity and writes them to the context at `start`.
+    private void downloadRange(Context context, HttpResumeContext resume,
+                               long start, long end, AtomicLong downloaded) throws IOException, InterruptedException {
+        HttpRequest request = NetworkUtils.createHttpRequest(resume.uri)
+                .header("range", "bytes=" + start + "-" + end)
+                .header("if-range", resume.ifRange())
+                // Mirrors usually throttle per connection, so the ranges must not be multiplexed into one HTTP/2 connection
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        HttpResponse<InputStream> response = send(request);
+        try (InputStream input = new ReadTimeoutInputStream(response.body())) {
+            if (!resume.canAcceptRange(response.statusCode(), UrlResponseInfo.of(response), start, end))
+                throw new IOException("Server rejected range " + start + "-" + end + " of " + resume.uri + ", response code: " + response.statusCode());
+
+            copyRange(context, input, start, end - start + 1, downloaded);
+        }
+    }
+
+    /// Copies exactly `length` bytes from the input to the context starting at `position`.
+    ///
+    /// Progress is only added to `downloaded`, [#downloadSegmented] reports it for all ranges together.
+    private void copyRange(Context context, InputStream input, long position, long length,
+                           AtomicLong downloaded) throws IOException, InterruptedException {
+        byte[] buffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            if (isCancelled() || Thread.currentThread().isInterrupted())
+                throw new InterruptedException();
+
+            int len = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (len == -1)
+                throw new IOException("Unexpected end of segment at " + (length - remaining) + ", expected: " + length);
+
+            try {
+                context.write(position, buffer, 0, len);
+            } catch (Throwable e) {
+                context.failedLocally = true;
+                throw e;
+            }
+            position += len;
+            remaining -= len;
+            BANDWIDTH_LIMITER.acquire(len);
+
+            downloaded.addAndGet(len);
+        }
     }
 
     private static void discardContext(@Nullable Context context) {
@@ -565,22 +834,378 @@ public abstract class FetchTask<T> extends Task<T> {
     }
 
     private static final Timer timer = new Timer("DownloadSpeedRecorder", true);
-    private static final AtomicLong downloadSpeed = new AtomicLong(0L);
+    private static final AtomicLongArray downloadSpeed = new AtomicLongArray(DownloadPriority.values().length);
     public static final EventManager<SpeedEvent> SPEED_EVENT = EventBus.EVENT_BUS.channel(SpeedEvent.class);
 
     static {
         timer.schedule(new TimerTask() {
             @Override
             public void run() {
-                SPEED_EVENT.fireEvent(new SpeedEvent(SPEED_EVENT, downloadSpeed.getAndSet(0)));
+                long normal = downloadSpeed.getAndSet(DownloadPriority.NORMAL.ordinal(), 0);
+                long background = downloadSpeed.getAndSet(DownloadPriority.BACKGROUND.ordinal(), 0);
+                SPEED_EVENT.fireEvent(new SpeedEvent(SPEED_EVENT, normal + background, background, BANDWIDTH_LIMITER.getLimit()));
             }
         }, 0, 1000);
     }
 
-    private static void updateDownloadSpeed(long speed) {
-        downloadSpeed.addAndGet(speed);
+    private void updateDownloadSpeed(long speed) {
+        downloadSpeed.addAndGet(priority.ordinal(), speed);
+    }
+
+    //region HTTP transport
+
+    private static final AtomicLong requestCount = new AtomicLong();
+    private static final AtomicLong failedRequestCount = new AtomicLong();
+    private static final AtomicLong http2ResponseCount = new AtomicLong();
+    private static final AtomicInteger pendingRequestCount = new AtomicInteger();
+    private static final AtomicLong socksRequestCount = new AtomicLong();
+
+    private static final class HttpClientHolder {
+        private static final HttpClient HTTP_CLIENT;
+
+        static {
+            boolean useHttp2 = !"false".equalsIgnoreCase(System.getProperty("hmcl.http2"));
+
+            // The proxy and authenticator may be replaced after the client is built, so they are resolved on every request.
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(useHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(NetworkUtils.TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .proxy(new ProxySelector() {
+                        @Override
+                        public List<Proxy> select(URI uri) {
+                            ProxySelector proxySelector = ProxySelector.getDefault();
+                            return proxySelector != null ? proxySelector.select(uri) : List.of(Proxy.NO_PROXY);
+                        }
+
+                        @Override
+                        public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+                            ProxySelector proxySelector = ProxySelector.getDefault();
+                            if (proxySelector != null)
+                                proxySelector.connectFailed(uri, sa, ioe);
+                        }
+                    })
+                    .authenticator(new Authenticator() {
+                        @Override
+                        protected PasswordAuthentication getPasswordAuthentication() {
+                            Authenticator authenticator = Authenticator.getDefault();
+                            return authenticator != null
+                                    ? authenticator.requestPasswordAuthenticationInstance(
+                                    getRequestingHost(), getRequestingSite(), getRequestingPort(),
+                                    getRequestingProtocol(), getRequestingPrompt(), getRequestingScheme(),
+                                    getRequestingURL(), getRequestorType())
+                                    : null;
+                        }
+                    })
+                    .executor(Schedulers.io());
+
+            HTTP_CLIENT = builder.build();
+        }
+    }
+
+    /// Returns the HTTP client shared by all fetch tasks.
+    ///
+    /// The client keeps connections alive between tasks, and requests to HTTP/2 servers are multiplexed
+    /// over a single connection. HTTP/2 can be disabled with the system property `hmcl.http2=false`.
+    ///
+    /// [HttpClient] ignores SOCKS proxies and connects directly instead, so fetch tasks send requests
+    /// for which the proxy selector returns a SOCKS proxy through [HttpURLConnection].
+    public static HttpClient getHttpClient() {
+        return HttpClientHolder.HTTP_CLIENT;
     }
 
+    /// Returns statistics of the requests sent by fetch tasks.
+    ///
+    /// [HttpClient] does not expose its connection pool, so how often connections are reused is not reported.
+    public static TransportStatistics getTransportStatistics() {
+        return new TransportStatistics(
+                requestCount.get(),
+                pendingRequestCount.get(),
+                failedRequestCount.get(),
+                http2ResponseCount.get(),
+                socksRequestCount.get());
+    }
+
+    /// Whether the proxy selector routes requests to `uri` through a SOCKS proxy.
+    static boolean usesSocksProxy(URI uri) {
+        ProxySelector proxySelector = ProxySelector.getDefault();
+        if (proxySelector == null)
+            return false;
+
+        List<Proxy> proxies;
+        try {
+            proxies = proxySelector.select(uri);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (proxies == null)
+            return false;
+        for (Proxy proxy : proxies) {
+            if (proxy.type() == Proxy.Type.SOCKS)
+                return true;
+        }
+        return false;
+    }
+
+    private static HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        boolean socks = usesSocksProxy(request.uri());
+        requestCount.incrementAndGet();
+        pendingRequestCount.incrementAndGet();
+        try {
+            HttpResponse<InputStream> response;
+            if (socks) {
+                socksRequestCount.incrementAndGet();
+                response = sendThroughConnection(request);
+            } else {
+                response = getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+            }
+            if (response.version() == HttpClient.Version.HTTP_2)
+                http2ResponseCount.incrementAndGet();
+            return response;
+        } catch (IOException e) {
+            failedRequestCount.incrementAndGet();
+            throw e;
+        } finally {
+            pendingRequestCount.decrementAndGet();
+        }
+    }
+
+    /// Sends the request on another thread like [#send(HttpRequest)].
+    ///
+    /// Cancelling the returned future aborts the exchange if it is still in progress.
+    /// A response that arrives after the future was cancelled is closed.
+    private static CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        if (usesSocksProxy(request.uri())) {
+            // HttpURLConnection cannot be aborted, so only its response is closed
+            CompletableFuture<HttpResponse<InputStream>> future = new CompletableFuture<>();
+            Schedulers.io().execute(() -> {
+                try {
+                    HttpResponse<InputStream> response = send(request);
+                    if (!future.complete(response))
+                        IOUtils.closeQuietly(response.body());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+
+        requestCount.incrementAndGet();
+        pendingRequestCount.incrementAndGet();
+        // Keep the future of the client, whose cancellation aborts the exchange, unlike the dependent stages
+        CompletableFuture<HttpResponse<InputStream>> future = getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        future.whenComplete((response, exception) -> {
+            pendingRequestCount.decrementAndGet();
+            if (exception != null)
+                failedRequestCount.incrementAndGet();
+            else if (response.version() == HttpClient.Version.HTTP_2)
+                http2ResponseCount.incrementAndGet();
+        });
+        return future;
+    }
+
+    /// Sends a GET request through [HttpURLConnection], which honors SOCKS proxies.
+    private static HttpResponse<InputStream> sendThroughConnection(HttpRequest request) throws IOException {
+        HttpURLConnection connection;
+        try {
+            connection = (HttpURLConnection) request.uri().toURL().openConnection();
+        } catch (IllegalArgumentException | MalformedURLException e) {
+            throw new IOException(e);
+        }
+        int timeout = (int) request.timeout().orElse(NetworkUtils.TIMEOUT).toMillis();
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.setInstanceFollowRedirects(false);
+        request.headers().map().forEach((name, values) -> {
+            for (String value : values) {
+                connection.addRequestProperty(name, value);
+            }
+        });
+
+        UrlResponseInfo info = UrlResponseInfo.of(connection);
+        InputStream body = info.responseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        return new ConnectionResponse(request, info, body != null ? body : InputStream.nullInputStream());
+    }
+
+    /// A response received through [HttpURLConnection].
+    private record ConnectionResponse(HttpRequest request, UrlResponseInfo info, InputStream body) implements HttpResponse<InputStream> {
+        @Override
+        public int statusCode() {
+            return info.responseCode();
+        }
+
+        @Override
+        public Optional<HttpResponse<InputStream>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return info.headers();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+
+    /// Sends a request to `uri`, and if its response headers do not arrive within the hedge delay of its host,
+    /// sends the same request to `alternative` too. Returns the first response, the other request is cancelled.
+    ///
+    /// The request to `alternative` is only sent if its host is below the per-host limit. If the response comes
+    /// from `alternative`, the caller must release its host permit with [HostLimiter#release(URI)].
+    ///
+    /// Only fails if both requests fail.
+    private static HttpResponse<InputStream> sendHedged(URI uri, URI alternative, Map<String, String> headers) throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<InputStream>> primary = sendAsync(buildRequest(uri, headers));
+        long delay = MirrorHealth.getHedgeDelayMillis(uri);
+        try {
+            return primary.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ignored) {
+        } catch (ExecutionException e) {
+            throw unwrapSendException(e);
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            throw e;
+        }
+
+        if (!HOST_LIMITER.tryAcquire(alternative)) {
+            try {
+                return primary.get();
+            } catch (ExecutionException e) {
+                throw unwrapSendException(e);
+            } finally {
+                primary.cancel(true);
+            }
+        }
+
+        LOG.info("No response from " + NetworkUtils.dropQuery(uri) + " in " + delay + " ms, also requesting " + NetworkUtils.dropQuery(alternative));
+        CompletableFuture<HttpResponse<InputStream>> secondary = sendAsync(buildRequest(alternative, headers));
+
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<HttpResponse<InputStream>, Throwable> handler = (response, exception) -> {
+            if (exception == null) {
+                // The loser may still complete before it is cancelled
+                if (!winner.complete(response))
+                    IOUtils.closeQuietly(response.body());
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(exception);
+            }
+        };
+        primary.whenComplete(handler);
+        secondary.whenComplete(handler);
+
+        boolean alternativeWon = false;
+        try {
+            HttpResponse<InputStream> response = winner.get();
+            alternativeWon = response.request().uri().equals(alternative);
+            return response;
+        } catch (ExecutionException e) {
+            throw unwrapSendException(e);
+        } finally {
+            primary.cancel(true);
+            secondary.cancel(true);
+            if (!alternativeWon)
+                HOST_LIMITER.release(alternative);
+        }
+    }
+
+    private static HttpRequest buildRequest(URI uri, Map<String, String> headers) {
+        HttpRequest.Builder request = NetworkUtils.createHttpRequest(uri);
+        headers.forEach(request::header);
+        return request.build();
+    }
+
+    private static IOException unwrapSendException(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CompletionException && cause.getCause() != null)
+            cause = cause.getCause();
+        return cause instanceof IOException ioException ? ioException : new IOException(cause);
+    }
+
+    /// @param requests        the number of requests sent, including redirects and range requests
+    /// @param pendingRequests the number of requests still waiting for response headers
+    /// @param failedRequests  the number of requests that failed before response headers arrived
+    /// @param http2Responses  the number of responses received over HTTP/2, the rest used HTTP/1.1
+    /// @param socksRequests   the number of requests sent through [HttpURLConnection] because of a SOCKS proxy
+    public record TransportStatistics(long requests, int pendingRequests, long failedRequests, long http2Responses,
+                                      long socksRequests) {
+    }
+
+    private static final Set<ReadTimeoutInputStream> activeStreams = ConcurrentHashMap.newKeySet();
+
+    static {
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                long deadline = System.nanoTime() - NetworkUtils.TIMEOUT.toNanos();
+                for (ReadTimeoutInputStream stream : activeStreams) {
+                    if (stream.lastRead - deadline < 0) {
+                        stream.timeout();
+                    }
+                }
+            }
+        }, 1000, 1000);
+    }
+
+    /// [HttpClient] only applies its timeout until the response headers arrive,
+    /// so response bodies are closed by a watchdog when no bytes have been received for [NetworkUtils#TIMEOUT].
+    private static final class ReadTimeoutInputStream extends FilterInputStream {
+        volatile long lastRead = System.nanoTime();
+        private volatile boolean timedOut = false;
+
+        ReadTimeoutInputStream(InputStream in) {
+            super(in);
+            activeStreams.add(this);
+        }
+
+        void timeout() {
+            timedOut = true;
+            IOUtils.closeQuietly(this);
+        }
+
+        private void checkTimeout() throws SocketTimeoutException {
+            if (timedOut)
+                throw new SocketTimeoutException("Read timed out");
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            checkTimeout();
+            lastRead = System.nanoTime();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            checkTimeout();
+            lastRead = System.nanoTime();
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            activeStreams.remove(this);
+            super.close();
+        }
+    }
+
+    //endregion HTTP transport
+
     private static final class CounterInputStream extends FilterInputStream {
         long downloaded;
 
@@ -607,11 +1232,19 @@ public abstract class FetchTask<T> extends Task<T> {
 
     public static class SpeedEvent extends Event {
         private final long speed;
+        private final long backgroundSpeed;
+        private final long limit;
 
         public SpeedEvent(Object source, long speed) {
+            this(source, speed, 0L, 0L);
+        }
+
+        public SpeedEvent(Object source, long speed, long backgroundSpeed, long limit) {
             super(source);
 
             this.speed = speed;
+            this.backgroundSpeed = backgroundSpeed;
+            this.limit = limit;
         }
 
         /**
@@ -623,15 +1256,36 @@ public abstract class FetchTask<T> extends Task<T> {
             return speed;
         }
 
+        /// The part of [#getSpeed()] spent on [DownloadPriority#BACKGROUND] downloads, in byte/sec.
+        public long getBackgroundSpeed() {
+            return backgroundSpeed;
+        }
+
+        /// The part of [#getSpeed()] spent on [DownloadPriority#NORMAL] downloads, in byte/sec.
+        public long getForegroundSpeed() {
+            return speed - backgroundSpeed;
+        }
+
+        /// The global bandwidth limit in byte/sec, or 0 if unlimited.
+        public long getLimit() {
+            return limit;
+        }
+
         @Override
         public String toString() {
-            return new ToStringBuilder(this).append("speed", speed).toString();
+            return new ToStringBuilder(this)
+                    .append("speed", speed)
+                    .append("backgroundSpeed", backgroundSpeed)
+                    .append("limit", limit)
+                    .toString();
         }
     }
 
     protected static abstract class Context implements Closeable {
         private boolean success;
         private boolean broken;
+        /// Set when writing to the local file failed, may be set from the threads copying byte ranges.
+        private volatile boolean failedLocally;
 
         protected final boolean isSuccess() {
             return success;
@@ -645,6 +1299,19 @@ public abstract class FetchTask<T> extends Task<T> {
 
         public abstract void write(byte[] buffer, int offset, int len) throws IOException;
 
+        /// Whether [#write(long, byte\[\], int, int)] is supported.
+        ///
+        /// Contexts that support random access may receive several byte ranges concurrently,
+        /// so they must not derive anything from the order of the writes.
+        public boolean isRandomAccessSupported() {
+            return false;
+        }
+
+        /// Writes bytes at the given position of the content. May be called concurrently from several threads.
+        public void write(long position, byte[] buffer, int offset, int len) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public abstract void close() throws IOException;
     }
@@ -659,61 +1326,228 @@ public abstract class FetchTask<T> extends Task<T> {
     public static int DEFAULT_CONCURRENCY = Math.min(Runtime.getRuntime().availableProcessors() * 4, 64);
     private static int downloadExecutorConcurrency = DEFAULT_CONCURRENCY;
 
-    // For Java 21 or later, DOWNLOAD_EXECUTOR dispatches tasks to virtual threads, and concurrency is controlled by SEMAPHORE.
-    // For versions earlier than Java 21, DOWNLOAD_EXECUTOR is a ThreadPoolExecutor, SEMAPHORE is null, and concurrency is controlled by the thread pool size.
+    private static int backgroundConcurrency(int concurrency) {
+        return Math.max(2, concurrency / 4);
+    }
 
-    private static final ExecutorService DOWNLOAD_EXECUTOR;
-    private static final @Nullable Semaphore SEMAPHORE;
+    /// A pool of download slots.
+    ///
+    /// For Java 21 or later, the executor dispatches tasks to virtual threads, and concurrency is controlled by the semaphore.
+    /// For versions earlier than Java 21, the executor is a ThreadPoolExecutor, the semaphore is null, and concurrency is controlled by the thread pool size.
+    private static final class DownloadLane {
+        final ExecutorService executor;
+        final @Nullable Semaphore semaphore;
+        private int concurrency;
+
+        DownloadLane(String name, int concurrency) {
+            this.concurrency = concurrency;
+            ExecutorService executorService = Schedulers.newVirtualThreadPerTaskExecutor(name);
+            if (executorService != null) {
+                this.executor = executorService;
+                this.semaphore = new Semaphore(concurrency);
+            } else {
+                this.executor = threadPool(name, true, concurrency, 10, TimeUnit.SECONDS);
+                this.semaphore = null;
+            }
+        }
 
-    static {
-        ExecutorService executorService = Schedulers.newVirtualThreadPerTaskExecutor("Download");
-        if (executorService != null) {
-            DOWNLOAD_EXECUTOR = executorService;
-            SEMAPHORE = new Semaphore(DEFAULT_CONCURRENCY);
-        } else {
-            DOWNLOAD_EXECUTOR = threadPool("Download", true, downloadExecutorConcurrency, 10, TimeUnit.SECONDS);
-            SEMAPHORE = null;
+        void setConcurrency(int concurrency) {
+            int change = concurrency - this.concurrency;
+            if (change == 0)
+                return;
+
+            this.concurrency = concurrency;
+            if (semaphore != null) {
+                if (change > 0) {
+                    semaphore.release(change);
+                } else {
+                    int permits = -change;
+                    if (!semaphore.tryAcquire(permits)) {
+                        Schedulers.io().execute(() -> {
+                            try {
+                                for (int i = 0; i < permits; i++) {
+                                    semaphore.acquire();
+                                }
+                            } catch (InterruptedException e) {
+                                throw new AssertionError("Unreachable", e);
+                            }
+                        });
+                    }
+                }
+            } else {
+                var threadPool = (ThreadPoolExecutor) executor;
+
+                if (threadPool.getMaximumPoolSize() <= concurrency) {
+                    threadPool.setMaximumPoolSize(concurrency);
+                    threadPool.setCorePoolSize(concurrency);
+                } else {
+                    threadPool.setCorePoolSize(concurrency);
+                    threadPool.setMaximumPoolSize(concurrency);
+                }
+            }
         }
     }
 
-    @FXThread
-    public static void setDownloadExecutorConcurrency(int concurrency) {
-        concurrency = Math.max(concurrency, 1);
+    private static final DownloadLane NORMAL_LANE = new DownloadLane("Download", DEFAULT_CONCURRENCY);
+    private static final DownloadLane BACKGROUND_LANE = new DownloadLane("Background Download", backgroundConcurrency(DEFAULT_CONCURRENCY));
 
-        int prevDownloadExecutorConcurrency = downloadExecutorConcurrency;
-        int change = concurrency - prevDownloadExecutorConcurrency;
-        if (change == 0)
-            return;
+    private static DownloadLane lane(DownloadPriority priority) {
+        return priority == DownloadPriority.BACKGROUND ? BACKGROUND_LANE : NORMAL_LANE;
+    }
 
-        downloadExecutorConcurrency = concurrency;
-        if (SEMAPHORE != null) {
-            if (change > 0) {
-                SEMAPHORE.release(change);
-            } else {
-                int permits = -change;
-                if (!SEMAPHORE.tryAcquire(permits)) {
-                    Schedulers.io().execute(() -> {
-                        try {
-                            for (int i = 0; i < permits; i++) {
-                                SEMAPHORE.acquire();
-                            }
-                        } catch (InterruptedException e) {
-                            throw new AssertionError("Unreachable", e);
-                        }
-                    });
+    /// Limits how many downloads may talk to the same host at once.
+    ///
+    /// Only enforced with virtual threads: a platform thread waiting for its host would hold a slot of the thread pool
+    /// that a download from another host could use.
+    private static final class HostLimiter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Integer> active = new HashMap<>();
+        private int limit = Integer.MAX_VALUE;
+
+        /// @return the key of the host of `uri`, or `null` if the host is not limited
+        private static @Nullable String key(URI uri) {
+            String host = uri.getHost();
+            if (host == null || NORMAL_LANE.semaphore == null)
+                return null;
+            return host.toLowerCase(Locale.ROOT);
+        }
+
+        /// @return the key to pass to [#release(String)], or `null` if the host is not limited
+        @Nullable String acquire(URI uri) throws InterruptedException {
+            String host = key(uri);
+            if (host == null)
+                return null;
+
+            lock.lock();
+            try {
+                while (active.getOrDefault(host, 0) >= limit) {
+                    released.await();
                 }
+                active.merge(host, 1, Integer::sum);
+                return host;
+            } finally {
+                lock.unlock();
             }
-        } else {
-            var downloadExecutor = (ThreadPoolExecutor) DOWNLOAD_EXECUTOR;
+        }
 
-            if (downloadExecutor.getMaximumPoolSize() <= concurrency) {
-                downloadExecutor.setMaximumPoolSize(concurrency);
-                downloadExecutor.setCorePoolSize(concurrency);
-            } else {
-                downloadExecutor.setCorePoolSize(concurrency);
-                downloadExecutor.setMaximumPoolSize(concurrency);
+        /// Takes a permit for the host of `uri` if it is not at its limit, without waiting.
+        ///
+        /// @return whether the request may be sent, in which case [#release(URI)] must be called afterward
+        boolean tryAcquire(URI uri) {
+            String host = key(uri);
+            if (host == null)
+                return true;
+
+            lock.lock();
+            try {
+                if (active.getOrDefault(host, 0) >= limit)
+                    return false;
+                active.merge(host, 1, Integer::sum);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(URI uri) {
+            release(key(uri));
+        }
+
+        void release(@Nullable String host) {
+            if (host == null)
+                return;
+
+            lock.lock();
+            try {
+                active.computeIfPresent(host, (key, count) -> count > 1 ? count - 1 : null);
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void setLimit(int limit) {
+            lock.lock();
+            try {
+                this.limit = limit;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /// A token bucket shared by all downloads, allowing bursts of up to one second of traffic.
+    private static final class BandwidthLimiter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long limit;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        long getLimit() {
+            return limit;
+        }
+
+        void setLimit(long bytesPerSecond) {
+            lock.lock();
+            try {
+                this.limit = Math.max(bytesPerSecond, 0L);
+                this.tokens = this.limit;
+                this.lastRefill = System.nanoTime();
+            } finally {
+                lock.unlock();
             }
         }
+
+        /// Takes `bytes` tokens, and sleeps until the bucket is no longer in debt.
+        void acquire(long bytes) throws InterruptedException {
+            if (limit <= 0 || bytes <= 0)
+                return;
+
+            long waitNanos;
+            lock.lock();
+            try {
+                long limit = this.limit;
+                if (limit <= 0)
+                    return;
+
+                long now = System.nanoTime();
+                tokens = Math.min(limit, tokens + (now - lastRefill) * (limit / 1e9));
+                lastRefill = now;
+                tokens -= bytes;
+                waitNanos = tokens < 0 ? (long) (-tokens * 1e9 / limit) : 0L;
+            } finally {
+                lock.unlock();
+            }
+
+            if (waitNanos > 0)
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private static final HostLimiter HOST_LIMITER = new HostLimiter();
+    private static final BandwidthLimiter BANDWIDTH_LIMITER = new BandwidthLimiter();
+
+    @FXThread
+    public static void setDownloadExecutorConcurrency(int concurrency) {
+        concurrency = Math.max(concurrency, 1);
+        if (concurrency == downloadExecutorConcurrency)
+            return;
+
+        downloadExecutorConcurrency = concurrency;
+        NORMAL_LANE.setConcurrency(concurrency);
+        BACKGROUND_LANE.setConcurrency(backgroundConcurrency(concurrency));
+    }
+
+    /// Sets how many downloads may connect to the same host at once. Only enforced on Java 21 or later.
+    public static void setHostConcurrency(int concurrency) {
+        HOST_LIMITER.setLimit(Math.max(concurrency, 1));
+    }
+
+    /// Sets the total download speed in byte/sec, or 0 to remove the limit.
+    public static void setBandwidthLimit(long bytesPerSecond) {
+        BANDWIDTH_LIMITER.setLimit(bytesPerSecond);
     }
 
     public static int getDownloadExecutorConcurrency() {
@@ -201,12 +201,16 @@ public class FileDownloadTask extends FetchTask<Void> {
                 StandardOpenOption.TRUNCATE_EXISTING,
                 StandardOpenOption.CREATE);
         return new Context() {
+            /// Set once any bytes are written out of order, the digest is then computed from the file on close.
+            private volatile boolean randomAccess = false;
+
             @Override
             public void reset() throws IOException {
                 if (digest != null) {
                     digest.reset();
                 }
 
+                randomAccess = false;
                 fileOutput.truncate(0L);
                 fileOutput.position(0L);
             }
@@ -224,6 +228,21 @@ public class FileDownloadTask extends FetchTask<Void> {
                 }
             }
 
+            @Override
+            public boolean isRandomAccessSupported() {
+                return true;
+            }
+
+            @Override
+            public void write(long position, byte[] buffer, int offset, int len) throws IOException {
+                randomAccess = true;
+
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, len);
+                while (byteBuffer.hasRemaining()) {
+                    position += fileOutput.write(byteBuffer, position);
+                }
+            }
+
             @Override
             public void close() throws IOException {
                 try {
@@ -246,7 +265,9 @@ public class FileDownloadTask extends FetchTask<Void> {
                     }
 
                     if (checksum != null && !checksum.isEmpty()) {
-                        String actualChecksum = HexFormat.of().formatHex(digest.digest());
+                        String actualChecksum = randomAccess
+                                ? DigestUtils.digestToString(algorithm, temp)
+                                : HexFormat.of().formatHex(digest.digest());
                         if (!checksum.equalsIgnoreCase(actualChecksum)) {
                             throw new ChecksumMismatchException(algorithm, checksum, actualChecksum);
                         }
@@ -0,0 +1,113 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.task;
+
+import org.jackhuang.hmcl.util.function.ExceptionalFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/// Runs a blocking per-item step, such as verifying local files, on [Schedulers#io()] with bounded parallelism.
+///
+/// Unlike submitting one task per item, at most [#DEFAULT_PARALLELISM] workers are started and they pull items
+/// from a shared cursor, so the disk is not flooded with thousands of concurrent reads.
+public final class ParallelStage {
+
+    public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private ParallelStage() {
+    }
+
+    /// Applies `action` to every item with [#DEFAULT_PARALLELISM] workers and returns the results in the order of `items`.
+    ///
+    /// @see #map(List, int, ExceptionalFunction, IntConsumer)
+    public static <T, R> List<R> map(List<? extends T> items,
+                                     ExceptionalFunction<? super T, ? extends R, ?> action,
+                                     IntConsumer onProgress) throws Exception {
+        return map(items, DEFAULT_PARALLELISM, action, onProgress);
+    }
+
+    /// Applies `action` to every item and returns the results in the order of `items`.
+    ///
+    /// @param parallelism the maximum number of items processed at once
+    /// @param onProgress receives the number of finished items, it may be called concurrently from several workers
+    /// @throws InterruptedException if the calling thread is interrupted, remaining items are skipped
+    /// @throws Exception            the first exception thrown by `action`, remaining items are skipped
+    public static <T, R> List<R> map(List<? extends T> items,
+                                     int parallelism,
+                                     ExceptionalFunction<? super T, ? extends R, ?> action,
+                                     IntConsumer onProgress) throws Exception {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+        int size = items.size();
+        Object[] results = new Object[size];
+        if (size == 0) return List.of();
+
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        Runnable worker = () -> {
+            int i;
+            while (!stopped.get() && (i = cursor.getAndIncrement()) < size) {
+                try {
+                    results[i] = action.apply(items.get(i));
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                    stopped.set(true);
+                    return;
+                }
+                onProgress.accept(finished.incrementAndGet());
+            }
+        };
+
+        int workers = Math.min(parallelism, size);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(worker, Schedulers.io()));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            throw e;
+        } catch (ExecutionException | CompletionException e) {
+            stopped.set(true);
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+
+        Exception exception = failure.get();
+        if (exception != null) throw exception;
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+}
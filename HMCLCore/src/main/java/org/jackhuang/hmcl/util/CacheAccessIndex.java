@@ -0,0 +1,178 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jackhuang.hmcl.task.Schedulers;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.util.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Remembers when each file of a [CacheRepository] was last used, so that [CacheEvictor] can drop the least
+/// recently used ones.
+///
+/// Entries are keyed by the lower case digest of the file and hold the time of the last access in milliseconds.
+/// Access times are only recorded with a granularity of [#GRANULARITY_MILLIS], so repeated hits do not rewrite
+/// the index. Saving merges the index file written by other launcher processes sharing the same cache, keeping
+/// the later access time of each file.
+public final class CacheAccessIndex {
+    private static final long SAVE_DELAY_SECONDS = 5;
+    static final long GRANULARITY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final @Nullable Path indexFile;
+    private final Map<String, Long> entries = new ConcurrentHashMap<>();
+    /// Digests evicted in this session, which must not come back from the index file of another process
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean loaded = new AtomicBoolean();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private volatile boolean dirty;
+
+    /// @param indexFile the file the index is persisted to, or `null` to keep it in memory only
+    public CacheAccessIndex(@Nullable Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /// Records that the file with the given digest has just been used.
+    public void touch(String hash) {
+        load();
+
+        long time = System.currentTimeMillis();
+        String key = hash.toLowerCase(Locale.ROOT);
+        removed.remove(key);
+        Long old = entries.get(key);
+        if (old != null && time - old < GRANULARITY_MILLIS)
+            return;
+        entries.merge(key, time, Math::max);
+        scheduleSave();
+    }
+
+    void setLastAccessTime(String hash, long time) {
+        load();
+        entries.put(hash.toLowerCase(Locale.ROOT), time);
+        scheduleSave();
+    }
+
+    /// Returns the time the file with the given digest was last used, or `-1` if it has never been seen.
+    public long getLastAccessTime(String hash) {
+        load();
+        Long time = entries.get(hash.toLowerCase(Locale.ROOT));
+        return time != null ? time : -1L;
+    }
+
+    /// Records the time a file was first seen if it has no entry yet, and returns its last access time.
+    long putIfAbsent(String hash, long time) {
+        load();
+        String key = hash.toLowerCase(Locale.ROOT);
+        Long old = entries.putIfAbsent(key, time);
+        if (old != null)
+            return old;
+        scheduleSave();
+        return time;
+    }
+
+    /// Forgets the given digests, for example after their files have been evicted.
+    public void remove(Collection<String> hashes) {
+        load();
+        for (String hash : hashes) {
+            String key = hash.toLowerCase(Locale.ROOT);
+            removed.add(key);
+            entries.remove(key);
+        }
+        scheduleSave();
+    }
+
+    private void load() {
+        if (indexFile == null || loaded.get()) return;
+        synchronized (this) {
+            if (loaded.get()) return;
+            Map<String, Long> saved = read();
+            if (saved != null)
+                saved.forEach((hash, time) -> {
+                    if (hash != null && time != null)
+                        entries.merge(hash, time, Math::max);
+                });
+            loaded.set(true);
+        }
+    }
+
+    private @Nullable Map<String, Long> read() {
+        try {
+            if (Files.isRegularFile(indexFile))
+                return JsonUtils.fromJsonFile(indexFile, JsonUtils.mapTypeOf(String.class, Long.class));
+        } catch (Exception e) {
+            LOG.warning("Unable to read cache access index " + indexFile, e);
+        }
+        return null;
+    }
+
+    private void scheduleSave() {
+        dirty = true;
+        if (indexFile != null && saveScheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                saveScheduled.set(false);
+                save();
+            }, CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS, Schedulers.io()));
+        }
+    }
+
+    /// Writes pending changes to the index file.
+    public synchronized void save() {
+        if (indexFile == null || !dirty) return;
+        dirty = false;
+
+        // Another process may have used files since this one loaded the index
+        Map<String, Long> saved = read();
+        if (saved != null)
+            saved.forEach((hash, time) -> {
+                if (hash != null && time != null && !removed.contains(hash))
+                    entries.merge(hash, time, Math::max);
+            });
+
+        try {
+            Map<String, Long> snapshot = new HashMap<>(entries);
+            FileUtils.saveSafely(indexFile, outputStream -> {
+                try (var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                    JsonUtils.UGLY_GSON.toJson(snapshot, JsonUtils.mapTypeOf(String.class, Long.class).getType(), writer);
+                }
+            });
+        } catch (NoSuchFileException ignored) {
+            // The cache directory was removed
+        } catch (IOException e) {
+            dirty = true;
+            LOG.warning("Unable to save cache access index " + indexFile, e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Keeps the files stored by a [CacheRepository] within a size and age budget.
+///
+/// A pass walks the content-addressed store `cache/SHA-1/<xx>/<hash>` one bucket directory at a time, pausing
+/// between buckets so that it does not compete with downloads for the disk. Files are then deleted from the least
+/// recently used one, as recorded by [CacheAccessIndex], until every remaining file is younger than the maximum
+/// age and the total size fits the maximum size. Files never seen before start their age at the first pass,
+/// so upgrading the launcher does not evict a cache in use.
+///
+/// Two kinds of files are never evicted:
+///
+/// - files whose digest is reported as referenced, for example by the libraries and assets of installed instances;
+/// - files with more than one hard link, which [CacheRepository#restore] shares with a game directory. Deleting them
+///   would not free any space. This is only known on file systems with a `unix` attribute view.
+///
+/// Entries of the ETag index and of the library index pointing to evicted files are dropped afterward.
+public final class CacheEvictor {
+    private static final long BUCKET_PAUSE_MILLIS = 10;
+    private static final int DELETE_BATCH_SIZE = 64;
+
+    /// The limits of a cache. A limit of zero or less is unlimited.
+    ///
+    /// @param maxSize      the maximum total size of the stored files in bytes
+    /// @param maxAgeMillis the maximum time since a file was last used
+    public record Budget(long maxSize, long maxAgeMillis) {
+        public static final Budget UNLIMITED = new Budget(0L, 0L);
+
+        public boolean isUnlimited() {
+            return maxSize <= 0 && maxAgeMillis <= 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Budget[maxSize=" + (maxSize > 0 ? maxSize + " bytes" : "unlimited")
+                    + ", maxAge=" + (maxAgeMillis > 0 ? TimeUnit.MILLISECONDS.toDays(maxAgeMillis) + " days" : "unlimited") + "]";
+        }
+    }
+
+    /// @param evictedFiles   the number of deleted files
+    /// @param evictedBytes   the total size of the deleted files
+    /// @param remainingBytes the total size of the files left in the store, not counting files shared by hard links
+    public record Result(int evictedFiles, long evictedBytes, long remainingBytes) {
+    }
+
+    private record Candidate(Path file, String hash, long size, long lastAccess, long lastModified) {
+    }
+
+    private final CacheRepository repository;
+
+    public CacheEvictor(CacheRepository repository) {
+        this.repository = repository;
+    }
+
+    /// Runs one eviction pass. Should be called from a background thread.
+    ///
+    /// @param referenced tells whether a file, given by its lower case SHA-1 digest, is still in use and must be kept
+    /// @throws InterruptedException if the thread was interrupted, files deleted so far stay deleted
+    public Result evict(Budget budget, Predicate<String> referenced) throws IOException, InterruptedException {
+        Path cacheDirectory = repository.getCacheDirectory();
+        if (budget.isUnlimited() || cacheDirectory == null)
+            return new Result(0, 0L, 0L);
+
+        Path store = cacheDirectory.resolve(CacheRepository.SHA1);
+        if (!Files.isDirectory(store))
+            return new Result(0, 0L, 0L);
+
+        CacheAccessIndex accessIndex = repository.getAccessIndex();
+        boolean hasLinkCount = store.getFileSystem().supportedFileAttributeViews().contains("unix");
+        long now = System.currentTimeMillis();
+
+        List<Candidate> candidates = new ArrayList<>();
+        long totalSize = 0L;
+        for (Path bucket : listSorted(store)) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (!Files.isDirectory(bucket, LinkOption.NOFOLLOW_LINKS))
+                continue;
+
+            List<Path> files;
+            try {
+                files = listSorted(bucket);
+            } catch (IOException e) {
+                LOG.warning("Unable to list cache directory " + bucket, e);
+                continue;
+            }
+
+            for (Path file : files) {
+                String hash = file.getFileName().toString().toLowerCase(Locale.ROOT);
+                if (!DigestUtils.isSha1Digest(hash))
+                    continue;
+
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (!attributes.isRegularFile())
+                        continue;
+                    if (hasLinkCount && getLinkCount(file) > 1)
+                        continue;
+                } catch (IOException e) {
+                    continue;
+                }
+
+                totalSize += attributes.size();
+                long lastAccess = accessIndex.putIfAbsent(hash, now);
+                if (!referenced.test(hash))
+                    candidates.add(new Candidate(file, hash, attributes.size(), lastAccess, attributes.lastModifiedTime().toMillis()));
+            }
+
+            Thread.sleep(BUCKET_PAUSE_MILLIS);
+        }
+
+        candidates.sort(Comparator.comparingLong(Candidate::lastAccess).thenComparingLong(Candidate::lastModified));
+
+        Set<String> evicted = new HashSet<>();
+        long evictedBytes = 0L;
+        int attempts = 0;
+        try {
+            for (Candidate candidate : candidates) {
+                boolean expired = budget.maxAgeMillis() > 0 && now - candidate.lastAccess() > budget.maxAgeMillis();
+                boolean oversized = budget.maxSize() > 0 && totalSize > budget.maxSize();
+                if (!expired && !oversized)
+                    break; // Candidates are sorted, the later ones are newer
+
+                // The file may have been used while the store was being walked
+                if (accessIndex.getLastAccessTime(candidate.hash()) > candidate.lastAccess())
+                    continue;
+
+                try {
+                    if (Files.deleteIfExists(candidate.file())) {
+                        evicted.add(candidate.hash());
+                        evictedBytes += candidate.size();
+                        repository.getHashIndex().invalidate(candidate.file());
+                    }
+                    totalSize -= candidate.size();
+                } catch (IOException e) {
+                    LOG.warning("Unable to evict cached file " + candidate.file(), e);
+                }
+
+                if (++attempts % DELETE_BATCH_SIZE == 0)
+                    Thread.sleep(BUCKET_PAUSE_MILLIS);
+            }
+        } finally {
+            if (!evicted.isEmpty()) {
+                accessIndex.remove(evicted);
+                repository.onEvicted(evicted);
+            }
+        }
+
+        return new Result(evicted.size(), evictedBytes, totalSize);
+    }
+
+    private static List<Path> listSorted(Path directory) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                result.add(path);
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static int getLinkCount(Path file) throws IOException {
+        @Nullable Object count = Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+        return count instanceof Integer ? (Integer) count : 1;
+    }
+}
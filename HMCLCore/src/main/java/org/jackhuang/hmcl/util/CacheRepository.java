@@ -17,7 +17,7 @@
  */
 package org.jackhuang.hmcl.util;
 
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
 import org.jackhuang.hmcl.util.function.ExceptionalSupplier;
 import org.jackhuang.hmcl.util.gson.JsonUtils;
@@ -33,18 +33,20 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 import java.util.regex.Matcher;
@@ -54,39 +56,79 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.jackhuang.hmcl.util.gson.JsonUtils.GSON;
 import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
+/// Stores downloaded files by their SHA-1 digest, and remembers the ETag of the URL each one came from.
+///
+/// The ETag index is kept in memory in a concurrent map and persisted as a snapshot, `etag.json`, plus an
+/// append-only log, `etag.log`. Every new entry is appended to the log as a single JSON line, so an update
+/// costs the same no matter how many URLs are cached. Removed entries are logged as tombstones without a hash.
+/// Once the log grows larger than the snapshot it is compacted into a new snapshot. If compaction fails, it is
+/// retried only after the log grew by another [#MIN_COMPACTION_SIZE].
+///
+/// Several launcher processes may share one cache. Appends and compactions hold an exclusive lock on the log
+/// and first replay what other processes appended. The first line of the log names its generation, so a process
+/// notices when another one has compacted the log, and merges the new snapshot before appending. A line cut
+/// short by a crash is ignored.
+///
+/// The snapshot keeps its old format and is read under a shared lock and rewritten in place under an exclusive
+/// lock on `etag.json`, as older versions do, so that the two never see each other's half-written snapshot.
+/// Older versions do not read the log, so they only see the entries written since the last compaction once the
+/// log is compacted again.
+///
+/// Every use of a stored file is recorded in a [CacheAccessIndex], which [CacheEvictor] relies on to keep the
+/// store within a budget.
 public class CacheRepository {
+    private static final String LOG_HEADER_PREFIX = "HMCL-ETAG-LOG ";
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
     private Path commonDirectory;
     private Path cacheDirectory;
     private Path indexFile;
-    private FileTime indexFileLastModified;
-    private LinkedHashMap<URI, ETagItem> index;
+    private Path logFile;
+    private volatile ConcurrentHashMap<URI, ETagItem> index = new ConcurrentHashMap<>();
+    private volatile FileHashIndex hashIndex = new FileHashIndex(null);
+    private volatile CacheAccessIndex accessIndex = new CacheAccessIndex(null);
     protected final ReadWriteLock lock = new ReentrantReadWriteLock();
 
+    /// Serializes access to the log within this process, [FileLock] only excludes other processes.
+    private final ReentrantLock logLock = new ReentrantLock();
+    /// The end of the last complete line of the log that has been merged into [#index]
+    private long logPosition;
+    private @Nullable String logGeneration;
+    /// The log size compaction waits for after it failed, `0` if it did not fail in the current generation
+    private long compactionRetryPosition;
+
     public void changeDirectory(Path commonDir) {
         commonDirectory = commonDir;
         cacheDirectory = commonDir.resolve("cache");
-        indexFile = cacheDirectory.resolve("etag.json");
+        hashIndex.save();
+        hashIndex = new FileHashIndex(cacheDirectory.resolve("hashes.json"));
+        accessIndex.save();
+        accessIndex = new CacheAccessIndex(cacheDirectory.resolve("access.json"));
 
-        lock.writeLock().lock();
+        logLock.lock();
         try {
-            if (Files.isRegularFile(indexFile)) {
-                try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
-                     @SuppressWarnings("unused") FileLock lock = channel.tryLock(0, Long.MAX_VALUE, true)) {
-                    FileTime lastModified = Lang.ignoringException(() -> Files.getLastModifiedTime(indexFile));
-                    ETagIndex raw = JsonUtils.GSON.fromJson(new BufferedReader(Channels.newReader(channel, UTF_8)), ETagIndex.class);
-                    index = raw != null ? joinETagIndexes(raw.eTag) : new LinkedHashMap<>();
-                    indexFileLastModified = lastModified;
+            indexFile = cacheDirectory.resolve("etag.json");
+            logFile = cacheDirectory.resolve("etag.log");
+            index = new ConcurrentHashMap<>();
+            logPosition = 0L;
+            logGeneration = null;
+            compactionRetryPosition = 0L;
+
+            try {
+                if (Files.isRegularFile(logFile)) {
+                    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                         @SuppressWarnings("unused") FileLock fileLock = channel.lock()) {
+                        mergeSnapshot();
+                        replayLog(channel);
+                    }
+                } else {
+                    mergeSnapshot();
                 }
-            } else {
-                index = new LinkedHashMap<>();
-                indexFileLastModified = null;
+            } catch (Exception e) {
+                LOG.warning("Unable to read index file", e);
             }
-        } catch (Exception e) {
-            LOG.warning("Unable to read index file", e);
-            index = new LinkedHashMap<>();
-            indexFileLastModified = null;
         } finally {
-            lock.writeLock().unlock();
+            logLock.unlock();
         }
     }
 
@@ -98,6 +140,16 @@ public class CacheRepository {
         return cacheDirectory;
     }
 
+    /// Returns the index of known file digests, which every integrity check of local files should go through.
+    public FileHashIndex getHashIndex() {
+        return hashIndex;
+    }
+
+    /// Returns the index of the last time each stored file was used.
+    public CacheAccessIndex getAccessIndex() {
+        return accessIndex;
+    }
+
     protected Path getFile(String algorithm, String hash) {
         hash = hash.toLowerCase(Locale.ROOT);
         return getCacheDirectory().resolve(algorithm).resolve(hash.substring(0, 2)).resolve(hash);
@@ -108,7 +160,11 @@ public class CacheRepository {
         Path file = getFile(algorithm, hash);
         if (Files.exists(file)) {
             try {
-                return DigestUtils.digestToString(algorithm, file).equalsIgnoreCase(hash);
+                if (hashIndex.verify(algorithm, file, hash)) {
+                    accessIndex.touch(hash);
+                    return true;
+                }
+                return false;
             } catch (IOException e) {
                 return false;
             }
@@ -127,6 +183,7 @@ public class CacheRepository {
         checkHash(hash);
 
         Path cache = getFile(algorithm, hash);
+        accessIndex.touch(hash);
         if (Files.isRegularFile(cache)) return;
         FileUtils.copyFile(path, cache);
     }
@@ -136,6 +193,7 @@ public class CacheRepository {
 
         Path cache = getFile(algorithm, hash);
         FileUtils.copyFile(path, cache);
+        accessIndex.touch(hash);
         return cache;
     }
 
@@ -146,8 +204,7 @@ public class CacheRepository {
         if (original != null && Files.exists(original)) {
             if (hash != null) {
                 try {
-                    String checksum = DigestUtils.digestToString(algorithm, original);
-                    if (checksum.equalsIgnoreCase(hash))
+                    if (hashIndex.verify(algorithm, original, hash))
                         return Optional.of(restore(original, () -> cacheFile(original, algorithm, hash)));
                 } catch (IOException e) {
                     // we cannot check the hashcode.
@@ -168,13 +225,7 @@ public class CacheRepository {
     }
 
     public Path getCachedRemoteFile(URI uri, boolean checkExpires) throws IOException {
-        lock.readLock().lock();
-        ETagItem eTagItem;
-        try {
-            eTagItem = index.get(NetworkUtils.dropQuery(uri));
-        } finally {
-            lock.readLock().unlock();
-        }
+        ETagItem eTagItem = index.get(NetworkUtils.dropQuery(uri));
         if (eTagItem == null) throw new IOException("Cannot find the URL");
         if (StringUtils.isBlank(eTagItem.hash) || !fileExists(SHA1, eTagItem.hash)) throw new FileNotFoundException();
         if (checkExpires && System.currentTimeMillis() > eTagItem.expires)
@@ -182,7 +233,7 @@ public class CacheRepository {
 
         Path file = getFile(SHA1, eTagItem.hash);
         if (Files.getLastModifiedTime(file).toMillis() != eTagItem.localLastModified) {
-            String hash = DigestUtils.digestToString(SHA1, file);
+            String hash = hashIndex.digestToString(SHA1, file);
             if (!Objects.equals(hash, eTagItem.hash))
                 throw new IOException("This file is modified");
         }
@@ -190,11 +241,12 @@ public class CacheRepository {
     }
 
     public void removeRemoteEntry(URI uri) {
-        lock.writeLock().lock();
+        uri = NetworkUtils.dropQuery(uri);
+        index.remove(uri);
         try {
-            index.remove(NetworkUtils.dropQuery(uri));
-        } finally {
-            lock.writeLock().unlock();
+            appendETagItem(new ETagItem(uri.toString(), null, null, 0L, null, 0L));
+        } catch (IOException e) {
+            LOG.warning("Unable to record the removal of " + uri, e);
         }
     }
 
@@ -205,13 +257,7 @@ public class CacheRepository {
             return Map.of();
         }
 
-        ETagItem eTagItem;
-        lock.readLock().lock();
-        try {
-            eTagItem = index.get(uri);
-        } finally {
-            lock.readLock().unlock();
-        }
+        ETagItem eTagItem = index.get(uri);
         if (eTagItem == null) return Map.of();
         if (eTagItem.eTag != null)
             return Map.of("if-none-match", eTagItem.eTag);
@@ -227,13 +273,7 @@ public class CacheRepository {
             return;
         }
 
-        ETagItem eTagItem;
-        lock.readLock().lock();
-        try {
-            eTagItem = index.get(uri);
-        } finally {
-            lock.readLock().unlock();
-        }
+        ETagItem eTagItem = index.get(uri);
         if (eTagItem == null) return;
         if (eTagItem.eTag != null)
             requestBuilder.header("if-none-match", eTagItem.eTag);
@@ -259,6 +299,7 @@ public class CacheRepository {
             Path cached = getFile(SHA1, hash);
             Files.createDirectories(cached.getParent());
             Files.write(cached, bytes);
+            accessIndex.touch(hash);
             return new CacheResult(hash, cached);
         });
     }
@@ -304,13 +345,8 @@ public class CacheRepository {
                 Files.getLastModifiedTime(cacheResult.cachedFile).toMillis(),
                 lastModified,
                 expires);
-        lock.writeLock().lock();
-        try {
-            index.compute(uri, updateEntity(eTagItem, true));
-            saveETagIndex();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        index.compute(uri, updateEntity(eTagItem, true));
+        appendETagItem(eTagItem);
         return cacheResult.cachedFile;
     }
 
@@ -344,45 +380,201 @@ public class CacheRepository {
         };
     }
 
-    @SafeVarargs
-    private LinkedHashMap<URI, ETagItem> joinETagIndexes(Collection<ETagItem>... indexes) {
-        var eTags = new LinkedHashMap<URI, ETagItem>();
-        for (Collection<ETagItem> eTagItems : indexes) {
-            if (eTagItems != null) {
-                for (ETagItem eTag : eTagItems) {
-                    eTags.compute(NetworkUtils.toURI(eTag.url), updateEntity(eTag, false));
-                }
+    /// Called by [CacheEvictor] after it deleted stored files, given by their lower case SHA-1 digests.
+    ///
+    /// Drops the ETag entries pointing to these files, so that the next request downloads them again
+    /// instead of sending an `If-None-Match` header.
+    protected void onEvicted(Set<String> hashes) {
+        index.values().removeIf(item -> item.hash != null && hashes.contains(item.hash.toLowerCase(Locale.ROOT)));
+        try {
+            saveETagIndex();
+        } catch (IOException e) {
+            LOG.warning("Unable to save ETag index", e);
+        }
+    }
+
+    private void merge(@Nullable Collection<ETagItem> items) {
+        if (items == null)
+            return;
+        for (ETagItem item : items) {
+            if (item == null || item.url == null)
+                continue;
+            try {
+                URI uri = NetworkUtils.toURI(item.url);
+                if (item.hash == null)
+                    index.remove(uri);
+                else
+                    index.compute(uri, updateEntity(item, false));
+            } catch (IllegalArgumentException e) {
+                LOG.warning("Invalid URL in ETag index: " + item.url);
             }
         }
-        return eTags;
     }
 
-    public void saveETagIndex() throws IOException {
-        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
-             @SuppressWarnings("unused") FileLock lock = channel.lock()) {
-            FileTime lastModified = Lang.ignoringException(() -> Files.getLastModifiedTime(indexFile));
-            if (indexFileLastModified == null || lastModified == null || indexFileLastModified.compareTo(lastModified) < 0) {
-                try {
-                    ETagIndex indexOnDisk = GSON.fromJson(
-                            // Should not be closed
-                            new BufferedReader(Channels.newReader(channel, UTF_8)),
-                            ETagIndex.class
-                    );
-                    if (indexOnDisk != null) {
-                        index = joinETagIndexes(index.values(), indexOnDisk.eTag);
-                        indexFileLastModified = lastModified;
+    private void mergeSnapshot() throws IOException {
+        if (!Files.isRegularFile(indexFile))
+            return;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+             @SuppressWarnings("unused") FileLock fileLock = channel.lock(0L, Long.MAX_VALUE, true)) {
+            mergeSnapshot(channel);
+        }
+    }
+
+    /// Merges the snapshot read from the start of the channel, which must hold a lock on `etag.json`.
+    private void mergeSnapshot(FileChannel channel) throws IOException {
+        try {
+            // Should not be closed, closing the reader closes the channel before the lock is released
+            ETagIndex snapshot = GSON.fromJson(new BufferedReader(Channels.newReader(channel, UTF_8)), ETagIndex.class);
+            if (snapshot != null)
+                merge(snapshot.eTag);
+        } catch (JsonParseException e) {
+            LOG.warning("Unable to parse " + indexFile, e);
+        }
+    }
+
+    /// Merges the lines other processes have appended since [#logPosition].
+    ///
+    /// If the log has been compacted by another process since it was last read, the new snapshot is merged
+    /// and the log is replayed from its start. Must hold [#logLock] and a lock on the log.
+    private void replayLog(FileChannel channel) throws IOException {
+        long size = channel.size();
+        String generation = readLogHeader(channel);
+        long position;
+        if (generation == null || !generation.equals(logGeneration)) {
+            if (logGeneration != null)
+                mergeSnapshot();
+            logGeneration = generation;
+            compactionRetryPosition = 0L;
+            position = 0L;
+        } else {
+            position = logPosition;
+        }
+
+        if (size <= position) {
+            logPosition = Math.min(position, size);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                break;
+        }
+
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+        int lineStart = 0;
+        List<ETagItem> items = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != '\n')
+                continue;
+            String line = new String(bytes, lineStart, i - lineStart, UTF_8);
+            lineStart = i + 1;
+            if (line.isBlank() || line.startsWith(LOG_HEADER_PREFIX))
+                continue;
+            try {
+                items.add(JsonUtils.UGLY_GSON.fromJson(line, ETagItem.class));
+            } catch (JsonParseException e) {
+                LOG.warning("Skipping corrupted line of " + logFile);
+            }
+        }
+        merge(items);
+        // A trailing line without line break was cut short by a crash, it is overwritten by the next append
+        logPosition = position + lineStart;
+    }
+
+    private static @Nullable String readLogHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LOG_HEADER_PREFIX.length() + 64);
+        channel.read(buffer, 0L);
+        String head = new String(buffer.array(), 0, buffer.position(), UTF_8);
+        int end = head.indexOf('\n');
+        if (!head.startsWith(LOG_HEADER_PREFIX) || end < 0)
+            return null;
+        return head.substring(LOG_HEADER_PREFIX.length(), end);
+    }
+
+    /// Starts a new generation of the log, dropping all its lines. Must hold [#logLock] and a lock on the log.
+    private void resetLog(FileChannel channel) throws IOException {
+        String generation = UUID.randomUUID().toString();
+        byte[] header = (LOG_HEADER_PREFIX + generation + "\n").getBytes(UTF_8);
+        channel.truncate(0L);
+        channel.write(ByteBuffer.wrap(header), 0L);
+        logGeneration = generation;
+        logPosition = header.length;
+        compactionRetryPosition = 0L;
+    }
+
+    private void appendETagItem(ETagItem item) throws IOException {
+        logLock.lock();
+        try {
+            Files.createDirectories(logFile.getParent());
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 @SuppressWarnings("unused") FileLock fileLock = channel.lock()) {
+                replayLog(channel);
+                if (logGeneration == null)
+                    resetLog(channel);
+
+                byte[] line = (JsonUtils.UGLY_GSON.toJson(item) + "\n").getBytes(UTF_8);
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, logPosition + buffer.position());
+                }
+                logPosition += line.length;
+                channel.truncate(logPosition);
+
+                long snapshotSize = Files.isRegularFile(indexFile) ? Files.size(indexFile) : 0L;
+                if (logPosition > Math.max(Math.max(MIN_COMPACTION_SIZE, snapshotSize), compactionRetryPosition)) {
+                    try {
+                        compact(channel);
+                    } catch (IOException e) {
+                        // The entry is already in the log, so only compaction is put off
+                        compactionRetryPosition = logPosition + MIN_COMPACTION_SIZE;
+                        LOG.warning("Unable to compact " + logFile, e);
                     }
-                } catch (JsonSyntaxException ignored) {
                 }
             }
+        } finally {
+            logLock.unlock();
+        }
+    }
 
-            channel.truncate(0);
-            BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, UTF_8));
-            JsonUtils.GSON.toJson(new ETagIndex(index.values()), writer);
+    /// Writes the whole index to the snapshot, then empties the log. Must hold [#logLock] and a lock on the log.
+    ///
+    /// The snapshot is rewritten in place under the lock older versions take on it. The log is only emptied
+    /// after the snapshot has been forced to disk, so a crash in between merely replays entries that are
+    /// already in the snapshot.
+    private void compact(FileChannel channel) throws IOException {
+        try (FileChannel snapshotChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             @SuppressWarnings("unused") FileLock snapshotLock = snapshotChannel.lock()) {
+            // Older versions still rewrite the snapshot directly
+            mergeSnapshot(snapshotChannel);
+            // Entries of evicted files may come back from the old snapshot or from the log of another process
+            index.values().removeIf(item -> !DigestUtils.isSha1Digest(item.hash) || !Files.isRegularFile(getFile(SHA1, item.hash)));
+
+            snapshotChannel.truncate(0L);
+            snapshotChannel.position(0L);
+            // Should not be closed, see mergeSnapshot(FileChannel)
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(snapshotChannel, UTF_8));
+            GSON.toJson(new ETagIndex(index.values()), writer);
             writer.flush();
-            channel.force(true);
+            snapshotChannel.force(true);
+        }
+        resetLog(channel);
+        channel.force(true);
+    }
 
-            this.indexFileLastModified = Lang.ignoringException(() -> Files.getLastModifiedTime(indexFile));
+    /// Compacts the ETag log into the snapshot `etag.json`.
+    public void saveETagIndex() throws IOException {
+        logLock.lock();
+        try {
+            Files.createDirectories(logFile.getParent());
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 @SuppressWarnings("unused") FileLock fileLock = channel.lock()) {
+                replayLog(channel);
+                compact(channel);
+            }
+        } finally {
+            logLock.unlock();
         }
     }
 
@@ -19,11 +19,17 @@ package org.jackhuang.hmcl.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Checksum;
 
 /**
  * @author huangyuhui
@@ -100,4 +106,132 @@ public final class DigestUtils {
         return digest;
     }
 
+    /// Pseudo algorithm name accepted by [#digest(Path, String...)] for the CurseForge fingerprint,
+    /// which is the MurmurHash2 (seed 1) of a file with all tab, line feed, carriage return and space bytes removed.
+    public static final String CURSEFORGE_FINGERPRINT = "CurseForge-Fingerprint";
+
+    private static final int CHUNK_LENGTH = 64 * 1024;
+
+    /// Computes several digests of a file while reading it from disk only once.
+    ///
+    /// The file is read in chunks into one reusable buffer and each chunk is fed to every requested digest.
+    /// The CurseForge fingerprint has to know the filtered length before hashing, so for files larger than one chunk
+    /// it reads the file a second time, which is usually served from the page cache rather than the disk.
+    ///
+    /// @param algorithms [MessageDigest] algorithm names, or [#CURSEFORGE_FINGERPRINT]
+    public static MultiDigest digest(Path path, String... algorithms) throws IOException {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        boolean fingerprint = false;
+        for (String algorithm : algorithms) {
+            if (CURSEFORGE_FINGERPRINT.equals(algorithm)) {
+                fingerprint = true;
+            } else {
+                digests.put(algorithm, getDigest(algorithm));
+            }
+        }
+
+        byte[] buffer = new byte[CHUNK_LENGTH];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        Checksum hasher = null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long filteredLength = 0;
+            boolean singleChunk = true;
+            int length;
+            while ((length = readChunk(channel, byteBuffer)) > 0) {
+                for (MessageDigest digest : digests.values()) {
+                    digest.update(buffer, 0, length);
+                }
+                if (fingerprint) {
+                    if (singleChunk && length < buffer.length) {
+                        // The whole file is in the buffer, no need to read it again
+                        int filtered = removeWhitespace(buffer, length);
+                        hasher = MurmurHash2.hash32(filtered, 1);
+                        hasher.update(buffer, 0, filtered);
+                        break;
+                    }
+                    filteredLength += countNonWhitespace(buffer, length);
+                }
+                singleChunk = false;
+            }
+
+            if (fingerprint && hasher == null) {
+                hasher = MurmurHash2.hash32(filteredLength, 1);
+                channel.position(0);
+                while ((length = readChunk(channel, byteBuffer)) > 0) {
+                    hasher.update(buffer, 0, removeWhitespace(buffer, length));
+                }
+            }
+
+            Map<String, byte[]> result = new LinkedHashMap<>();
+            digests.forEach((algorithm, digest) -> result.put(algorithm, digest.digest()));
+            return new MultiDigest(result, hasher != null ? hasher.getValue() : -1);
+        } catch (IllegalStateException e) {
+            // The file changed while it was being read
+            throw new IOException(e);
+        }
+    }
+
+    /// Fills the buffer from the channel until it is full or the end of the file is reached.
+    ///
+    /// @return the number of bytes read, `0` at the end of the file
+    private static int readChunk(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) break;
+        }
+        return buffer.position();
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == 0x9 || b == 0xa || b == 0xd || b == 0x20;
+    }
+
+    private static int countNonWhitespace(byte[] buffer, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!isWhitespace(buffer[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /// Moves all non-whitespace bytes to the start of the buffer and returns their count.
+    private static int removeWhitespace(byte[] buffer, int length) {
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (!isWhitespace(b)) {
+                buffer[pos++] = b;
+            }
+        }
+        return pos;
+    }
+
+    /// Digests of one file computed by [#digest(Path, String...)].
+    public static final class MultiDigest {
+        private final Map<String, byte[]> digests;
+        private final long curseForgeFingerprint;
+
+        private MultiDigest(Map<String, byte[]> digests, long curseForgeFingerprint) {
+            this.digests = digests;
+            this.curseForgeFingerprint = curseForgeFingerprint;
+        }
+
+        public byte[] get(String algorithm) {
+            byte[] digest = digests.get(algorithm);
+            if (digest == null) throw new IllegalArgumentException("Digest " + algorithm + " was not computed");
+            return digest.clone();
+        }
+
+        public String getString(String algorithm) {
+            return HexFormat.of().formatHex(get(algorithm));
+        }
+
+        /// Returns the CurseForge fingerprint as an unsigned 32-bit value.
+        public long getCurseForgeFingerprint() {
+            if (curseForgeFingerprint < 0) throw new IllegalStateException("CurseForge fingerprint was not computed");
+            return curseForgeFingerprint;
+        }
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jackhuang.hmcl.task.Schedulers;
+import org.jackhuang.hmcl.util.gson.JsonUtils;
+import org.jackhuang.hmcl.util.io.FileStamp;
+import org.jackhuang.hmcl.util.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Remembers digests of local files so that unchanged files do not have to be hashed again.
+///
+/// Entries are keyed by absolute path and are only trusted while the [FileStamp] of the file still matches, so replacing
+/// or editing a file invalidates its entry.
+/// Modified entries are written back to the index file shortly after they change, and at the latest when the JVM exits.
+/// Saving holds a lock on a sibling `.lock` file and merges the entries other launcher processes saved in the meantime.
+public final class FileHashIndex {
+    private static final long SAVE_DELAY_SECONDS = 5;
+
+    private final @Nullable Path indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /// Paths invalidated in this session, whose entries must not come back from the index file of another process
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean loaded = new AtomicBoolean();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private volatile boolean dirty;
+    private volatile boolean pruned;
+
+    /// @param indexFile the file the index is persisted to, or `null` to keep it in memory only
+    public FileHashIndex(@Nullable Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /// Returns the hex digest of the file, computing it only if the file changed since it was last hashed.
+    public String digestToString(String algorithm, Path file) throws IOException {
+        load();
+
+        String key = file.toAbsolutePath().normalize().toString();
+        BasicFileAttributes before = Files.readAttributes(file, BasicFileAttributes.class);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(before)) {
+            String digest = entry.digests().get(algorithm);
+            if (digest != null) {
+                return digest;
+            }
+        }
+
+        String digest = DigestUtils.digestToString(algorithm, file);
+
+        // Only remember the digest if the file did not change while it was being read, and was not modified so recently
+        // that a later write could keep the same size and timestamp
+        BasicFileAttributes after = Files.readAttributes(file, BasicFileAttributes.class);
+        FileStamp stamp = FileStamp.of(after);
+        if (stamp.matches(before) && FileStamp.isSettled(after)) {
+            removed.remove(key);
+            entries.compute(key, (k, old) -> {
+                Map<String, String> digests = new HashMap<>();
+                if (old != null && old.stamp().equals(stamp)) {
+                    digests.putAll(old.digests());
+                }
+                digests.put(algorithm, digest);
+                return new Entry(stamp, Map.copyOf(digests));
+            });
+            scheduleSave();
+        }
+        return digest;
+    }
+
+    /// Checks whether the digest of the file equals `expected`, ignoring case.
+    public boolean verify(String algorithm, Path file, String expected) throws IOException {
+        return digestToString(algorithm, file).equalsIgnoreCase(expected);
+    }
+
+    /// Drops the entry of a file, for example after it has been deleted or rewritten in place.
+    public void invalidate(Path file) {
+        String key = file.toAbsolutePath().normalize().toString();
+        removed.add(key);
+        if (entries.remove(key) != null) {
+            scheduleSave();
+        }
+    }
+
+    private void load() {
+        if (indexFile == null || loaded.get()) return;
+        synchronized (this) {
+            if (loaded.get()) return;
+            mergeSaved();
+            loaded.set(true);
+        }
+    }
+
+    /// Adds the entries of the index file that are neither known nor invalidated in this session.
+    private void mergeSaved() {
+        try {
+            if (Files.isRegularFile(indexFile)) {
+                Map<String, Entry> saved = JsonUtils.fromJsonFile(indexFile, JsonUtils.mapTypeOf(String.class, Entry.class));
+                if (saved != null) {
+                    saved.forEach((path, entry) -> {
+                        if (path != null && entry != null && entry.stamp() != null && entry.digests() != null
+                                && !removed.contains(path)) {
+                            entries.putIfAbsent(path, entry);
+                        }
+                    });
+                }
+            }
+        } catch (Exception e) {
+            LOG.warning("Unable to read hash index " + indexFile, e);
+        }
+    }
+
+    private void scheduleSave() {
+        dirty = true;
+        if (indexFile == null) return;
+        ShutdownHook.register(this);
+        if (saveScheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                saveScheduled.set(false);
+                save();
+            }, CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS, Schedulers.io()));
+        }
+    }
+
+    /// Writes pending changes to the index file.
+    public void save() {
+        if (indexFile == null) return;
+        // A FileLock is held by the whole JVM, so two indexes of the same file must not try to take it at once
+        synchronized (FileHashIndex.class) {
+            synchronized (this) {
+                if (!dirty) return;
+                ShutdownHook.unregister(this);
+                dirty = false;
+
+                Path lockFile = indexFile.resolveSibling(indexFile.getFileName() + ".lock");
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     @SuppressWarnings("unused") FileLock lock = channel.lock()) {
+                    // Another process may have hashed files since this one loaded the index
+                    mergeSaved();
+
+                    if (!pruned) {
+                        // Forget files that no longer exist once per session, so the index does not grow forever
+                        entries.keySet().removeIf(path -> !Files.exists(Path.of(path)));
+                        pruned = true;
+                    }
+
+                    Map<String, Entry> snapshot = new HashMap<>(entries);
+                    FileUtils.saveSafely(indexFile, outputStream -> {
+                        try (var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                            JsonUtils.UGLY_GSON.toJson(snapshot, JsonUtils.mapTypeOf(String.class, Entry.class).getType(), writer);
+                        }
+                    });
+                } catch (NoSuchFileException ignored) {
+                    // The cache directory was removed
+                } catch (IOException e) {
+                    dirty = true;
+                    LOG.warning("Unable to save hash index " + indexFile, e);
+                }
+            }
+        }
+    }
+
+    /// Saves the indexes with pending changes when the JVM exits, as their delayed saves would never run.
+    private static final class ShutdownHook extends Thread {
+        private static final Set<FileHashIndex> PENDING = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new ShutdownHook());
+        }
+
+        static void register(FileHashIndex index) {
+            PENDING.add(index);
+        }
+
+        static void unregister(FileHashIndex index) {
+            PENDING.remove(index);
+        }
+
+        @Override
+        public void run() {
+            for (FileHashIndex index : PENDING) {
+                index.save();
+            }
+        }
+    }
+
+    private record Entry(FileStamp stamp, Map<String, String> digests) {
+        boolean matches(BasicFileAttributes attributes) {
+            return stamp.matches(attributes);
+        }
+    }
+}
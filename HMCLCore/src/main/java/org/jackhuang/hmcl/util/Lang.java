@@ -214,15 +214,33 @@ public final class Lang {
     }
 
     public static ThreadPoolExecutor threadPool(String name, boolean daemon, int threads, long timeout, TimeUnit timeunit) {
+        AtomicInteger counter = new AtomicInteger(1);
         ThreadPoolExecutor pool = new ThreadPoolExecutor(
                 threads, threads,
                 timeout, timeunit,
                 new LinkedBlockingQueue<>(),
-                counterThreadFactory(name, daemon));
+                r -> {
+                    Thread t = new BoundedPoolThread(r, name + "-" + counter.getAndIncrement());
+                    t.setDaemon(daemon);
+                    return t;
+                });
         pool.allowCoreThreadTimeOut(true);
         return pool;
     }
 
+    /// Returns whether `thread` belongs to a pool created by [#threadPool(String, boolean, int, long, TimeUnit)].
+    ///
+    /// Such pools have a fixed number of threads, so work of other executors should not be run on them.
+    public static boolean isBoundedPoolThread(Thread thread) {
+        return thread instanceof BoundedPoolThread;
+    }
+
+    private static final class BoundedPoolThread extends Thread {
+        BoundedPoolThread(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+
     public static ThreadFactory counterThreadFactory(String name, boolean daemon) {
         AtomicInteger counter = new AtomicInteger(1);
         return r -> {
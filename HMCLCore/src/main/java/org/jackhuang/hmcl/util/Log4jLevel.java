@@ -17,7 +17,6 @@
  */
 package org.jackhuang.hmcl.util;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -51,53 +50,77 @@ public enum Log4jLevel {
     public static final Pattern MINECRAFT_LOGGER_CATEGORY = Pattern.compile("\\[(?<timestamp>[0-9:]+)] \\[[^/]+/(?<level>[^]]+)] \\[(?<category>[^]]+)]");
     public static final String JAVA_SYMBOL = "([a-zA-Z_$][a-zA-Z\\d_$]*\\.)+[a-zA-Z_$][a-zA-Z\\d_$]*";
 
+    private static final Log4jLevel[] LOGGER_LEVELS = {INFO, WARN, ERROR, FATAL, TRACE, DEBUG};
+
+    /**
+     * Matches {@link #MINECRAFT_LOGGER} at the given position without a regex engine.
+     *
+     * @return the index of the '/' before the level, or -1 if the pattern does not match at {@code start}
+     */
+    private static int matchLogger(String line, int start) {
+        int length = line.length();
+        int i = start + 1;
+        while (i < length) {
+            char ch = line.charAt(i);
+            if ((ch < '0' || ch > '9') && ch != ':') break;
+            i++;
+        }
+        if (i == start + 1 || !line.startsWith("] [", i))
+            return -1;
+
+        int thread = i + 3;
+        int slash = line.indexOf('/', thread);
+        if (slash <= thread)
+            return -1;
+        return line.indexOf(']', slash + 1) > slash + 1 ? slash : -1;
+    }
+
+    private static boolean regionEquals(String line, int from, int to, String value) {
+        return to - from == value.length() && line.regionMatches(from, value, 0, value.length());
+    }
+
     public static Log4jLevel guessLevel(String line) {
         Log4jLevel level = null;
-        Matcher m = MINECRAFT_LOGGER.matcher(line);
-        if (m.find()) {
+
+        int start = line.indexOf('[');
+        int slash = -1;
+        while (start >= 0 && (slash = matchLogger(line, start)) < 0) {
+            start = line.indexOf('[', start + 1);
+        }
+
+        if (slash >= 0) {
             // New style logs from log4j
-            String levelStr = m.group("level");
-            if (null != levelStr)
-                switch (levelStr) {
-                    case "INFO":
-                        level = INFO;
-                        break;
-                    case "WARN":
-                        level = WARN;
-                        break;
-                    case "ERROR":
-                        level = ERROR;
-                        break;
-                    case "FATAL":
-                        level = FATAL;
-                        break;
-                    case "TRACE":
-                        level = TRACE;
-                        break;
-                    case "DEBUG":
-                        level = DEBUG;
-                        break;
-                    default:
-                        break;
+            int levelEnd = line.indexOf(']', slash + 1);
+            for (Log4jLevel candidate : LOGGER_LEVELS) {
+                if (regionEquals(line, slash + 1, levelEnd, candidate.name())) {
+                    level = candidate;
+                    break;
                 }
-            Matcher m2 = MINECRAFT_LOGGER_CATEGORY.matcher(line);
-            if (m2.find()) {
-                String level2Str = m2.group("category");
-                if (null != level2Str)
-                    switch (level2Str) {
-                        case "STDOUT":
-                            level = INFO;
-                            break;
-                        case "STDERR":
-                            level = ERROR;
-                            break;
-                    }
+            }
+
+            // Same as MINECRAFT_LOGGER_CATEGORY, which may only match at a later position
+            for (; start >= 0; start = line.indexOf('[', start + 1)) {
+                int categorySlash = matchLogger(line, start);
+                if (categorySlash < 0)
+                    continue;
+                int categoryStart = line.indexOf(']', categorySlash + 1) + 3;
+                if (!line.startsWith(" [", categoryStart - 2))
+                    continue;
+                int categoryEnd = line.indexOf(']', categoryStart);
+                if (categoryEnd <= categoryStart)
+                    continue;
+
+                if (regionEquals(line, categoryStart, categoryEnd, "STDOUT"))
+                    level = INFO;
+                else if (regionEquals(line, categoryStart, categoryEnd, "STDERR"))
+                    level = ERROR;
+                break;
             }
 
             if (line.contains("STDERR]") || line.contains("[STDERR/]")) {
                 level = ERROR;
             }
-        } else {
+        } else if (line.indexOf('[') >= 0) {
             if (line.contains("[INFO]") || line.contains("[CONFIG]") || line.contains("[FINE]")
                     || line.contains("[FINER]") || line.contains("[FINEST]"))
                 level = INFO;
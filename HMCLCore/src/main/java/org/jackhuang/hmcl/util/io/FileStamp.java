@@ -0,0 +1,58 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/// Identifies a version of a file by its size, last modified time in nanoseconds and file key (the inode on most Unix
+/// file systems), so that data derived from the file can be reused while the file keeps the same stamp.
+///
+/// A write landing shortly after the file was last modified may keep its size and timestamp, so data should only be
+/// remembered for files that are [settled][#isSettled(BasicFileAttributes)].
+///
+/// @param fileKey the string form of [BasicFileAttributes#fileKey()], or `null` if the file system has none
+public record FileStamp(long size, long lastModified, @Nullable String fileKey) {
+    /// Files modified more recently than this are not settled.
+    public static final long RACY_WINDOW_MILLIS = 2000;
+
+    public static FileStamp of(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return new FileStamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                fileKey != null ? fileKey.toString() : null);
+    }
+
+    public static FileStamp of(Path file) throws IOException {
+        return of(Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    /// Returns whether the file was last modified long enough ago that a later write would change its stamp.
+    public static boolean isSettled(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().toMillis() < System.currentTimeMillis() - RACY_WINDOW_MILLIS;
+    }
+
+    /// Returns whether the file still has this stamp.
+    public boolean matches(BasicFileAttributes attributes) {
+        return equals(of(attributes));
+    }
+}
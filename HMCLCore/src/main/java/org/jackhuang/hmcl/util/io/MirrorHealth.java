@@ -0,0 +1,205 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/// Tracks how well each download host performs, from the transfers that actually happen.
+///
+/// Every host keeps exponentially weighted averages of its time to first byte, throughput and error rate.
+/// A host which fails several times in a row is considered degraded for a while and is tried last, so that
+/// downloads route around a broken mirror or CDN node without every file waiting for its own retries.
+///
+/// Hosts without samples keep their configured position, so the preference order of the download providers
+/// still decides until there is evidence against it.
+public final class MirrorHealth {
+    private static final double ALPHA = 0.3;
+    /// Smaller transfers are dominated by latency and say little about throughput.
+    private static final long MIN_THROUGHPUT_SAMPLE_BYTES = 256 * 1024;
+    /// The size used to compare hosts by their expected cost of a transfer.
+    private static final double TYPICAL_TRANSFER_BYTES = 1024 * 1024;
+    /// Costs within this factor of each other are considered equal, so the order does not flap between similar hosts.
+    private static final double COST_BUCKET_BASE = Math.log(1.5);
+
+    private static final int DEGRADED_FAILURE_THRESHOLD = 3;
+    private static final long DEGRADED_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final long MIN_HEDGE_DELAY_MILLIS = 300;
+    private static final long MAX_HEDGE_DELAY_MILLIS = 2000;
+    private static final long DEFAULT_HEDGE_DELAY_MILLIS = 1000;
+
+    private static final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+    private static final class Host {
+        private double ttfbMillis = Double.NaN;
+        /// Bytes per millisecond
+        private double throughput = Double.NaN;
+        private double errorRate;
+        private int consecutiveFailures;
+        private long degradedUntil;
+        private boolean degraded;
+
+        synchronized void recordSuccess(double ttfbMillis, long bytes, long transferNanos) {
+            this.ttfbMillis = average(this.ttfbMillis, ttfbMillis);
+            if (bytes >= MIN_THROUGHPUT_SAMPLE_BYTES && transferNanos > 0)
+                this.throughput = average(this.throughput, bytes / (transferNanos / 1e6));
+            this.errorRate = average(this.errorRate, 0);
+            this.consecutiveFailures = 0;
+            this.degraded = false;
+        }
+
+        synchronized void recordLatency(double ttfbMillis) {
+            this.ttfbMillis = average(this.ttfbMillis, ttfbMillis);
+        }
+
+        synchronized void recordFailure(long now) {
+            this.errorRate = average(this.errorRate, 1);
+            if (++consecutiveFailures >= DEGRADED_FAILURE_THRESHOLD) {
+                degraded = true;
+                degradedUntil = now + DEGRADED_NANOS;
+            }
+        }
+
+        synchronized boolean isDegraded(long now) {
+            return degraded && degradedUntil - now > 0;
+        }
+
+        /// The expected milliseconds spent on a typical transfer, or NaN if nothing is known yet.
+        synchronized double cost() {
+            if (Double.isNaN(ttfbMillis))
+                return Double.NaN;
+            double cost = ttfbMillis;
+            if (!Double.isNaN(throughput))
+                cost += TYPICAL_TRANSFER_BYTES / throughput;
+            return cost / (1 - Math.min(errorRate, 0.9));
+        }
+
+        synchronized double getTtfbMillis() {
+            return ttfbMillis;
+        }
+
+        private static double average(double average, double sample) {
+            return Double.isNaN(average) ? sample : average + ALPHA * (sample - average);
+        }
+    }
+
+    private static String key(URI uri) {
+        String host = uri.getHost();
+        return host != null ? host.toLowerCase(Locale.ROOT) : String.valueOf(uri.getScheme());
+    }
+
+    private static Host host(URI uri) {
+        return hosts.computeIfAbsent(key(uri), ignored -> new Host());
+    }
+
+    private static @Nullable Host peek(URI uri) {
+        return hosts.get(key(uri));
+    }
+
+    /// Records a completed request.
+    ///
+    /// @param ttfbNanos     the time from sending the request until the response headers arrived
+    /// @param bytes         the size of the response body, or 0 if the body was not downloaded
+    /// @param transferNanos the time spent reading the response body
+    public static void recordSuccess(URI uri, long ttfbNanos, long bytes, long transferNanos) {
+        host(uri).recordSuccess(ttfbNanos / 1e6, bytes, transferNanos);
+    }
+
+    /// Records that a request to the host has been waiting for at least `nanos` without a response,
+    /// when it is abandoned in favour of another host.
+    public static void recordLatency(URI uri, long nanos) {
+        host(uri).recordLatency(nanos / 1e6);
+    }
+
+    /// Records a failed request, such as a connection error, a timeout or a server error.
+    public static void recordFailure(URI uri) {
+        host(uri).recordFailure(System.nanoTime());
+    }
+
+    /// Whether the host has failed repeatedly and should be avoided when there are alternatives.
+    public static boolean isDegraded(URI uri) {
+        Host host = peek(uri);
+        return host != null && host.isDegraded(System.nanoTime());
+    }
+
+    /// Returns how long to wait for response headers from the host before also asking another mirror.
+    public static long getHedgeDelayMillis(URI uri) {
+        Host host = peek(uri);
+        double ttfb = host != null ? host.getTtfbMillis() : Double.NaN;
+        if (Double.isNaN(ttfb))
+            return DEFAULT_HEDGE_DELAY_MILLIS;
+        return Math.max(MIN_HEDGE_DELAY_MILLIS, Math.min(MAX_HEDGE_DELAY_MILLIS, (long) (ttfb * 3)));
+    }
+
+    /// Orders the candidates from the most to the least promising host.
+    ///
+    /// Degraded hosts are moved to the end. Among the other candidates, those with known performance are
+    /// sorted by their expected cost within the positions they occupy, and those without samples stay where
+    /// they are. The order is stable, so candidates of the same host keep their relative order.
+    public static List<URI> rank(List<URI> candidates) {
+        if (candidates.size() < 2 || hosts.isEmpty())
+            return candidates;
+
+        long now = System.nanoTime();
+        List<URI> healthy = new ArrayList<>(candidates.size());
+        List<URI> degraded = new ArrayList<>();
+        for (URI candidate : candidates) {
+            Host host = peek(candidate);
+            (host != null && host.isDegraded(now) ? degraded : healthy).add(candidate);
+        }
+
+        record Known(URI uri, int index, int bucket) {
+        }
+
+        List<Known> known = new ArrayList<>();
+        for (int i = 0; i < healthy.size(); i++) {
+            Host host = peek(healthy.get(i));
+            double cost = host != null ? host.cost() : Double.NaN;
+            if (!Double.isNaN(cost))
+                known.add(new Known(healthy.get(i), i, (int) Math.floor(Math.log(Math.max(cost, 1)) / COST_BUCKET_BASE)));
+        }
+
+        if (known.size() > 1) {
+            int[] slots = known.stream().mapToInt(Known::index).toArray();
+            known.sort(Comparator.comparingInt(Known::bucket).thenComparingInt(Known::index));
+            for (int i = 0; i < slots.length; i++) {
+                healthy.set(slots[i], known.get(i).uri());
+            }
+        }
+
+        healthy.addAll(degraded);
+        return healthy.equals(candidates) ? candidates : List.copyOf(healthy);
+    }
+
+    /// Forgets all samples.
+    public static void clear() {
+        hosts.clear();
+    }
+
+    private MirrorHealth() {
+    }
+}
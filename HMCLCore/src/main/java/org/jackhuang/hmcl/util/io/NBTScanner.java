@@ -0,0 +1,305 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Reads selected tags of an uncompressed NBT stream without decoding the whole tree.
+///
+/// The scanner walks the stream once and asks a [Visitor] what to do with each named tag. Tags that are
+/// skipped are stepped over by their encoded length, so large arrays such as the block states of a schematic
+/// are never allocated.
+///
+/// Tags that are read are converted to plain Java values:
+///
+/// | NBT type     | Java type                         |
+/// |--------------|-----------------------------------|
+/// | `byte`       | [Byte]                            |
+/// | `short`      | [Short]                           |
+/// | `int`        | [Integer]                         |
+/// | `long`       | [Long]                            |
+/// | `float`      | [Float]                           |
+/// | `double`     | [Double]                          |
+/// | `byte[]`     | `byte[]`                          |
+/// | `string`     | [String]                          |
+/// | `list`       | [List]                            |
+/// | `compound`   | [Map] of [String] to values       |
+/// | `int[]`      | `int[]`                           |
+/// | `long[]`     | `long[]`                          |
+public final class NBTScanner {
+    public static final byte TAG_END = 0;
+    public static final byte TAG_BYTE = 1;
+    public static final byte TAG_SHORT = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_LONG = 4;
+    public static final byte TAG_FLOAT = 5;
+    public static final byte TAG_DOUBLE = 6;
+    public static final byte TAG_BYTE_ARRAY = 7;
+    public static final byte TAG_STRING = 8;
+    public static final byte TAG_LIST = 9;
+    public static final byte TAG_COMPOUND = 10;
+    public static final byte TAG_INT_ARRAY = 11;
+    public static final byte TAG_LONG_ARRAY = 12;
+
+    private static final int MAX_DEPTH = 512;
+
+    /// Arrays grow from this length as their elements arrive, so a corrupt length cannot allocate more than the data
+    private static final int INITIAL_ARRAY_LENGTH = 4096;
+
+    public enum Action {
+        /// Steps over the tag.
+        SKIP,
+        /// Reads the tag, with all its children, and passes it to [Visitor#visitValue(String, Object)].
+        READ,
+        /// Visits the children of a compound tag. Treated as [#SKIP] for other types.
+        ENTER,
+        /// Stops scanning.
+        STOP
+    }
+
+    public interface Visitor {
+        /// Decides what to do with a named tag.
+        ///
+        /// @param path the names of the enclosing compounds and of the tag, separated by `/`, for example `Metadata/Name`.
+        ///             The root compound has the empty path.
+        /// @param type the tag type, one of the `TAG_*` constants
+        Action visitTag(String path, byte type);
+
+        /// Receives a tag for which [#visitTag(String, byte)] returned [Action#READ].
+        default void visitValue(String path, Object value) {
+        }
+
+        /// Called after the last child of a compound that was entered, including the root compound.
+        ///
+        /// Paths may be ambiguous because tag names can contain `/`, so visitors that need to know which tags are
+        /// direct children of a compound should track it with this method.
+        default void visitEnd(String path) {
+        }
+    }
+
+    private static final class StopException extends RuntimeException {
+        StopException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final DataInput input;
+
+    private NBTScanner(DataInput input) {
+        this.input = input;
+    }
+
+    /// Scans an uncompressed NBT stream whose root is a compound tag.
+    ///
+    /// The root compound is entered without asking the visitor. The stream is not closed.
+    public static void scan(InputStream in, Visitor visitor) throws IOException {
+        DataInputStream input = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        byte type = input.readByte();
+        if (type != TAG_COMPOUND)
+            throw new IOException("Root tag is not a compound tag: " + type);
+        input.skipNBytes(input.readUnsignedShort()); // Name of the root tag
+
+        try {
+            new NBTScanner(input).scanCompound("", visitor, 0);
+        } catch (StopException ignored) {
+        }
+    }
+
+    private void scanCompound(String path, Visitor visitor, int depth) throws IOException {
+        checkDepth(depth);
+        String prefix = path.isEmpty() ? "" : path + "/";
+        while (true) {
+            byte type = input.readByte();
+            if (type == TAG_END) {
+                visitor.visitEnd(path);
+                return;
+            }
+
+            String childPath = prefix + input.readUTF();
+            Action action = visitor.visitTag(childPath, type);
+            switch (action) {
+                case READ -> visitor.visitValue(childPath, readPayload(type, depth + 1));
+                case ENTER -> {
+                    if (type == TAG_COMPOUND)
+                        scanCompound(childPath, visitor, depth + 1);
+                    else
+                        skipPayload(type, depth + 1);
+                }
+                case SKIP -> skipPayload(type, depth + 1);
+                case STOP -> throw new StopException();
+            }
+        }
+    }
+
+    private static void checkDepth(int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("NBT nested too deeply");
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0)
+            throw new IOException("Negative length: " + length);
+        return length;
+    }
+
+    /// Returns the next length of an array holding `current` elements out of `length`.
+    private static int grow(int current, int length) {
+        return (int) Math.min(length, 2L * current);
+    }
+
+    private Object readPayload(byte type, int depth) throws IOException {
+        checkDepth(depth);
+        switch (type) {
+            case TAG_BYTE:
+                return input.readByte();
+            case TAG_SHORT:
+                return input.readShort();
+            case TAG_INT:
+                return input.readInt();
+            case TAG_LONG:
+                return input.readLong();
+            case TAG_FLOAT:
+                return input.readFloat();
+            case TAG_DOUBLE:
+                return input.readDouble();
+            case TAG_BYTE_ARRAY: {
+                int length = checkLength(input.readInt());
+                byte[] array = new byte[Math.min(length, INITIAL_ARRAY_LENGTH)];
+                for (int i = 0; i < length; i = array.length) {
+                    if (i == array.length)
+                        array = Arrays.copyOf(array, grow(i, length));
+                    input.readFully(array, i, array.length - i);
+                }
+                return array;
+            }
+            case TAG_STRING:
+                return input.readUTF();
+            case TAG_LIST: {
+                byte elementType = input.readByte();
+                int length = input.readInt();
+                if (length <= 0)
+                    return List.of();
+                List<Object> list = new ArrayList<>(Math.min(length, 1024));
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(elementType, depth + 1));
+                }
+                return list;
+            }
+            case TAG_COMPOUND: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (true) {
+                    byte childType = input.readByte();
+                    if (childType == TAG_END)
+                        return map;
+                    String name = input.readUTF();
+                    map.put(name, readPayload(childType, depth + 1));
+                }
+            }
+            case TAG_INT_ARRAY: {
+                int length = checkLength(input.readInt());
+                int[] array = new int[Math.min(length, INITIAL_ARRAY_LENGTH)];
+                for (int i = 0; i < length; i++) {
+                    if (i == array.length)
+                        array = Arrays.copyOf(array, grow(i, length));
+                    array[i] = input.readInt();
+                }
+                return array;
+            }
+            case TAG_LONG_ARRAY: {
+                int length = checkLength(input.readInt());
+                long[] array = new long[Math.min(length, INITIAL_ARRAY_LENGTH)];
+                for (int i = 0; i < length; i++) {
+                    if (i == array.length)
+                        array = Arrays.copyOf(array, grow(i, length));
+                    array[i] = input.readLong();
+                }
+                return array;
+            }
+            default:
+                throw new IOException("Unknown tag type: " + type);
+        }
+    }
+
+    private void skip(long n) throws IOException {
+        while (n > 0) {
+            int step = (int) Math.min(n, Integer.MAX_VALUE);
+            int skipped = input.skipBytes(step);
+            if (skipped <= 0) {
+                // skipBytes may give up before the end of stream, make sure there is more data
+                input.readByte();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static int fixedSize(byte type) {
+        return switch (type) {
+            case TAG_BYTE -> 1;
+            case TAG_SHORT -> 2;
+            case TAG_INT, TAG_FLOAT -> 4;
+            case TAG_LONG, TAG_DOUBLE -> 8;
+            default -> -1;
+        };
+    }
+
+    private void skipPayload(byte type, int depth) throws IOException {
+        checkDepth(depth);
+        int size = fixedSize(type);
+        if (size > 0) {
+            skip(size);
+            return;
+        }
+
+        switch (type) {
+            case TAG_BYTE_ARRAY -> skip(checkLength(input.readInt()));
+            case TAG_INT_ARRAY -> skip(4L * checkLength(input.readInt()));
+            case TAG_LONG_ARRAY -> skip(8L * checkLength(input.readInt()));
+            case TAG_STRING -> skip(input.readUnsignedShort());
+            case TAG_LIST -> {
+                byte elementType = input.readByte();
+                int length = input.readInt();
+                if (length <= 0)
+                    return;
+                int elementSize = fixedSize(elementType);
+                if (elementSize > 0) {
+                    skip((long) elementSize * length);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        skipPayload(elementType, depth + 1);
+                    }
+                }
+            }
+            case TAG_COMPOUND -> {
+                while (true) {
+                    byte childType = input.readByte();
+                    if (childType == TAG_END)
+                        return;
+                    skip(input.readUnsignedShort());
+                    skipPayload(childType, depth + 1);
+                }
+            }
+            default -> throw new IOException("Unknown tag type: " + type);
+        }
+    }
+}
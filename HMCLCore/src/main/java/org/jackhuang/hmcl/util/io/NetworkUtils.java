@@ -26,6 +26,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.util.*;
@@ -182,6 +184,19 @@ public final class NetworkUtils {
                 && (domain.length() == suffix.length() || domain.charAt(domain.length() - suffix.length() - 1) == '.');
     }
 
+    private static @Nullable String findApiKey(@Nullable String host) {
+        if (host == null || host.isEmpty())
+            return null;
+
+        for (Pair<String, String> pair : API_KEYS) {
+            String hostSuffix = pair.getKey();
+            if (matchDomainSuffix(host, hostSuffix)) {
+                return pair.getValue();
+            }
+        }
+        return null;
+    }
+
     public static void injectApiKey(WebURL url, URLConnection connection) {
         if (!(connection instanceof HttpURLConnection))
             return;
@@ -190,17 +205,9 @@ public final class NetworkUtils {
             return;
         }
 
-        String host = url.getHost();
-        if (host == null || host.isEmpty())
-            return;
-
-        for (Pair<String, String> pair : API_KEYS) {
-            String hostSuffix = pair.getKey();
-            if (matchDomainSuffix(host, hostSuffix)) {
-                connection.addRequestProperty("x-api-key", pair.getValue());
-                return;
-            }
-        }
+        String apiKey = findApiKey(url.getHost());
+        if (apiKey != null)
+            connection.addRequestProperty("x-api-key", apiKey);
     }
 
     public static URLConnection createConnection(WebURL url) throws IOException {
@@ -237,6 +244,31 @@ public final class NetworkUtils {
         return (HttpURLConnection) createConnection(url);
     }
 
+    /// Creates a GET request builder with the same default headers as [#createConnection(WebURL)].
+    ///
+    /// @throws IOException if the URI is not a valid HTTP URI
+    public static HttpRequest.Builder createHttpRequest(URI uri) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(uri);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+
+        builder.timeout(TIMEOUT)
+                .header("Accept-Language", Locale.getDefault().toLanguageTag())
+                .header("User-Agent", USER_AGENT);
+
+        // Avoid the h2c upgrade handshake for plain HTTP, which some mirrors handle incorrectly
+        if ("http".equals(uri.getScheme()))
+            builder.version(HttpClient.Version.HTTP_1_1);
+
+        String apiKey = findApiKey(uri.getHost());
+        if (apiKey != null)
+            builder.header("x-api-key", apiKey);
+        return builder;
+    }
+
     private static void encodeCodePoint(StringBuilder builder, int codePoint) {
         builder.append(encodeURL(Character.toString(codePoint)));
     }
@@ -20,6 +20,7 @@ package org.jackhuang.hmcl.util.io;
 import java.io.IOException;
 import java.net.*;
 import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,11 @@ public record UrlResponseInfo(int responseCode, URI uri, HttpHeaders headers) {
         return new UrlResponseInfo(connection.getResponseCode(), toURI(connection.getURL()), headers(connection));
     }
 
+    /// Creates response metadata from an HTTP client response.
+    public static UrlResponseInfo of(HttpResponse<?> response) {
+        return new UrlResponseInfo(response.statusCode(), response.uri(), response.headers());
+    }
+
     /// Converts a response URL into a URI.
     private static URI toURI(URL url) throws IOException {
         try {
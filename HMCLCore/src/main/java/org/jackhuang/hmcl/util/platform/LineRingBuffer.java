@@ -0,0 +1,179 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.platform;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+
+/// Keeps the most recent lines of a process output in a fixed-size ring.
+///
+/// Adding a line is lock-free: each line claims a sequence number and overwrites the slot of the line
+/// `capacity` positions before it. Lines pushed out of the ring are dropped, or appended to a spill file if one
+/// was configured, so that [#lines()] can still replay the whole output. With a spill file, adding takes a lock
+/// so that lines are written to the file in the order they were added.
+public final class LineRingBuffer implements Closeable {
+
+    private record Entry(long sequence, String line) {
+    }
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final AtomicLong next = new AtomicLong();
+
+    private final @Nullable Path spillFile;
+    private @Nullable BufferedWriter spillWriter;
+    private long spilledLines;
+    private boolean closed;
+
+    /// @param capacity  the maximum number of lines kept in memory
+    /// @param spillFile the file receiving lines pushed out of the ring, or `null` to drop them
+    public LineRingBuffer(int capacity, @Nullable Path spillFile) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.spillFile = spillFile;
+    }
+
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    /// The number of lines added so far, including the ones no longer held in memory.
+    public long size() {
+        return next.get();
+    }
+
+    public void add(String line) {
+        if (spillFile == null) {
+            store(line);
+            return;
+        }
+
+        synchronized (this) {
+            Entry evicted = store(line);
+            if (evicted != null)
+                spill(evicted.line());
+        }
+    }
+
+    /// Stores `line` in the ring and returns the entry it replaced.
+    private @Nullable Entry store(String line) {
+        long sequence = next.getAndIncrement();
+        return ring.getAndSet(slot(sequence), new Entry(sequence, line));
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    private void spill(String line) {
+        if (closed) return;
+        try {
+            if (spillWriter == null) {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+            }
+            spillWriter.write(line);
+            spillWriter.newLine();
+            spilledLines++;
+        } catch (IOException e) {
+            LOG.warning("Unable to spill process output to " + spillFile, e);
+            closed = true;
+        }
+    }
+
+    /// Returns a view of the output from the oldest line still available to the newest one, without copying it.
+    ///
+    /// Lines added while the stream is consumed may or may not be included. The stream must be closed
+    /// if a spill file is used.
+    public Stream<String> lines() {
+        long start;
+        long end;
+        Stream<String> spilled;
+        // With a spill file, holding the lock keeps the spilled lines and the ring consistent with each other
+        synchronized (this) {
+            end = next.get();
+            start = Math.max(0, end - ring.length());
+            spilled = spilledLines();
+        }
+
+        Stream<String> recent = LongStream.range(start, end)
+                .mapToObj(sequence -> {
+                    Entry entry = ring.get(slot(sequence));
+                    // The slot was already reused by a newer line, or not yet filled by its writer
+                    return entry != null && entry.sequence() == sequence ? entry.line() : null;
+                })
+                .filter(Objects::nonNull);
+
+        return spilled != null ? Stream.concat(spilled, recent).onClose(spilled::close) : recent;
+    }
+
+    /// Applies `action` to [#lines()] while holding the lock and closes the stream afterwards.
+    ///
+    /// With a spill file, no line is added or spilled until the action returns, so the lines are traversed in place
+    /// without being copied first.
+    public synchronized <R> R withLines(Function<? super Stream<String>, ? extends R> action) {
+        try (Stream<String> lines = lines()) {
+            return action.apply(lines);
+        }
+    }
+
+    private @Nullable Stream<String> spilledLines() {
+        if (spillWriter == null || closed) return null;
+        try {
+            spillWriter.flush();
+            return Files.lines(spillFile, StandardCharsets.UTF_8).limit(spilledLines);
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warning("Unable to read spilled process output " + spillFile, e);
+            return null;
+        }
+    }
+
+    /// Stops spilling and deletes the spill file. Lines in memory stay readable.
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException ignored) {
+            }
+            spillWriter = null;
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                LOG.warning("Unable to delete " + spillFile, e);
+            }
+        }
+    }
+}
@@ -21,10 +21,16 @@ import org.jackhuang.hmcl.launch.StreamPump;
 import org.jackhuang.hmcl.util.Lang;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
 
 /// The managed process.
 ///
@@ -32,12 +38,27 @@ import java.util.function.Predicate;
 /// <!-- @see org.jackhuang.hmcl.launch.ExitWaiter -->
 /// @see org.jackhuang.hmcl.launch.StreamPump
 public final class ManagedProcess {
+    /// The number of output lines kept in memory, older lines are dropped unless `hmcl.process.spill` is set.
+    public static final int MAX_LINES = Integer.getInteger("hmcl.process.maxLines", 10000);
+
+    private static LineRingBuffer createLineBuffer() {
+        Path spillFile = null;
+        if (Boolean.getBoolean("hmcl.process.spill")) {
+            try {
+                spillFile = Files.createTempFile("hmcl-process-", ".log");
+            } catch (IOException e) {
+                LOG.warning("Unable to create spill file for process output", e);
+            }
+        }
+        return new LineRingBuffer(MAX_LINES, spillFile);
+    }
+
     private final ReentrantLock lock = new ReentrantLock();
     private final Process process;
     private final List<String> commands;
     private final String classpath;
     private final Map<String, Object> properties = new HashMap<>();
-    private final List<String> lines = new ArrayList<>();
+    private final LineRingBuffer lines = createLineBuffer();
     private final List<Thread> relatedThreads = new ArrayList<>();
 
     public ManagedProcess(ProcessBuilder processBuilder) throws IOException {
@@ -106,35 +127,39 @@ public final class ManagedProcess {
     }
 
     /**
-     * The (unmodifiable) standard output/error lines.
+     * The (unmodifiable) standard output/error lines that are still retained.
      * If you want to add lines, use {@link #addLine}
      *
      * @see #addLine
+     * @see #lines()
      */
     public List<String> getLines(Predicate<String> lineFilter) {
-        lock.lock();
-        try {
-            if (lineFilter == null)
-                return List.copyOf(lines);
-
-            ArrayList<String> res = new ArrayList<>();
-            for (String line : this.lines) {
-                if (lineFilter.test(line))
-                    res.add(line);
-            }
-            return Collections.unmodifiableList(res);
-        } finally {
-            lock.unlock();
+        try (Stream<String> stream = lines()) {
+            return lineFilter == null ? stream.toList() : stream.filter(lineFilter).toList();
         }
     }
 
+    /// A streaming view of the retained standard output/error lines, which must be closed after use.
+    ///
+    /// At most [#MAX_LINES] recent lines are kept in memory.
+    public Stream<String> lines() {
+        return lines.lines();
+    }
+
+    /// Applies `action` to the retained standard output/error lines without copying them.
+    ///
+    /// @see LineRingBuffer#withLines(Function)
+    public <R> R withLines(Function<? super Stream<String>, ? extends R> action) {
+        return lines.withLines(action);
+    }
+
     public void addLine(String line) {
-        lock.lock();
-        try {
-            lines.add(line);
-        } finally {
-            lock.unlock();
-        }
+        lines.add(line);
+    }
+
+    /// Releases the retained output, including the spill file if there is one.
+    public void closeLines() {
+        lines.close();
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.addon.repository;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the bulk lookup shared by the CurseForge and Modrinth repositories.
+@NotNullByDefault
+public final class BatchedLookupTest {
+
+    /// Verifies that duplicated keys are sent once and that no batch exceeds the batch size.
+    @Test
+    public void splitsDistinctKeysIntoBatches() throws IOException {
+        List<List<Integer>> batches = new ArrayList<>();
+        Map<Integer, String> result = BatchedLookup.lookup(List.of(1, 2, 3, 4, 2, 5, 6, 7, 1), 3, batch -> {
+            batches.add(List.copyOf(batch));
+            Map<Integer, String> values = new HashMap<>();
+            for (Integer key : batch) {
+                values.put(key, "v" + key);
+            }
+            return values;
+        });
+
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7)), batches);
+        assertEquals(7, result.size());
+        assertEquals("v7", result.get(7));
+    }
+
+    /// Verifies that keys unknown to the remote are absent while the recognized ones reach every file sharing them.
+    @Test
+    public void leavesUnmatchedFilesOut(@TempDir Path tempDir) throws IOException {
+        Path first = Files.writeString(tempDir.resolve("first.jar"), "a");
+        Path copy = Files.writeString(tempDir.resolve("copy.jar"), "a");
+        Path unknown = Files.writeString(tempDir.resolve("unknown.jar"), "b");
+
+        Map<String, List<Path>> filesByKey = BatchedLookup.groupByKey(List.of(first, copy, unknown, first), "content",
+                Files::readString);
+        assertEquals(2, filesByKey.size());
+        assertEquals(2, filesByKey.get("a").size());
+
+        Map<String, String> versions = BatchedLookup.lookup(filesByKey.keySet(), 10,
+                batch -> batch.contains("a") ? Map.of("a", "1.0") : Map.of());
+        Map<Path, String> result = BatchedLookup.toFileMap(filesByKey, versions);
+
+        assertEquals(Map.of(first, "1.0", copy, "1.0"), result);
+        assertFalse(result.containsKey(unknown));
+    }
+
+    /// Verifies that a file whose key cannot be computed does not fail the others.
+    @Test
+    public void skipsUnreadableFiles(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("mod.jar"), "a");
+        Path missing = tempDir.resolve("missing.jar");
+
+        Map<String, List<Path>> filesByKey = BatchedLookup.groupByKey(List.of(file, missing), "content", Files::readString);
+
+        assertEquals(Map.of("a", List.of(file)), filesByKey);
+    }
+}
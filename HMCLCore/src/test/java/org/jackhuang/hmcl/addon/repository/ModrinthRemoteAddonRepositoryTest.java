@@ -0,0 +1,49 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.addon.repository;
+
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
+import org.jackhuang.hmcl.util.DigestUtils;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/// Tests the bulk update lookup of [ModrinthRemoteAddonRepository].
+@NotNullByDefault
+public final class ModrinthRemoteAddonRepositoryTest {
+
+    /// Verifies that a loader without a Modrinth name makes the caller check each file on its own
+    /// instead of reporting that nothing has an update.
+    @Test
+    public void fallsBackForUnmappedLoaders(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("mod.jar"), "a");
+
+        assertNull(ModrinthRemoteAddonRepository.MODS.getLatestVersionsByLocalFiles(List.of(file), "1.20.1", ModLoaderType.UNKNOWN));
+        assertNull(ModrinthRemoteAddonRepository.MODS.getLatestVersionsByLocalFiles(List.of(file), "1.20.1", ModLoaderType.CLEANROOM));
+
+        String sha1 = DigestUtils.digestToString("SHA-1", file);
+        assertNull(ModrinthRemoteAddonRepository.MODS.getLatestVersionsBySha1(List.of(sha1), "1.20.1", ModLoaderType.UNKNOWN));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests reusing parsed asset indexes.
+public final class AssetIndexCacheTest {
+
+    private static void writeIndex(Path file, String hash, Instant lastModified) throws Exception {
+        Files.writeString(file, "{\"objects\":{\"icons/icon_16x16.png\":{\"hash\":\"" + hash + "\",\"size\":3665}}}");
+        Files.setLastModifiedTime(file, FileTime.from(lastModified));
+    }
+
+    /// Verifies that an unchanged index is parsed once and a rewritten index is parsed again.
+    @Test
+    public void reusesUnchangedIndex(@TempDir Path tempDir) throws Exception {
+        Path indexFile = tempDir.resolve("17.json");
+        Instant lastModified = Instant.now().minusSeconds(60);
+        writeIndex(indexFile, "bdf48ef6b5d0d23bbb02e17d04865216179f510a", lastModified);
+
+        AssetIndex index = AssetIndexCache.read(indexFile);
+        assertEquals("bdf48ef6b5d0d23bbb02e17d04865216179f510a", index.getObjects().get("icons/icon_16x16.png").hash());
+        assertSame(index, AssetIndexCache.read(indexFile));
+
+        writeIndex(indexFile, "92750c5f93c312ba9ab413d546f32190c56d6f1f", lastModified.plusSeconds(1));
+        AssetIndex updated = AssetIndexCache.read(indexFile);
+        assertNotSame(index, updated);
+        assertEquals("92750c5f93c312ba9ab413d546f32190c56d6f1f", updated.getObjects().get("icons/icon_16x16.png").hash());
+    }
+}
@@ -17,6 +17,9 @@
  */
 package org.jackhuang.hmcl.game;
 
+import org.jackhuang.hmcl.addon.mod.LocalModFile;
+import org.jackhuang.hmcl.addon.mod.ModLoaderType;
+import org.jackhuang.hmcl.addon.mod.ModManager;
 import org.jackhuang.hmcl.download.DefaultCacheRepository;
 import org.jackhuang.hmcl.download.DefaultDependencyManager;
 import org.jackhuang.hmcl.download.MojangDownloadProvider;
@@ -39,9 +42,13 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -142,6 +149,128 @@ public final class DefaultGameInstanceTest {
         assertEquals(instance.getInstanceRoot().resolve("modpack.json"), instance.getModpackConfigurationFile());
     }
 
+    /// Legacy assets are copied into `resources`, and a reconstruction marker does not hide files deleted since.
+    @Test
+    public void testReconstructedResourcesAreCopiedAndRechecked(@TempDir Path tempDirectory) throws IOException {
+        TestRepository repository = new TestRepository(tempDirectory);
+        GameInstanceID instanceId = new GameInstanceID("instance");
+        TestGameInstance instance = repository.publish(instanceId, new GameInstanceManifest(instanceId));
+        String assetId = "pre-1.6";
+        String assetName = "sound/step/grass1.ogg";
+        byte[] content = "grass".getBytes(StandardCharsets.UTF_8);
+        String assetHash = DigestUtils.digestToString("SHA-1", content);
+        Path indexFile = repository.getLayout().getAssetIndexFile(assetId);
+        Files.createDirectories(indexFile.getParent());
+        Files.writeString(indexFile, """
+                {
+                  "map_to_resources": true,
+                  "objects": {
+                    "%s": {
+                      "hash": "%s",
+                      "size": %d
+                    }
+                  }
+                }
+                """.formatted(assetName, assetHash, content.length));
+        Path object = repository.getLayout().getAssetObject(instance.getAssetIndex(assetId).getObjects().get(assetName));
+        Files.createDirectories(object.getParent());
+        Files.write(object, content);
+
+        Path virtualRoot = repository.getLayout().getAssetDirectory().resolve("virtual").resolve(assetId);
+        Path resource = instance.getRunDirectory().resolve("resources").resolve(assetName);
+        assertEquals(virtualRoot, instance.getActualAssetDirectory(assetId));
+        assertTrue(Files.isRegularFile(virtualRoot.resolve(assetName)));
+        assertFalse(Files.isSameFile(object, resource));
+
+        Files.writeString(resource, "modified");
+        assertEquals("grass", Files.readString(object));
+
+        Files.delete(resource);
+        Files.delete(virtualRoot.resolve(assetName));
+        assertEquals(virtualRoot, instance.getActualAssetDirectory(assetId));
+        assertEquals("grass", Files.readString(resource));
+        assertTrue(Files.isRegularFile(virtualRoot.resolve(assetName)));
+    }
+
+    /// Mod metadata is cached in the instance state directory and read again once the mod file changes.
+    @Test
+    public void testModMetadataCacheIsReusedAndInvalidated(@TempDir Path tempDirectory) throws IOException {
+        TestRepository repository = new TestRepository(tempDirectory);
+        GameInstanceID instanceId = new GameInstanceID("instance");
+        writeVersionJar(repository.getLayout().getInstanceJarFile(instanceId), "1.20.1");
+        TestGameInstance instance = repository.publish(instanceId, new GameInstanceManifest(instanceId));
+
+        Path mod = instance.getRunDirectory().resolve("mods").resolve("example.jar");
+        Files.createDirectories(mod.getParent());
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(mod))) {
+            output.putNextEntry(new ZipEntry("fabric.mod.json"));
+            output.write("""
+                    {"schemaVersion": 1, "id": "example", "version": "1.0", "name": "Example", "description": ""}
+                    """.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        // Files modified just now are not cached yet
+        FileTime lastModified = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Files.setLastModifiedTime(mod, lastModified);
+
+        Path legacyCacheFile = instance.getInstanceRoot().resolve(".mod-metadata.json");
+        Files.writeString(legacyCacheFile, "{}");
+        assertEquals(List.of("Example"), readModNames(instance));
+        assertTrue(Files.isRegularFile(repository.getLayout().getInstanceStateDirectory(instanceId).resolve("mod-metadata.json")));
+        assertFalse(Files.exists(legacyCacheFile));
+
+        // Same size and modification time, so the cached metadata is used
+        Files.write(mod, new byte[(int) Files.size(mod)]);
+        Files.setLastModifiedTime(mod, lastModified);
+        assertEquals(List.of("Example"), readModNames(instance));
+
+        Files.setLastModifiedTime(mod, FileTime.from(lastModified.toInstant().plusSeconds(60)));
+        assertEquals(List.of("example"), readModNames(instance));
+    }
+
+    /// A long-lived mod manager drops its cached metadata once the installed mod loaders change.
+    @Test
+    public void testModMetadataCacheIsDroppedWhenModLoadersChange(@TempDir Path tempDirectory) throws IOException {
+        TestRepository repository = new TestRepository(tempDirectory);
+        GameInstanceID instanceId = new GameInstanceID("instance");
+        writeVersionJar(repository.getLayout().getInstanceJarFile(instanceId), "1.20.1");
+        TestGameInstance instance = repository.publish(instanceId, new GameInstanceManifest(instanceId));
+
+        // Readable both as a Fabric mod and as an old Forge mod
+        Path mod = instance.getRunDirectory().resolve("mods").resolve("example.jar");
+        Files.createDirectories(mod.getParent());
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(mod))) {
+            output.putNextEntry(new ZipEntry("fabric.mod.json"));
+            output.write("""
+                    {"schemaVersion": 1, "id": "example", "version": "1.0", "name": "Example", "description": ""}
+                    """.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("mcmod.info"));
+            output.write("""
+                    [{"modid": "example", "name": "Example", "version": "1.0"}]
+                    """.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        Files.setLastModifiedTime(mod, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+        ModManager modManager = instance.getModManager();
+        instance.modLoaders = Set.of(ModLoaderType.FABRIC);
+        modManager.refresh();
+        assertEquals(List.of(ModLoaderType.FABRIC),
+                modManager.getLocalFiles().stream().map(LocalModFile::getModLoaderType).toList());
+
+        instance.modLoaders = Set.of(ModLoaderType.FORGE);
+        modManager.refresh();
+        assertEquals(List.of(ModLoaderType.FORGE),
+                modManager.getLocalFiles().stream().map(LocalModFile::getModLoaderType).toList());
+    }
+
+    private static List<String> readModNames(DefaultGameInstance instance) throws IOException {
+        ModManager modManager = new ModManager(instance);
+        modManager.refresh();
+        return modManager.getLocalFiles().stream().map(LocalModFile::getName).toList();
+    }
+
     /// The selected primary jar follows the resolved manifest's `jar` field.
     @Test
     public void testPrimaryJarUsesResolvedJarField(@TempDir Path tempDirectory) {
@@ -550,6 +679,9 @@ public final class DefaultGameInstanceTest {
     @NotNullByDefault
     private static final class TestGameInstance extends DefaultGameInstance {
 
+        /// Installed mod loaders reported instead of the detected ones, or `null` to detect them.
+        private @Nullable Set<ModLoaderType> modLoaders;
+
         /// Creates a test instance without shared session state.
         ///
         /// @param snapshot     the owning snapshot
@@ -592,6 +724,12 @@ public final class DefaultGameInstanceTest {
             return new TestGameInstance(newSnapshot, id, manifest, this);
         }
 
+        /// {@inheritDoc}
+        @Override
+        public Set<ModLoaderType> getModLoaders() {
+            return modLoaders != null ? modLoaders : super.getModLoaders();
+        }
+
         /// Returns the cache without triggering version detection.
         ///
         /// @return the cached version, or `null` when detection has not run
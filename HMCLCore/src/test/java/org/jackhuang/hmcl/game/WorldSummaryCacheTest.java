@@ -0,0 +1,101 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.game;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests remembering and invalidating what the world list shows about each world.
+@NotNullByDefault
+public final class WorldSummaryCacheTest {
+
+    private static final FileTime LAST_MODIFIED = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+
+    /// Writes a minimal `level.dat`, old enough to be remembered.
+    private static void writeLevelData(Path worldDir, String name, long lastPlayed) throws IOException {
+        Path levelDat = worldDir.resolve("level.dat");
+        Files.createDirectories(worldDir);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(levelDat)))) {
+            out.writeByte(10); // TAG_Compound
+            out.writeUTF("");
+            out.writeByte(10);
+            out.writeUTF("Data");
+            out.writeByte(8); // TAG_String
+            out.writeUTF("LevelName");
+            out.writeUTF(name);
+            out.writeByte(4); // TAG_Long
+            out.writeUTF("LastPlayed");
+            out.writeLong(lastPlayed);
+            out.writeByte(0); // TAG_End of Data
+            out.writeByte(0); // TAG_End of the root
+        }
+        Files.setLastModifiedTime(levelDat, LAST_MODIFIED);
+    }
+
+    /// Verifies that a saved summary is used by a later cache without reading `level.dat` again.
+    @Test
+    public void reusesSavedSummaries(@TempDir Path tempDir) throws IOException {
+        Path cacheFile = tempDir.resolve("world-summaries.json");
+        Path worldDir = tempDir.resolve("saves").resolve("world");
+        writeLevelData(worldDir, "My World", 42L);
+
+        WorldSummaryCache cache = new WorldSummaryCache(cacheFile);
+        assertEquals("My World", cache.load(worldDir).getWorldName());
+        cache.save();
+
+        // Garbage of the same size and timestamp can only be listed from the summary
+        Path levelDat = worldDir.resolve("level.dat");
+        Files.write(levelDat, new byte[(int) Files.size(levelDat)]);
+        Files.setLastModifiedTime(levelDat, LAST_MODIFIED);
+
+        World world = new WorldSummaryCache(cacheFile).load(worldDir);
+        assertEquals("My World", world.getWorldName());
+        assertEquals(42L, world.getLastPlayed());
+    }
+
+    /// Verifies that a summary is dropped once `level.dat` changes.
+    @Test
+    public void readsChangedLevelData(@TempDir Path tempDir) throws IOException {
+        Path cacheFile = tempDir.resolve("world-summaries.json");
+        Path worldDir = tempDir.resolve("saves").resolve("world");
+        writeLevelData(worldDir, "Old Name", 1L);
+
+        WorldSummaryCache cache = new WorldSummaryCache(cacheFile);
+        cache.load(worldDir);
+        cache.save();
+
+        writeLevelData(worldDir, "New Name", 2L);
+        Files.setLastModifiedTime(worldDir.resolve("level.dat"), FileTime.from(LAST_MODIFIED.toInstant().plusSeconds(1)));
+
+        World world = new WorldSummaryCache(cacheFile).load(worldDir);
+        assertEquals("New Name", world.getWorldName());
+        assertEquals(2L, world.getLastPlayed());
+    }
+}
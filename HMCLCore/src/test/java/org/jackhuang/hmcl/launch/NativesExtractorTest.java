@@ -0,0 +1,101 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.launch;
+
+import org.jackhuang.hmcl.util.FileHashIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests extracting native libraries incrementally.
+public final class NativesExtractorTest {
+
+    private static void writeJar(Path jar, Map<String, String> entries) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static void extract(Path natives, Path... jars) throws IOException {
+        List<NativesExtractor.Source> sources = Arrays.stream(jars)
+                .map(jar -> new NativesExtractor.Source(jar, (relativePath, destFile) -> !relativePath.startsWith("META-INF/")))
+                .toList();
+        new NativesExtractor(natives, "", sources, new FileHashIndex(null)).extract();
+    }
+
+    /// Verifies that the first jar wins, that missing files are restored and that files dropped from the jars are deleted.
+    @Test
+    public void extractsIncrementally(@TempDir Path tempDir) throws IOException {
+        Path first = tempDir.resolve("first.jar");
+        Path second = tempDir.resolve("second.jar");
+        Path natives = tempDir.resolve("natives");
+        writeJar(first, Map.of("liblwjgl.so", "lwjgl", "META-INF/MANIFEST.MF", "manifest"));
+        writeJar(second, Map.of("liblwjgl.so", "other", "libopenal.so", "openal"));
+
+        extract(natives, first, second);
+        assertEquals("lwjgl", Files.readString(natives.resolve("liblwjgl.so")));
+        assertEquals("openal", Files.readString(natives.resolve("libopenal.so")));
+        assertFalse(Files.exists(natives.resolve("META-INF")));
+        assertTrue(Files.isRegularFile(natives.resolve(NativesExtractor.MANIFEST_FILE_NAME)));
+
+        Files.delete(natives.resolve("libopenal.so"));
+        extract(natives, first, second);
+        assertEquals("openal", Files.readString(natives.resolve("libopenal.so")));
+
+        writeJar(second, Map.of("libglfw.so", "glfw"));
+        extract(natives, first, second);
+        assertEquals("lwjgl", Files.readString(natives.resolve("liblwjgl.so")));
+        assertEquals("glfw", Files.readString(natives.resolve("libglfw.so")));
+        assertFalse(Files.exists(natives.resolve("libopenal.so")));
+    }
+
+    /// Verifies that an entry of a tampered manifest pointing outside the natives directory is never deleted.
+    @Test
+    public void ignoresEntriesOutsideDestination(@TempDir Path tempDir) throws IOException {
+        Path jar = tempDir.resolve("natives.jar");
+        Path natives = tempDir.resolve("natives");
+        Path outside = tempDir.resolve("outside.so");
+        Files.writeString(outside, "keep");
+        writeJar(jar, Map.of("liblwjgl.so", "lwjgl", "libopenal.so", "openal"));
+        extract(natives, jar);
+
+        Path manifest = natives.resolve(NativesExtractor.MANIFEST_FILE_NAME);
+        Files.writeString(manifest, Files.readString(manifest).replace("\"libopenal.so\"", "\"../outside.so\""));
+        writeJar(jar, Map.of("liblwjgl.so", "lwjgl"));
+        extract(natives, jar);
+
+        assertEquals("keep", Files.readString(outside));
+        assertFalse(Files.exists(natives.resolve("libopenal.so")));
+        assertEquals("lwjgl", Files.readString(natives.resolve("liblwjgl.so")));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.launch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests splitting process output into lines.
+public final class StreamPumpTest {
+
+    private static final String OUTPUT = "first\r\nsecond\rthird\n\n中文 line\r\n\rlast";
+    private static final List<String> LINES = List.of("first", "second", "third", "", "中文 line", "", "last");
+
+    private static List<String> pump(InputStream input, Charset charset) {
+        List<String> lines = new ArrayList<>();
+        StreamPump.ofBatches(input, lines::addAll, charset).run();
+        return lines;
+    }
+
+    /// Verifies that all kinds of line breaks are recognized the same way as [java.io.BufferedReader#readLine()].
+    @Test
+    public void splitsLines() {
+        assertEquals(LINES, pump(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        assertEquals(LINES, pump(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_16LE)), StandardCharsets.UTF_16LE));
+    }
+
+    /// Verifies that lines and multibyte characters split across reads are joined back together.
+    @Test
+    public void joinsLinesAcrossReads() {
+        InputStream oneByteAtATime = new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        assertEquals(LINES, pump(oneByteAtATime, StandardCharsets.UTF_8));
+    }
+}
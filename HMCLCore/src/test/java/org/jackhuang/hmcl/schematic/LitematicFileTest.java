@@ -20,12 +20,17 @@ package org.jackhuang.hmcl.schematic;
 import javafx.geometry.Point3D;
 import org.jackhuang.hmcl.game.CrashReportAnalyzerTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -50,4 +55,47 @@ public final class LitematicFileTest {
         assertEquals(new Point3D(17, 26, 13), file.getEnclosingSize());
         assertEquals(1, file.getRegionCount());
     }
+
+    /// Regions are counted as the direct children of `Regions`, even if their names contain `/`.
+    @Test
+    public void countsRegionsWithSlashInName(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("regions.litematic");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeByte(10); // TAG_Compound
+            out.writeUTF("");
+            out.writeByte(3); // TAG_Int
+            out.writeUTF("Version");
+            out.writeInt(6);
+            out.writeByte(10);
+            out.writeUTF("Metadata");
+            out.writeByte(8); // TAG_String
+            out.writeUTF("Name");
+            out.writeUTF("regions");
+            out.writeByte(0);
+
+            out.writeByte(10);
+            out.writeUTF("Regions");
+            for (String region : new String[]{"base/floor", "roof"}) {
+                out.writeByte(10);
+                out.writeUTF(region);
+                out.writeByte(10);
+                out.writeUTF("Size");
+                out.writeByte(3);
+                out.writeUTF("x");
+                out.writeInt(1);
+                out.writeByte(0);
+                out.writeByte(0);
+            }
+            out.writeByte(0);
+
+            out.writeByte(3);
+            out.writeUTF("Regions/extra");
+            out.writeInt(0);
+            out.writeByte(0);
+        }
+
+        LitematicFile litematic = LitematicFile.load(file);
+        assertEquals("regions", litematic.getName());
+        assertEquals(2, litematic.getRegionCount());
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.task;
+
+import org.jackhuang.hmcl.util.Lang;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.jackhuang.hmcl.util.logging.Logger.LOG;
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests running task graphs with and without hop elision.
+public final class AsyncTaskExecutorTest {
+
+    private static Task<?> fanOut(int count, AtomicInteger counter) {
+        List<Task<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(Task.runAsync(counter::incrementAndGet));
+        }
+        return Task.allOf(tasks);
+    }
+
+    private static Task<Integer> chain(int length) {
+        Task<Integer> task = Task.supplyAsync(() -> 0);
+        for (int i = 0; i < length; i++) {
+            task = task.thenApplyAsync(value -> value + 1);
+        }
+        return task;
+    }
+
+    /// Verifies that wide and deep graphs complete in both modes, deep ones without overflowing the stack.
+    @Test
+    public void runsWideAndDeepGraphs() {
+        for (boolean hopElision : new boolean[]{false, true}) {
+            AtomicInteger counter = new AtomicInteger();
+            assertTrue(new AsyncTaskExecutor(fanOut(2000, counter), hopElision).test());
+            assertEquals(2000, counter.get());
+
+            Task<Integer> chain = chain(1000);
+            assertTrue(new AsyncTaskExecutor(chain, hopElision).test());
+            assertEquals(1000, chain.getResult());
+        }
+    }
+
+    /// Verifies that bookkeeping stages do not run on the threads of a fixed-size pool.
+    @Test
+    public void doesNotRunBookkeepingOnBoundedPool() {
+        ThreadPoolExecutor pool = Lang.threadPool("Bounded", true, 1, 10, TimeUnit.SECONDS);
+        try {
+            Task<?> task = Task.runAsync(pool, () -> {
+                assertTrue(Lang.isBoundedPoolThread(Thread.currentThread()));
+                // Finish after the next stage is attached, so that the pool thread would be the one to run it
+                Thread.sleep(100);
+            });
+            AtomicReference<Thread> finishedOn = new AtomicReference<>();
+            AsyncTaskExecutor executor = new AsyncTaskExecutor(task, true);
+            executor.addTaskListener(new TaskListener() {
+                @Override
+                public void onFinished(Task<?> finished) {
+                    if (finished == task)
+                        finishedOn.set(Thread.currentThread());
+                }
+            });
+
+            assertTrue(executor.test());
+            assertFalse(Lang.isBoundedPoolThread(finishedOn.get()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /// Logs the scheduling overhead per task of a wide graph of empty tasks, with and without hop elision.
+    ///
+    /// Run with `-Dhmcl.benchmark=true`.
+    @Test
+    @EnabledIfSystemProperty(named = "hmcl.benchmark", matches = "true")
+    public void benchmarkSchedulingOverhead() {
+        int count = 5000;
+        for (int round = 0; round < 8; round++) {
+            for (boolean hopElision : new boolean[]{false, true}) {
+                AtomicInteger counter = new AtomicInteger();
+                Task<?> task = fanOut(count, counter);
+                long start = System.nanoTime();
+                assertTrue(new AsyncTaskExecutor(task, hopElision).test());
+                long elapsed = System.nanoTime() - start;
+                if (round >= 4) {
+                    LOG.info(String.format("hop elision %-5s: %,d ns per task", hopElision, elapsed / count));
+                }
+            }
+        }
+    }
+}
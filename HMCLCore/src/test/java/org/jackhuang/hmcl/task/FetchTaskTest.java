@@ -22,6 +22,7 @@ import com.sun.net.httpserver.HttpServer;
 import org.jackhuang.hmcl.util.CacheRepository;
 import org.jackhuang.hmcl.util.DigestUtils;
 import org.jackhuang.hmcl.util.io.ChecksumMismatchException;
+import org.jackhuang.hmcl.util.io.MirrorHealth;
 import org.jackhuang.hmcl.util.io.NetworkUtils;
 import org.jackhuang.hmcl.util.io.UrlResponseInfo;
 import org.jetbrains.annotations.NotNullByDefault;
@@ -30,16 +31,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.URI;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.*;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -75,6 +81,27 @@ public final class FetchTaskTest {
         }
     }
 
+    /// Ensures failures of the local file, such as checksum mismatches, do not mark the mirror degraded.
+    @Test
+    public void checksumMismatchDoesNotDegradeMirror(@TempDir Path tempDir) throws IOException {
+        byte[] data = "downloaded".getBytes(UTF_8);
+        MirrorHealth.clear();
+        try (TestHttpServer server = TestHttpServer.start(exchange -> sendBytes(exchange, 200, data))) {
+            FileDownloadTask task = new FileDownloadTask(
+                    server.uri(),
+                    tempDir.resolve("target.bin"),
+                    new FileDownloadTask.IntegrityCheck("SHA-1", "0000000000000000000000000000000000000000")
+            );
+            task.setCacheRepository(newRepository(tempDir));
+            task.setRetry(5);
+
+            assertFalse(task.test());
+            assertFalse(MirrorHealth.isDegraded(server.uri()));
+        } finally {
+            MirrorHealth.clear();
+        }
+    }
+
     /// Ensures matching content is published and reused by its expected SHA-1.
     @Test
     public void cacheFileTaskUsesExpectedSha1(@TempDir Path tempDir) throws IOException {
@@ -284,6 +311,193 @@ public final class FetchTaskTest {
         }
     }
 
+    /// Ensures a large file is fetched as parallel byte ranges and verified once all of them land.
+    @Test
+    public void largeFileIsDownloadedInSegments(@TempDir Path tempDir) throws IOException {
+        byte[] data = new byte[17 * 1024 * 1024];
+        new Random(0).nextBytes(data);
+        String sha1 = DigestUtils.digestToString(CacheRepository.SHA1, data);
+        List<@Nullable String> ranges = Collections.synchronizedList(new ArrayList<>());
+
+        try (TestHttpServer server = TestHttpServer.start(exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range);
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().set("ETag", "\"large\"");
+
+            if (range == null) {
+                sendBytes(exchange, 200, data);
+                return;
+            }
+
+            assertEquals("\"large\"", exchange.getRequestHeaders().getFirst("If-Range"));
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Integer.parseInt(bounds[1]);
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+            sendBytes(exchange, 206, Arrays.copyOfRange(data, start, end + 1));
+        })) {
+            Path target = tempDir.resolve("target.bin");
+            FileDownloadTask task = new FileDownloadTask(server.uri(), target,
+                    new FileDownloadTask.IntegrityCheck("SHA-1", sha1));
+            task.setCacheRepository(newRepository(tempDir));
+            task.setRetry(1);
+
+            assertTrue(task.test(), () -> String.valueOf(task.getException()));
+            assertArrayEquals(data, Files.readAllBytes(target));
+            assertEquals(4, ranges.size(), ranges::toString);
+            assertNull(ranges.get(0));
+        }
+    }
+
+    /// Ensures every byte range of a segmented download is a connection counted against the host limit.
+    @Test
+    public void segmentedRangesCountAgainstHostLimit(@TempDir Path tempDir) throws IOException {
+        byte[] data = new byte[17 * 1024 * 1024];
+        new Random(0).nextBytes(data);
+        String sha1 = DigestUtils.digestToString(CacheRepository.SHA1, data);
+        List<@Nullable String> ranges = Collections.synchronizedList(new ArrayList<>());
+
+        FetchTask.setHostConcurrency(2);
+        try (TestHttpServer server = TestHttpServer.start(exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range);
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().set("ETag", "\"large\"");
+
+            if (range == null) {
+                sendBytes(exchange, 200, data);
+                return;
+            }
+
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Integer.parseInt(bounds[1]);
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+            sendBytes(exchange, 206, Arrays.copyOfRange(data, start, end + 1));
+        })) {
+            Path target = tempDir.resolve("target.bin");
+            FileDownloadTask task = new FileDownloadTask(server.uri(), target,
+                    new FileDownloadTask.IntegrityCheck("SHA-1", sha1));
+            task.setCacheRepository(newRepository(tempDir));
+            task.setRetry(1);
+
+            assertTrue(task.test(), () -> String.valueOf(task.getException()));
+            assertArrayEquals(data, Files.readAllBytes(target));
+            // The first connection holds one of the two permits, so only one extra range is requested
+            assertEquals(2, ranges.size(), ranges::toString);
+        } finally {
+            FetchTask.setHostConcurrency(Integer.MAX_VALUE);
+        }
+    }
+
+    /// Ensures a task waiting for a busy host does not hold a download slot that a task for another host could use.
+    @Test
+    public void waitingForBusyHostLeavesSlotForOtherHosts() throws Exception {
+        CountDownLatch slowRequestArrived = new CountDownLatch(1);
+        CountDownLatch releaseSlowHost = new CountDownLatch(1);
+        int previousConcurrency = FetchTask.getDownloadExecutorConcurrency();
+
+        FetchTask.setDownloadExecutorConcurrency(2);
+        FetchTask.setHostConcurrency(1);
+        try (TestHttpServer slowServer = TestHttpServer.start(exchange -> {
+            slowRequestArrived.countDown();
+            try {
+                assertTrue(releaseSlowHost.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            sendBytes(exchange, 200, "slow".getBytes(UTF_8));
+        });
+             TestHttpServer fastServer = TestHttpServer.start("localhost",
+                     exchange -> sendBytes(exchange, 200, "fast".getBytes(UTF_8)))) {
+            TextFetchTask first = new TextFetchTask(slowServer.uri());
+            TextFetchTask second = new TextFetchTask(slowServer.uri());
+            TextFetchTask other = new TextFetchTask(fastServer.uri());
+
+            CompletableFuture<Boolean> firstResult = CompletableFuture.supplyAsync(first::test);
+            assertTrue(slowRequestArrived.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> secondResult = CompletableFuture.supplyAsync(second::test);
+            // Let the second task reach the host limit
+            Thread.sleep(200);
+
+            // Both slots would be taken if the second task held one while waiting for its host
+            assertTrue(other.test(), () -> String.valueOf(other.getException()));
+            assertEquals("fast", other.getResult());
+            assertEquals(1, releaseSlowHost.getCount());
+
+            releaseSlowHost.countDown();
+            assertTrue(firstResult.get(10, TimeUnit.SECONDS));
+            assertTrue(secondResult.get(10, TimeUnit.SECONDS));
+            assertEquals("slow", second.getResult());
+        } finally {
+            releaseSlowHost.countDown();
+            FetchTask.setHostConcurrency(Integer.MAX_VALUE);
+            FetchTask.setDownloadExecutorConcurrency(previousConcurrency);
+        }
+    }
+
+    /// Ensures redirected requests go through the shared HTTP client and are counted in its statistics.
+    @Test
+    public void redirectsAreCountedInTransportStatistics(@TempDir Path tempDir) throws IOException {
+        byte[] data = "redirected".getBytes(UTF_8);
+        AtomicInteger requestCount = new AtomicInteger();
+
+        try (TestHttpServer server = TestHttpServer.start(exchange -> {
+            if (requestCount.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().set("Location", "/file?redirected");
+                exchange.sendResponseHeaders(302, -1);
+                exchange.close();
+            } else {
+                assertEquals("redirected", exchange.getRequestURI().getQuery());
+                sendBytes(exchange, 200, data);
+            }
+        })) {
+            long requestsBefore = FetchTask.getTransportStatistics().requests();
+
+            TextFetchTask task = new TextFetchTask(server.uri());
+            task.setCacheRepository(newRepository(tempDir));
+            task.setRetry(1);
+
+            assertTrue(task.test(), () -> String.valueOf(task.getException()));
+            assertEquals("redirected", task.getResult());
+            assertEquals(2, requestCount.get());
+            assertTrue(FetchTask.getTransportStatistics().requests() - requestsBefore >= 2);
+        }
+    }
+
+    /// Ensures requests are relayed by a SOCKS proxy returned by the proxy selector instead of going direct.
+    @Test
+    public void socksProxyIsNotBypassed(@TempDir Path tempDir) throws IOException {
+        byte[] data = "proxied".getBytes(UTF_8);
+        ProxySelector previous = ProxySelector.getDefault();
+
+        try (TestHttpServer server = TestHttpServer.start(exchange -> sendBytes(exchange, 200, data));
+             TestSocksProxy proxy = TestSocksProxy.start()) {
+            ProxySelector.setDefault(new ProxySelector() {
+                @Override
+                public List<Proxy> select(URI uri) {
+                    return List.of(new Proxy(Proxy.Type.SOCKS, proxy.address()));
+                }
+
+                @Override
+                public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+                }
+            });
+            assertTrue(FetchTask.usesSocksProxy(server.uri()));
+
+            TextFetchTask task = new TextFetchTask(server.uri());
+            task.setCacheRepository(newRepository(tempDir));
+            task.setRetry(1);
+
+            assertTrue(task.test(), () -> String.valueOf(task.getException()));
+            assertEquals("proxied", task.getResult());
+            assertTrue(proxy.connections() > 0);
+        } finally {
+            ProxySelector.setDefault(previous);
+        }
+    }
+
     /// Text fetch task that avoids JavaFX progress updates in isolated unit tests.
     private static final class TextFetchTask extends FetchTask<String> {
         /// Creates a text fetch task for one URI.
@@ -352,23 +566,116 @@ public final class FetchTaskTest {
     }
 
     /// Minimal closeable HTTP server for local download tests.
-    private record TestHttpServer(HttpServer server) implements AutoCloseable {
+    private record TestHttpServer(String host, HttpServer server, ExecutorService executor) implements AutoCloseable {
         /// Starts a server with one file endpoint.
         static TestHttpServer start(ThrowingHttpHandler handler) throws IOException {
-            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            return start("127.0.0.1", handler);
+        }
+
+        /// Starts a server with one file endpoint, reached through `host`.
+        static TestHttpServer start(String host, ThrowingHttpHandler handler) throws IOException {
+            HttpServer server = HttpServer.create(new InetSocketAddress(host, 0), 0);
+            ExecutorService executor = Executors.newCachedThreadPool();
             server.createContext("/file", handler::handle);
+            server.setExecutor(executor);
             server.start();
-            return new TestHttpServer(server);
+            return new TestHttpServer(host, server, executor);
         }
 
         /// Returns the file endpoint URI.
         URI uri() {
-            return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/file");
+            return URI.create("http://" + host + ":" + server.getAddress().getPort() + "/file");
         }
 
         @Override
         public void close() {
             server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    /// Minimal SOCKS5 proxy without authentication that relays connections and counts them.
+    private record TestSocksProxy(ServerSocket serverSocket, ExecutorService executor, Set<Socket> sockets,
+                                  AtomicInteger connectionCount) implements AutoCloseable {
+        /// Starts a proxy on a loopback port.
+        static TestSocksProxy start() throws IOException {
+            ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            TestSocksProxy proxy = new TestSocksProxy(serverSocket, Executors.newCachedThreadPool(),
+                    ConcurrentHashMap.newKeySet(), new AtomicInteger());
+            proxy.executor.execute(proxy::acceptLoop);
+            return proxy;
+        }
+
+        /// Returns the address clients connect to.
+        InetSocketAddress address() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        }
+
+        /// Returns the number of connections relayed to a target.
+        int connections() {
+            return connectionCount.get();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket client = serverSocket.accept();
+                    sockets.add(client);
+                    executor.execute(() -> relay(client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void relay(Socket client) {
+            try (client) {
+                DataInputStream input = new DataInputStream(client.getInputStream());
+                OutputStream output = client.getOutputStream();
+
+                // Greeting: version, methods
+                if (input.readUnsignedByte() != 5)
+                    return;
+                input.skipNBytes(input.readUnsignedByte());
+                output.write(new byte[]{5, 0});
+
+                // Request: version, command, reserved, address type, address, port
+                input.skipNBytes(3);
+                InetAddress host = switch (input.readUnsignedByte()) {
+                    case 1 -> InetAddress.getByAddress(input.readNBytes(4));
+                    case 3 -> InetAddress.getByName(new String(input.readNBytes(input.readUnsignedByte()), UTF_8));
+                    case 4 -> InetAddress.getByAddress(input.readNBytes(16));
+                    default -> throw new IOException("Unknown address type");
+                };
+                int port = input.readUnsignedShort();
+
+                // The proxy selector of the test would send this connection to the proxy itself
+                try (Socket target = new Socket(Proxy.NO_PROXY)) {
+                    sockets.add(target);
+                    target.connect(new InetSocketAddress(host, port));
+                    connectionCount.incrementAndGet();
+                    output.write(new byte[]{5, 0, 0, 1, 0, 0, 0, 0, 0, 0});
+                    output.flush();
+
+                    executor.execute(() -> {
+                        try {
+                            input.transferTo(target.getOutputStream());
+                        } catch (IOException ignored) {
+                        }
+                    });
+                    target.getInputStream().transferTo(output);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            executor.shutdownNow();
         }
     }
 
@@ -0,0 +1,81 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests running bounded parallel stages.
+public final class ParallelStageTest {
+
+    /// Verifies that results keep the item order and that concurrency never exceeds the bound.
+    @Test
+    public void keepsOrderAndBoundsConcurrency() throws Exception {
+        List<Integer> items = IntStream.range(0, 500).boxed().toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger lastProgress = new AtomicInteger();
+
+        List<Integer> results = ParallelStage.map(items, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            running.decrementAndGet();
+            return item * 2;
+        }, count -> lastProgress.accumulateAndGet(count, Math::max));
+
+        assertEquals(items.stream().map(item -> item * 2).toList(), results);
+        assertTrue(maxRunning.get() <= ParallelStage.DEFAULT_PARALLELISM);
+        assertEquals(items.size(), lastProgress.get());
+    }
+
+    /// Verifies that an explicit parallelism bounds concurrency below the default.
+    @Test
+    public void honorsExplicitParallelism() throws Exception {
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ParallelStage.map(items, 2, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return item;
+        }, count -> {
+        });
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    /// Verifies that the first failure is rethrown to the caller.
+    @Test
+    public void rethrowsFailure() {
+        List<Integer> items = IntStream.range(0, 100).boxed().toList();
+        IOException exception = assertThrows(IOException.class, () -> ParallelStage.map(items, item -> {
+            if (item == 42) throw new IOException("broken");
+            return item;
+        }, count -> {
+        }));
+        assertEquals("broken", exception.getMessage());
+    }
+}
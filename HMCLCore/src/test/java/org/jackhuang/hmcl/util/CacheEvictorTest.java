@@ -0,0 +1,113 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jackhuang.hmcl.util.io.UrlResponseInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests evicting files from a cache repository.
+public final class CacheEvictorTest {
+
+    private final List<CacheRepository> repositories = new ArrayList<>();
+
+    private CacheRepository open(Path directory) {
+        CacheRepository repository = new CacheRepository();
+        repository.changeDirectory(directory);
+        repositories.add(repository);
+        return repository;
+    }
+
+    /// Writes the access indexes now, so that their delayed saves do not write into deleted temporary directories.
+    @AfterEach
+    public void saveAccessIndexes() {
+        for (CacheRepository repository : repositories) {
+            repository.getAccessIndex().save();
+        }
+    }
+
+    private static Path cache(CacheRepository repository, String url, String text) throws IOException {
+        HttpHeaders headers = HttpHeaders.of(Map.of("etag", List.of("\"" + url + "\"")), (name, value) -> true);
+        return repository.cacheText(new UrlResponseInfo(200, URI.create(url), headers), text);
+    }
+
+    private static String hashOf(Path file) {
+        return file.getFileName().toString();
+    }
+
+    /// Verifies that the least recently used files are evicted first until the store fits the size budget,
+    /// and that the ETag entries of evicted files are dropped.
+    @Test
+    public void evictsLeastRecentlyUsed(@TempDir Path tempDir) throws Exception {
+        CacheRepository repository = open(tempDir);
+
+        Path oldest = cache(repository, "https://example.com/a", "a".repeat(100));
+        Path middle = cache(repository, "https://example.com/b", "b".repeat(100));
+        Path newest = cache(repository, "https://example.com/c", "c".repeat(100));
+        long now = System.currentTimeMillis();
+        repository.getAccessIndex().setLastAccessTime(hashOf(oldest), now - 3 * CacheAccessIndex.GRANULARITY_MILLIS);
+        repository.getAccessIndex().setLastAccessTime(hashOf(middle), now - 2 * CacheAccessIndex.GRANULARITY_MILLIS);
+        repository.getAccessIndex().setLastAccessTime(hashOf(newest), now - CacheAccessIndex.GRANULARITY_MILLIS);
+
+        CacheEvictor.Result result = new CacheEvictor(repository).evict(new CacheEvictor.Budget(250, 0), hash -> false);
+
+        assertEquals(1, result.evictedFiles());
+        assertEquals(200, result.remainingBytes());
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(middle));
+        assertTrue(Files.exists(newest));
+        assertEquals(Map.of(), repository.injectConnection(URI.create("https://example.com/a")));
+
+        CacheRepository reopened = open(tempDir);
+        assertEquals(Map.of(), reopened.injectConnection(URI.create("https://example.com/a")));
+        assertEquals("b".repeat(100), Files.readString(reopened.getCachedRemoteFile(URI.create("https://example.com/b"), false), StandardCharsets.UTF_8));
+    }
+
+    /// Verifies that referenced files are kept even when they are too old.
+    @Test
+    public void keepsReferencedFiles(@TempDir Path tempDir) throws Exception {
+        CacheRepository repository = open(tempDir);
+
+        Path referenced = cache(repository, "https://example.com/a", "referenced");
+        Path unused = cache(repository, "https://example.com/b", "unused");
+        long longAgo = System.currentTimeMillis() - 100 * CacheAccessIndex.GRANULARITY_MILLIS;
+        repository.getAccessIndex().setLastAccessTime(hashOf(referenced), longAgo);
+        repository.getAccessIndex().setLastAccessTime(hashOf(unused), longAgo);
+
+        CacheEvictor.Result result = new CacheEvictor(repository).evict(
+                new CacheEvictor.Budget(0, CacheAccessIndex.GRANULARITY_MILLIS), Set.of(hashOf(referenced))::contains);
+
+        assertEquals(1, result.evictedFiles());
+        assertTrue(Files.exists(referenced));
+        assertFalse(Files.exists(unused));
+    }
+}
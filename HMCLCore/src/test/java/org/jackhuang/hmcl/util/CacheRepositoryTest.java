@@ -0,0 +1,133 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jackhuang.hmcl.util.io.UrlResponseInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the persistence of the ETag index.
+public final class CacheRepositoryTest {
+
+    private final List<CacheRepository> repositories = new ArrayList<>();
+
+    private CacheRepository open(Path commonDir) {
+        CacheRepository repository = new CacheRepository();
+        repository.changeDirectory(commonDir);
+        repositories.add(repository);
+        return repository;
+    }
+
+    /// Writes the access indexes now, so that their delayed saves do not write into deleted temporary directories.
+    @AfterEach
+    public void saveAccessIndexes() {
+        for (CacheRepository repository : repositories) {
+            repository.getAccessIndex().save();
+        }
+    }
+
+    private static void cache(CacheRepository repository, String url, String eTag, String text) throws IOException {
+        HttpHeaders headers = HttpHeaders.of(Map.of("etag", List.of(eTag)), (name, value) -> true);
+        repository.cacheText(new UrlResponseInfo(200, URI.create(url), headers), text);
+    }
+
+    private static String readCached(CacheRepository repository, String url) throws IOException {
+        return Files.readString(repository.getCachedRemoteFile(URI.create(url), false), StandardCharsets.UTF_8);
+    }
+
+    /// Verifies that entries appended by two repositories sharing a directory are all visible after reopening it.
+    @Test
+    public void mergesEntriesOfSeveralProcesses(@TempDir Path tempDir) throws IOException {
+        CacheRepository first = open(tempDir);
+        CacheRepository second = open(tempDir);
+
+        cache(first, "https://example.com/a", "\"a\"", "content a");
+        cache(second, "https://example.com/b", "\"b\"", "content b");
+
+        CacheRepository reopened = open(tempDir);
+        assertEquals("content a", readCached(reopened, "https://example.com/a"));
+        assertEquals("content b", readCached(reopened, "https://example.com/b"));
+        assertEquals(Map.of("if-none-match", "\"b\""), reopened.injectConnection(URI.create("https://example.com/b")));
+    }
+
+    /// Verifies that compaction keeps every entry, and that another repository notices it before appending.
+    @Test
+    public void keepsEntriesAcrossCompaction(@TempDir Path tempDir) throws IOException {
+        CacheRepository first = open(tempDir);
+        CacheRepository second = open(tempDir);
+
+        cache(first, "https://example.com/a", "\"a\"", "content a");
+        first.saveETagIndex();
+        cache(second, "https://example.com/b", "\"b\"", "content b");
+
+        assertTrue(Files.isRegularFile(tempDir.resolve("cache").resolve("etag.json")));
+        CacheRepository reopened = open(tempDir);
+        assertEquals("content a", readCached(reopened, "https://example.com/a"));
+        assertEquals("content b", readCached(reopened, "https://example.com/b"));
+    }
+
+    /// Verifies that a line cut short by a crash is ignored and overwritten by the next entry.
+    @Test
+    public void ignoresTornLine(@TempDir Path tempDir) throws IOException {
+        CacheRepository repository = open(tempDir);
+        cache(repository, "https://example.com/a", "\"a\"", "content a");
+        Files.writeString(tempDir.resolve("cache").resolve("etag.log"), "{\"url\":\"https://exa",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        CacheRepository reopened = open(tempDir);
+        cache(reopened, "https://example.com/b", "\"b\"", "content b");
+
+        CacheRepository again = open(tempDir);
+        assertEquals("content a", readCached(again, "https://example.com/a"));
+        assertEquals("content b", readCached(again, "https://example.com/b"));
+    }
+
+    /// Verifies that a removed entry stays removed for other repositories, before and after compaction.
+    @Test
+    public void logsRemovedEntries(@TempDir Path tempDir) throws IOException {
+        CacheRepository first = open(tempDir);
+        CacheRepository second = open(tempDir);
+        cache(first, "https://example.com/a", "\"a\"", "content a");
+        cache(first, "https://example.com/b", "\"b\"", "content b");
+
+        second.removeRemoteEntry(URI.create("https://example.com/a?query"));
+
+        assertThrows(IOException.class, () -> readCached(open(tempDir), "https://example.com/a"));
+        cache(first, "https://example.com/c", "\"c\"", "content c");
+        assertEquals(Map.of(), first.injectConnection(URI.create("https://example.com/a")));
+
+        first.saveETagIndex();
+        CacheRepository reopened = open(tempDir);
+        assertThrows(IOException.class, () -> readCached(reopened, "https://example.com/a"));
+        assertEquals("content b", readCached(reopened, "https://example.com/b"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/// Tests computing several digests of a file in one pass.
+@NotNullByDefault
+public final class DigestUtilsTest {
+
+    /// Verifies that files read in one or several chunks produce the same digests as separate passes.
+    @Test
+    public void multiDigestMatchesSeparateDigests(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(0);
+        for (int size : new int[]{0, 1, 7, 64 * 1024, 64 * 1024 + 1, 300_000}) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            for (int i = 0; i < size; i += 13) {
+                data[i] = 0x20;
+            }
+
+            Path file = tempDir.resolve("sample-" + size);
+            Files.write(file, data);
+
+            DigestUtils.MultiDigest digest = DigestUtils.digest(file, "SHA-1", "SHA-512", DigestUtils.CURSEFORGE_FINGERPRINT);
+
+            ByteArrayOutputStream filtered = new ByteArrayOutputStream();
+            for (byte b : data) {
+                if (b != 0x9 && b != 0xa && b != 0xd && b != 0x20) {
+                    filtered.write(b);
+                }
+            }
+
+            assertEquals(DigestUtils.digestToString("SHA-1", data), digest.getString("SHA-1"));
+            assertEquals(DigestUtils.digestToString("SHA-512", data), digest.getString("SHA-512"));
+            assertEquals(Integer.toUnsignedLong(MurmurHash2.hash32(filtered.toByteArray(), filtered.size(), 1)),
+                    digest.getCurseForgeFingerprint());
+        }
+    }
+
+    /// Verifies that digests which were not requested cannot be read.
+    @Test
+    public void rejectsDigestsThatWereNotComputed(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("sample");
+        Files.writeString(file, "sample");
+
+        DigestUtils.MultiDigest digest = DigestUtils.digest(file, "SHA-1");
+        assertThrows(IllegalArgumentException.class, () -> digest.get("SHA-256"));
+        assertThrows(IllegalStateException.class, digest::getCurseForgeFingerprint);
+    }
+}
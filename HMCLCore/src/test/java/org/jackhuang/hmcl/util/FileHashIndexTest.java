@@ -0,0 +1,105 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests reusing and invalidating remembered file digests.
+@NotNullByDefault
+public final class FileHashIndexTest {
+
+    /// Verifies that a persisted digest is reused while the file attributes match, and recomputed once they change.
+    @Test
+    public void reusesDigestUntilFileChanges(@TempDir Path tempDir) throws IOException {
+        Path indexFile = tempDir.resolve("hashes.json");
+        Path file = tempDir.resolve("file");
+        FileTime lastModified = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Files.writeString(file, "aaaa");
+        Files.setLastModifiedTime(file, lastModified);
+
+        FileHashIndex index = new FileHashIndex(indexFile);
+        String original = index.digestToString("SHA-1", file);
+        assertEquals(DigestUtils.digestToString("SHA-1", "aaaa".getBytes()), original);
+        index.save();
+
+        // Same size and timestamp, so the remembered digest is trusted even though the content differs
+        Files.writeString(file, "bbbb");
+        Files.setLastModifiedTime(file, lastModified);
+        FileHashIndex reloaded = new FileHashIndex(indexFile);
+        assertEquals(original, reloaded.digestToString("SHA-1", file));
+
+        Files.setLastModifiedTime(file, FileTime.from(lastModified.toInstant().plusSeconds(1)));
+        assertEquals(DigestUtils.digestToString("SHA-1", "bbbb".getBytes()), reloaded.digestToString("SHA-1", file));
+    }
+
+    /// Verifies that recently modified files are not remembered, because a later write could keep their timestamp.
+    @Test
+    public void doesNotRememberRecentlyModifiedFiles(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("file");
+        Files.writeString(file, "aaaa");
+        FileTime lastModified = Files.getLastModifiedTime(file);
+
+        FileHashIndex index = new FileHashIndex(null);
+        index.digestToString("SHA-1", file);
+
+        Files.writeString(file, "bbbb");
+        Files.setLastModifiedTime(file, lastModified);
+        assertEquals(DigestUtils.digestToString("SHA-1", "bbbb".getBytes()), index.digestToString("SHA-1", file));
+    }
+
+    /// Verifies that saving keeps the entries another index saved meanwhile, except those invalidated by this one.
+    @Test
+    public void mergesEntriesSavedByOthers(@TempDir Path tempDir) throws IOException {
+        Path indexFile = tempDir.resolve("hashes.json");
+        FileTime lastModified = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        for (Path file : new Path[]{first, second}) {
+            Files.writeString(file, "aaaa");
+            Files.setLastModifiedTime(file, lastModified);
+        }
+        String original = DigestUtils.digestToString("SHA-1", "aaaa".getBytes());
+
+        FileHashIndex one = new FileHashIndex(indexFile);
+        FileHashIndex other = new FileHashIndex(indexFile);
+        one.digestToString("SHA-1", first);
+        other.digestToString("SHA-1", second);
+        one.save();
+        other.invalidate(first);
+        other.save();
+
+        for (Path file : new Path[]{first, second}) {
+            Files.writeString(file, "bbbb");
+            Files.setLastModifiedTime(file, lastModified);
+        }
+        FileHashIndex reloaded = new FileHashIndex(indexFile);
+        assertEquals(original, reloaded.digestToString("SHA-1", second));
+        assertEquals(DigestUtils.digestToString("SHA-1", "bbbb".getBytes()), reloaded.digestToString("SHA-1", first));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests identifying versions of a file by [FileStamp].
+@NotNullByDefault
+public final class FileStampTest {
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+
+    /// Verifies that a stamp matches until the size, the last modified time or the file itself changes.
+    @Test
+    public void matchesUntilFileChanges(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("file");
+        FileTime lastModified = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Files.writeString(file, "aaaa");
+        Files.setLastModifiedTime(file, lastModified);
+        FileStamp stamp = FileStamp.of(file);
+
+        Files.writeString(file, "bbbb");
+        Files.setLastModifiedTime(file, lastModified);
+        assertTrue(stamp.matches(attributes(file)));
+
+        Files.setLastModifiedTime(file, FileTime.from(lastModified.toInstant().plusMillis(1)));
+        assertFalse(stamp.matches(attributes(file)));
+
+        Files.writeString(file, "bbbbb");
+        Files.setLastModifiedTime(file, lastModified);
+        assertFalse(stamp.matches(attributes(file)));
+    }
+
+    /// Verifies that a file replaced by another one with the same size and timestamp no longer matches
+    /// where the file system has file keys.
+    @Test
+    public void distinguishesReplacedFiles(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("file");
+        Path replacement = tempDir.resolve("replacement");
+        FileTime lastModified = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Files.writeString(file, "aaaa");
+        Files.setLastModifiedTime(file, lastModified);
+        FileStamp stamp = FileStamp.of(file);
+        if (stamp.fileKey() == null)
+            return;
+
+        Files.writeString(replacement, "aaaa");
+        Files.setLastModifiedTime(replacement, lastModified);
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+        assertFalse(stamp.matches(attributes(file)));
+    }
+
+    /// Verifies that only files modified before the racy window are settled.
+    @Test
+    public void settlesAfterRacyWindow(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("file");
+        Files.writeString(file, "aaaa");
+        assertFalse(FileStamp.isSettled(attributes(file)));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - FileStamp.RACY_WINDOW_MILLIS - 1000));
+        assertTrue(FileStamp.isSettled(attributes(file)));
+    }
+}
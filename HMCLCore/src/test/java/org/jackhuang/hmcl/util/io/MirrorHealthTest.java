@@ -0,0 +1,67 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests ranking download candidates by the health of their hosts.
+public final class MirrorHealthTest {
+    private static final URI OFFICIAL = URI.create("https://piston-data.mojang.com/v1/objects/a/client.jar");
+    private static final URI MIRROR = URI.create("https://bmclapi2.bangbang93.com/v1/objects/a/client.jar");
+    private static final URI UNKNOWN = URI.create("https://mirror.example.com/v1/objects/a/client.jar");
+
+    @AfterEach
+    public void clear() {
+        MirrorHealth.clear();
+    }
+
+    /// Verifies that the configured order is kept while nothing is known about the hosts.
+    @Test
+    public void keepsOrderWithoutSamples() {
+        List<URI> candidates = List.of(OFFICIAL, MIRROR, UNKNOWN);
+        assertSame(candidates, MirrorHealth.rank(candidates));
+    }
+
+    /// Verifies that a clearly faster host is preferred, while hosts without samples keep their position.
+    @Test
+    public void prefersFasterKnownHost() {
+        MirrorHealth.recordSuccess(OFFICIAL, 2_000_000_000L, 4 * 1024 * 1024, 20_000_000_000L);
+        MirrorHealth.recordSuccess(MIRROR, 50_000_000L, 4 * 1024 * 1024, 500_000_000L);
+
+        assertEquals(List.of(MIRROR, UNKNOWN, OFFICIAL), MirrorHealth.rank(List.of(OFFICIAL, UNKNOWN, MIRROR)));
+    }
+
+    /// Verifies that a host failing repeatedly is tried last until it succeeds again.
+    @Test
+    public void demotesDegradedHost() {
+        for (int i = 0; i < 3; i++) {
+            MirrorHealth.recordFailure(MIRROR);
+        }
+        assertTrue(MirrorHealth.isDegraded(MIRROR));
+        assertEquals(List.of(OFFICIAL, UNKNOWN, MIRROR), MirrorHealth.rank(List.of(MIRROR, OFFICIAL, UNKNOWN)));
+
+        MirrorHealth.recordSuccess(MIRROR, 50_000_000L, 0, 0);
+        assertFalse(MirrorHealth.isDegraded(MIRROR));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/// Tests reading selected tags of an NBT stream.
+public final class NBTScannerTest {
+
+    /// `{Name: "test", Data: {Blocks: long[4096], Size: {x: 1, y: 2}}, Tail: [1, 2]}`
+    private static byte[] sample() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(NBTScanner.TAG_COMPOUND);
+        out.writeUTF("");
+
+        out.writeByte(NBTScanner.TAG_STRING);
+        out.writeUTF("Name");
+        out.writeUTF("test");
+
+        out.writeByte(NBTScanner.TAG_COMPOUND);
+        out.writeUTF("Data");
+        out.writeByte(NBTScanner.TAG_LONG_ARRAY);
+        out.writeUTF("Blocks");
+        out.writeInt(4096);
+        for (int i = 0; i < 4096; i++) {
+            out.writeLong(i);
+        }
+        out.writeByte(NBTScanner.TAG_COMPOUND);
+        out.writeUTF("Size");
+        out.writeByte(NBTScanner.TAG_INT);
+        out.writeUTF("x");
+        out.writeInt(1);
+        out.writeByte(NBTScanner.TAG_INT);
+        out.writeUTF("y");
+        out.writeInt(2);
+        out.writeByte(NBTScanner.TAG_END);
+        out.writeByte(NBTScanner.TAG_END);
+
+        out.writeByte(NBTScanner.TAG_LIST);
+        out.writeUTF("Tail");
+        out.writeByte(NBTScanner.TAG_SHORT);
+        out.writeInt(2);
+        out.writeShort(1);
+        out.writeShort(2);
+
+        out.writeByte(NBTScanner.TAG_END);
+        return bytes.toByteArray();
+    }
+
+    /// Verifies that skipped tags are stepped over and that the requested tags are decoded.
+    @Test
+    public void readsSelectedTags() throws IOException {
+        List<String> visited = new ArrayList<>();
+        Map<String, Object> values = new LinkedHashMap<>();
+        NBTScanner.scan(new ByteArrayInputStream(sample()), new NBTScanner.Visitor() {
+            @Override
+            public NBTScanner.Action visitTag(String path, byte type) {
+                visited.add(path);
+                return switch (path) {
+                    case "Data" -> NBTScanner.Action.ENTER;
+                    case "Data/Size", "Tail" -> NBTScanner.Action.READ;
+                    default -> NBTScanner.Action.SKIP;
+                };
+            }
+
+            @Override
+            public void visitValue(String path, Object value) {
+                values.put(path, value);
+            }
+        });
+
+        assertEquals(List.of("Name", "Data", "Data/Blocks", "Data/Size", "Tail"), visited);
+        assertEquals(Map.of("Data/Size", Map.of("x", 1, "y", 2), "Tail", List.of((short) 1, (short) 2)), values);
+    }
+
+    /// Verifies that scanning ends as soon as the visitor asks to stop.
+    @Test
+    public void stopsEarly() throws IOException {
+        List<String> visited = new ArrayList<>();
+        NBTScanner.scan(new ByteArrayInputStream(sample()), (path, type) -> {
+            visited.add(path);
+            return path.equals("Data") ? NBTScanner.Action.STOP : NBTScanner.Action.READ;
+        });
+        assertEquals(List.of("Name", "Data"), visited);
+    }
+
+    /// Verifies that the end of every entered compound is reported.
+    @Test
+    public void visitsEndOfEnteredCompounds() throws IOException {
+        List<String> ends = new ArrayList<>();
+        NBTScanner.scan(new ByteArrayInputStream(sample()), new NBTScanner.Visitor() {
+            @Override
+            public NBTScanner.Action visitTag(String path, byte type) {
+                return path.equals("Data") || path.equals("Data/Size") ? NBTScanner.Action.ENTER : NBTScanner.Action.SKIP;
+            }
+
+            @Override
+            public void visitEnd(String path) {
+                ends.add(path);
+            }
+        });
+        assertEquals(List.of("Data/Size", "Data", ""), ends);
+    }
+
+    /// Verifies that arrays longer than the initial allocation are read in full.
+    @Test
+    public void readsLargeArrays() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(NBTScanner.TAG_COMPOUND);
+        out.writeUTF("");
+        out.writeByte(NBTScanner.TAG_BYTE_ARRAY);
+        out.writeUTF("Bytes");
+        out.writeInt(10000);
+        for (int i = 0; i < 10000; i++) {
+            out.writeByte(i);
+        }
+        out.writeByte(NBTScanner.TAG_LONG_ARRAY);
+        out.writeUTF("Longs");
+        out.writeInt(10000);
+        for (int i = 0; i < 10000; i++) {
+            out.writeLong(i);
+        }
+        out.writeByte(NBTScanner.TAG_END);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        NBTScanner.scan(new ByteArrayInputStream(bytes.toByteArray()), new NBTScanner.Visitor() {
+            @Override
+            public NBTScanner.Action visitTag(String path, byte type) {
+                return NBTScanner.Action.READ;
+            }
+
+            @Override
+            public void visitValue(String path, Object value) {
+                values.put(path, value);
+            }
+        });
+
+        byte[] byteArray = (byte[]) values.get("Bytes");
+        long[] longArray = (long[]) values.get("Longs");
+        assertEquals(10000, byteArray.length);
+        assertEquals((byte) 9999, byteArray[9999]);
+        assertEquals(10000, longArray.length);
+        assertEquals(9999L, longArray[9999]);
+    }
+
+    /// Verifies that a corrupt array length fails at the end of the data instead of allocating the claimed length.
+    @Test
+    public void rejectsTruncatedArrays() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(NBTScanner.TAG_COMPOUND);
+        out.writeUTF("");
+        out.writeByte(NBTScanner.TAG_LONG_ARRAY);
+        out.writeUTF("Longs");
+        out.writeInt(Integer.MAX_VALUE);
+        out.writeLong(1L);
+
+        assertThrows(EOFException.class, () -> NBTScanner.scan(new ByteArrayInputStream(bytes.toByteArray()), new NBTScanner.Visitor() {
+            @Override
+            public NBTScanner.Action visitTag(String path, byte type) {
+                return NBTScanner.Action.READ;
+            }
+        }));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Hello Minecraft! Launcher
+ * Copyright (C) 2026 huangyuhui <huanghongxun2008@126.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jackhuang.hmcl.util.platform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the bounded process output buffer.
+public final class LineRingBufferTest {
+
+    /// Verifies that only the most recent lines are kept when no spill file is configured.
+    @Test
+    public void keepsMostRecentLines() {
+        LineRingBuffer buffer = new LineRingBuffer(8, null);
+        for (int i = 0; i < 20; i++) {
+            buffer.add("line " + i);
+        }
+
+        assertEquals(20, buffer.size());
+        try (Stream<String> lines = buffer.lines()) {
+            assertEquals(IntStream.range(12, 20).mapToObj(i -> "line " + i).toList(), lines.toList());
+        }
+    }
+
+    /// Verifies that the capacity is not rounded up.
+    @Test
+    public void honorsExactCapacity() {
+        LineRingBuffer buffer = new LineRingBuffer(5, null);
+        for (int i = 0; i < 12; i++) {
+            buffer.add("line " + i);
+        }
+
+        assertEquals(5, buffer.getCapacity());
+        try (Stream<String> lines = buffer.lines()) {
+            assertEquals(IntStream.range(7, 12).mapToObj(i -> "line " + i).toList(), lines.toList());
+        }
+    }
+
+    /// Verifies that lines pushed out of the ring are replayed from the spill file until it is closed.
+    @Test
+    public void replaysSpilledLines(@TempDir Path tempDir) {
+        Path spillFile = tempDir.resolve("spill.log");
+        LineRingBuffer buffer = new LineRingBuffer(4, spillFile);
+        List<String> expected = IntStream.range(0, 10).mapToObj(i -> "line " + i).toList();
+        expected.forEach(buffer::add);
+
+        try (Stream<String> lines = buffer.lines()) {
+            assertEquals(expected, lines.toList());
+        }
+
+        buffer.close();
+        assertFalse(Files.exists(spillFile));
+        try (Stream<String> lines = buffer.lines()) {
+            assertEquals(expected.subList(6, 10), lines.toList());
+        }
+    }
+
+    /// Verifies that lines are traversed in place and that adding waits until the traversal has finished.
+    @Test
+    public void addingWaitsForTraversal(@TempDir Path tempDir) throws Exception {
+        LineRingBuffer buffer = new LineRingBuffer(4, tempDir.resolve("spill.log"));
+        List<String> expected = IntStream.range(0, 10).mapToObj(i -> "line " + i).toList();
+        expected.forEach(buffer::add);
+
+        Thread adder = new Thread(() -> buffer.add("line 10"));
+        List<String> lines = buffer.withLines(stream -> {
+            adder.start();
+            try {
+                adder.join(200);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(adder.isAlive());
+            return stream.toList();
+        });
+        assertEquals(expected, lines);
+
+        adder.join();
+        assertEquals(11, buffer.size());
+        buffer.close();
+    }
+
+    /// Verifies that lines added from several threads are spilled without gaps and in the order of each thread.
+    @Test
+    public void spillsConcurrentLinesInOrder(@TempDir Path tempDir) throws Exception {
+        LineRingBuffer buffer = new LineRingBuffer(3, tempDir.resolve("spill.log"));
+        int linesPerThread = 2000;
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            String prefix = "thread " + t + " line ";
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < linesPerThread; i++) {
+                    buffer.add(prefix + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<String> lines;
+        try (Stream<String> stream = buffer.lines()) {
+            lines = stream.toList();
+        }
+        assertEquals(threads.length * linesPerThread, lines.size());
+        for (int t = 0; t < threads.length; t++) {
+            String prefix = "thread " + t + " line ";
+            assertEquals(IntStream.range(0, linesPerThread).mapToObj(i -> prefix + i).toList(),
+                    lines.stream().filter(line -> line.startsWith(prefix)).toList());
+        }
+        buffer.close();
+    }
+}